@@ -3,12 +3,15 @@ package eu.pierix.crmv3.application;
 import eu.pierix.crmv3.domain.TokenType;
 import eu.pierix.crmv3.domain.User;
 import eu.pierix.crmv3.infrastructure.JwtService;
+import eu.pierix.crmv3.infrastructure.JwtService.IssuedToken;
 import eu.pierix.crmv3.web.dto.AuthenticationRequest;
 import eu.pierix.crmv3.web.dto.AuthenticationResponse;
 import eu.pierix.crmv3.web.dto.RegisterRequest;
 import eu.pierix.crmv3.web.dto.RegisterResponse;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -23,6 +26,7 @@ public class AuthenticationService {
     private final UserService userService;
     private final JwtService jwtService;
     private final TokenService tokenService;
+    private final UserDetailsCache userDetailsCache;
 
     @Value("${jwt.expiration:86400000}")
     private long jwtExpiration;
@@ -39,8 +43,8 @@ public class AuthenticationService {
             User user = userService.registerUser(request);
 
             // JWT-Tokens generieren (automatisches Login nach Registrierung)
-            String accessToken = jwtService.generateToken(user);
-            String refreshToken = jwtService.generateRefreshToken(user);
+            IssuedToken accessToken = jwtService.issueToken(user);
+            IssuedToken refreshToken = jwtService.issueRefreshToken(user);
 
             // Tokens in Datenbank speichern
             LocalDateTime accessExpiresAt = LocalDateTime.now().plusSeconds(jwtExpiration / 1000);
@@ -52,8 +56,8 @@ public class AuthenticationService {
             return RegisterResponse.builder()
                     .message("Benutzer erfolgreich registriert und automatisch eingeloggt")
                     .success(true)
-                    .accessToken(accessToken)
-                    .refreshToken(refreshToken)
+                    .accessToken(accessToken.token())
+                    .refreshToken(refreshToken.token())
                     .tokenType("Bearer")
                     .expiresIn(jwtExpiration)
                     .build();
@@ -74,8 +78,8 @@ public class AuthenticationService {
         User user = userService.authenticateUser(request.getUsernameOrEmail(), request.getPassword());
 
         // JWT-Tokens generieren
-        String accessToken = jwtService.generateToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
+        IssuedToken accessToken = jwtService.issueToken(user);
+        IssuedToken refreshToken = jwtService.issueRefreshToken(user);
 
         // Tokens in Datenbank speichern
         LocalDateTime accessExpiresAt = LocalDateTime.now().plusSeconds(jwtExpiration / 1000);
@@ -85,8 +89,8 @@ public class AuthenticationService {
         tokenService.saveToken(refreshToken, user, TokenType.BEARER, refreshExpiresAt);
 
         return AuthenticationResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
+                .accessToken(accessToken.token())
+                .refreshToken(refreshToken.token())
                 .tokenType("Bearer")
                 .expiresIn(jwtExpiration)
                 .build();
@@ -98,14 +102,15 @@ public class AuthenticationService {
     public AuthenticationResponse refreshToken(String refreshToken) {
         try {
             // Username aus Refresh-Token extrahieren
-            String username = jwtService.extractUsername(refreshToken);
+            Claims claims = jwtService.parseClaims(refreshToken);
+            String username = claims.getSubject();
             
             // Benutzer finden
             User user = userService.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Benutzer nicht gefunden"));
 
             // Refresh-Token validieren
-            if (!jwtService.isTokenValid(refreshToken, user) || !tokenService.isTokenValid(refreshToken)) {
+            if (!jwtService.isTokenValid(claims, user) || !tokenService.isTokenValid(refreshToken)) {
                 throw new RuntimeException("Ungültiger Refresh-Token");
             }
 
@@ -113,8 +118,8 @@ public class AuthenticationService {
             tokenService.revokeAllUserAccessTokens(user);
 
             // Neue Tokens generieren
-            String newAccessToken = jwtService.generateToken(user);
-            String newRefreshToken = jwtService.generateRefreshToken(user);
+            IssuedToken newAccessToken = jwtService.issueToken(user);
+            IssuedToken newRefreshToken = jwtService.issueRefreshToken(user);
 
             // Neue Tokens in Datenbank speichern
             LocalDateTime accessExpiresAt = LocalDateTime.now().plusSeconds(jwtExpiration / 1000);
@@ -127,8 +132,8 @@ public class AuthenticationService {
             tokenService.revokeToken(refreshToken);
 
             return AuthenticationResponse.builder()
-                    .accessToken(newAccessToken)
-                    .refreshToken(newRefreshToken)
+                    .accessToken(newAccessToken.token())
+                    .refreshToken(newRefreshToken.token())
                     .tokenType("Bearer")
                     .expiresIn(jwtExpiration)
                     .build();
@@ -143,11 +148,10 @@ public class AuthenticationService {
      */
     public boolean validateToken(String token) {
         try {
-            String username = jwtService.extractUsername(token);
-            User user = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Benutzer nicht gefunden"));
+            Claims claims = jwtService.parseClaims(token);
+            UserDetails userDetails = userDetailsCache.loadUserByUsername(claims.getSubject());
             
-            return jwtService.isTokenValid(token, user) && tokenService.isTokenValid(token);
+            return jwtService.isTokenValid(claims, userDetails) && tokenService.isTokenValid(token);
         } catch (Exception e) {
             return false;
         }
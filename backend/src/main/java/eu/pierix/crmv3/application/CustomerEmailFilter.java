@@ -0,0 +1,284 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-Memory-Bloom-Filter über die Emails aller Kunden als Negativ-Cache für die Email-Prüfung.
+ *
+ * Meldet der Filter "nicht enthalten", gibt es garantiert keinen Kunden mit dieser Email und die
+ * Datenbank muss nicht gefragt werden; bei "vielleicht enthalten" entscheidet die exakte Query.
+ * Neue und geänderte Emails werden über den {@link CustomerEmailFilterListener} sofort eingetragen
+ * (vor dem Commit, damit es nie ein falsches "nicht enthalten" gibt) und nach dem Commit erneut,
+ * damit sie auch in einem gerade laufenden Neuaufbau landen. Gelöschte oder überschriebene Emails
+ * lassen sich aus einem Bloom-Filter nicht entfernen und führen nur zu zusätzlichen Datenbank-Abfragen;
+ * der Filter wird deshalb nach vielen Löschungen und spätestens nach customer.email-filter.max-age neu aufgebaut.
+ *
+ * Schreibzugriffe an JPA vorbei (z.B. per JDBC, Importe) und anderer Instanzen sieht der Filter erst nach dem
+ * nächsten Neuaufbau. Er dient deshalb nur der lesenden Email-Prüfung und meldet "nicht vorhanden" nie
+ * als endgültige Antwort für andere Zwecke.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerEmailFilter {
+
+    private static final int CHUNK_SIZE = 10_000;
+    private static final double REMOVED_RATIO_FOR_REBUILD = 0.2;
+    private static final long MIN_REMOVED_FOR_REBUILD = 1_000;
+
+    private final CustomerRepository customerRepository;
+
+    @Value("${customer.email-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${customer.email-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${customer.email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${customer.email-filter.max-age:PT24H}")
+    private Duration maxAge;
+
+    // null, solange der Filter nicht aufgebaut ist; dann wird jede Anfrage an die Datenbank weitergereicht
+    private volatile BloomFilter filter;
+    // Während eines Neuaufbaus der neue Filter, in den Änderungen zusätzlich eingetragen werden
+    private volatile BloomFilter building;
+    private volatile Instant builtAt;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong removedSinceBuild = new AtomicLong();
+
+    /**
+     * Baut den Filter beim Anwendungsstart auf
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            log.info("Email-Filter für Kunden ist deaktiviert");
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Gibt an, ob Anfragen aus dem Filter beantwortet werden können
+     */
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    /**
+     * Prüft, ob ein Kunde mit der (bereits normalisierten) Email existieren könnte.
+     * false bedeutet "garantiert nicht vorhanden", true muss über die Datenbank bestätigt werden.
+     */
+    public boolean mightContain(String normalizedEmail) {
+        BloomFilter current = filter;
+        return current == null || normalizedEmail == null || current.mightContain(normalizedEmail);
+    }
+
+    /**
+     * Trägt die Email eines neuen oder geänderten Kunden ein
+     */
+    public void onCustomerSaved(Customer customer) {
+        String email = normalize(customer.getEmail());
+        if (!enabled || email == null) {
+            return;
+        }
+        put(email);
+        TransactionCallbacks.afterCommit(() -> put(email));
+    }
+
+    /**
+     * Zählt gelöschte Kunden für die Entscheidung über einen Neuaufbau
+     */
+    public void onCustomerRemoved(Customer customer) {
+        if (!enabled || customer.getEmail() == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(removedSinceBuild::incrementAndGet);
+    }
+
+    /**
+     * Baut den Filter neu auf, wenn viele Emails gelöscht wurden, er überfüllt oder zu alt ist
+     */
+    @Scheduled(fixedDelayString = "${customer.email-filter.check-interval-ms:300000}",
+            initialDelayString = "${customer.email-filter.check-interval-ms:300000}")
+    public void rebuildIfStale() {
+        if (!enabled) {
+            return;
+        }
+        BloomFilter current = filter;
+        if (current == null) {
+            rebuild();
+            return;
+        }
+
+        long removed = removedSinceBuild.get();
+        boolean manyRemoved = removed >= MIN_REMOVED_FOR_REBUILD && removed > current.insertions() * REMOVED_RATIO_FOR_REBUILD;
+        boolean overfilled = current.insertions() > current.capacity();
+        boolean expired = builtAt.plus(maxAge).isBefore(Instant.now());
+        if (manyRemoved || overfilled || expired) {
+            log.info("Baue Email-Filter neu auf (gelöscht: {}, überfüllt: {}, abgelaufen: {})", removed, overfilled, expired);
+            rebuild();
+        }
+    }
+
+    /**
+     * Baut den Filter vollständig aus der Datenbank neu auf; der bisherige Filter bleibt bis zum Abschluss aktiv
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.debug("Email-Filter wird bereits aufgebaut");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            long total = customerRepository.count();
+            BloomFilter next = new BloomFilter(Math.max(expectedInsertions, total * 2), falsePositiveRate);
+            // Ab hier eintreffende Änderungen landen auch im neuen Filter
+            building = next;
+            removedSinceBuild.set(0);
+
+            Long minId = customerRepository.findMinId();
+            Long maxId = customerRepository.findMaxId();
+            if (minId != null && maxId != null) {
+                for (long from = minId; from <= maxId; from += CHUNK_SIZE) {
+                    customerRepository.findNormalizedEmailsByIdBetween(from, Math.min(from + CHUNK_SIZE - 1, maxId))
+                            .forEach(next::put);
+                }
+            }
+
+            filter = next;
+            builtAt = Instant.now();
+            log.info("Email-Filter mit {} Emails in {} ms aufgebaut ({} KB)",
+                    next.insertions(), (System.nanoTime() - start) / 1_000_000, next.sizeInBytes() / 1024);
+        } catch (Exception e) {
+            log.error("Fehler beim Aufbau des Email-Filters: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Normalisiert eine Email wie die Datenbank-Abfrage (lower(email))
+     */
+    private static String normalize(String email) {
+        return email != null ? email.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private void put(String email) {
+        // Erst den entstehenden, dann den aktiven Filter lesen: beim Umschalten wird zuerst der
+        // aktive Filter ersetzt und danach building geleert, so geht keine Email verloren
+        BloomFilter next = building;
+        BloomFilter current = filter;
+        if (next != null) {
+            next.put(email);
+        }
+        if (current != null && current != next) {
+            current.put(email);
+        }
+    }
+
+    /**
+     * Thread-sicherer Bloom-Filter mit k aus zwei 64-Bit-Hashes abgeleiteten Bitpositionen
+     */
+    private static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final long capacity;
+        private final AtomicLong insertions = new AtomicLong();
+
+        BloomFilter(long capacity, double falsePositiveRate) {
+            this.capacity = Math.max(1, capacity);
+            double ln2 = Math.log(2);
+            long bits = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (bits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = (long) wordCount * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * ln2));
+        }
+
+        void put(String value) {
+            long hash = hash(value);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            boolean changed = false;
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = bitIndex(first, second, i);
+                long mask = 1L << bit;
+                long previous = words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+                changed |= (previous & mask) == 0;
+            }
+            if (changed) {
+                insertions.incrementAndGet();
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = bitIndex(first, second, i);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long insertions() {
+            return insertions.get();
+        }
+
+        long capacity() {
+            return capacity;
+        }
+
+        long sizeInBytes() {
+            return (long) words.length() * Long.BYTES;
+        }
+
+        private long bitIndex(int first, int second, int i) {
+            long combined = first + (long) i * second;
+            return (combined & Long.MAX_VALUE) % bitCount;
+        }
+
+        /**
+         * FNV-1a über die UTF-8-Bytes mit abschließender Durchmischung (Finalizer von MurmurHash3)
+         */
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
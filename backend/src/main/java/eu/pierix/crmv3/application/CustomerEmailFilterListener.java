@@ -0,0 +1,74 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PersistContext;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate-Event-Listener, der den {@link CustomerEmailFilter} bei Änderungen an Kunden aktualisiert.
+ * Neue Emails werden wie bei @PrePersist schon beim persist() eingetragen, also vor dem Flush, damit der Filter
+ * auch innerhalb der anlegenden Transaktion nie fälschlich "nicht vorhanden" meldet.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerEmailFilterListener implements PersistEventListener, PreUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CustomerEmailFilter customerEmailFilter;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.PERSIST, this);
+        registry.appendListeners(EventType.PRE_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPersist(PersistEvent event) {
+        if (event.getObject() instanceof Customer customer) {
+            customerEmailFilter.onCustomerSaved(customer);
+        }
+    }
+
+    @Override
+    public void onPersist(PersistEvent event, PersistContext createdAlready) {
+        onPersist(event);
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        if (event.getEntity() instanceof Customer customer) {
+            customerEmailFilter.onCustomerSaved(customer);
+        }
+        // false: das Update wird nicht abgebrochen
+        return false;
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Customer customer) {
+            customerEmailFilter.onCustomerRemoved(customer);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
@@ -0,0 +1,425 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optionaler In-Memory-Trigram-Index über Name, Email, Firma und Stadt der Kunden.
+ *
+ * Der Index liefert für eine Teilstring-Suche die passenden Kunden-IDs ohne Datenbankzugriff;
+ * geladen werden anschließend nur die Treffer. Jeder Kunde erhält eine interne, fortlaufende
+ * Dokumentnummer; die Postings pro Trigram sind sortierte int-Arrays dieser Dokumentnummern.
+ * Änderungen werden über den {@link CustomerSearchIndexListener} nach dem Commit eingepflegt,
+ * geänderte und gelöschte Dokumente werden als Tombstone markiert und periodisch kompaktiert.
+ *
+ * Aktivierung über customer.search-index.enabled=true. Übersteigt die Kundentabelle
+ * customer.search-index.max-documents, bleibt der Index deaktiviert und die Suche läuft über die Datenbank.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerSearchIndex {
+
+    /**
+     * Durchsuchbare Felder des Index
+     */
+    public enum Field {
+        NAME, EMAIL, COMPANY, CITY
+    }
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int MIN_DELETED_FOR_COMPACTION = 1_000;
+
+    // Trennzeichen zwischen Vor- und Nachname, kann in Suchbegriffen nicht vorkommen
+    private static final char NAME_SEPARATOR = '\u0000';
+
+    private final CustomerRepository customerRepository;
+
+    @Value("${customer.search-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${customer.search-index.max-documents:2000000}")
+    private long maxDocuments;
+
+    @Value("${customer.search-index.build-threads:4}")
+    private int buildThreads;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Alle folgenden Felder sind durch den Lock geschützt
+    private IndexData data = new IndexData();
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    private boolean building;
+
+    private volatile boolean ready;
+
+    /**
+     * Baut den Index beim Anwendungsstart auf
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            log.info("Kunden-Suchindex ist deaktiviert");
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Baut den Index vollständig aus der Datenbank neu auf.
+     * Änderungen, die während des Aufbaus committet werden, werden anschließend nachgespielt.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                log.debug("Kunden-Suchindex wird bereits aufgebaut");
+                return;
+            }
+            building = true;
+            pendingChanges.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        IndexData newData = null;
+        try {
+            newData = loadFromDatabase();
+        } catch (Exception e) {
+            log.error("Fehler beim Aufbau des Kunden-Suchindex: {}", e.getMessage(), e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (newData == null) {
+                ready = false;
+                data = new IndexData();
+            } else {
+                data = newData;
+                pendingChanges.forEach(Runnable::run);
+                ready = true;
+                log.info("Kunden-Suchindex mit {} Kunden in {} ms aufgebaut",
+                        data.liveDocuments(), (System.nanoTime() - start) / 1_000_000);
+            }
+            pendingChanges.clear();
+            building = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt an, ob Suchanfragen aus dem Index beantwortet werden können
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Sucht Kunden-IDs, deren Feld den Suchbegriff enthält (Case-insensitive)
+     */
+    public List<Long> search(Field field, String term) {
+        String needle = normalize(term);
+        if (needle == null || needle.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return data.search(field, needle);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pflegt einen gespeicherten Kunden nach dem Commit in den Index ein
+     */
+    public void onCustomerSaved(Customer customer) {
+        if (!enabled || customer.getId() == null) {
+            return;
+        }
+        long customerId = customer.getId();
+        String[] fieldValues = fieldValues(customer);
+        TransactionCallbacks.afterCommit(() -> applyChange(() -> data.upsert(customerId, fieldValues)));
+    }
+
+    /**
+     * Entfernt einen gelöschten Kunden nach dem Commit aus dem Index
+     */
+    public void onCustomerRemoved(Long customerId) {
+        if (!enabled || customerId == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> applyChange(() -> data.remove(customerId)));
+    }
+
+    private void applyChange(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                pendingChanges.add(change);
+            } else if (ready) {
+                change.run();
+                if (data.needsCompaction()) {
+                    data = data.compact();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private IndexData loadFromDatabase() throws Exception {
+        long total = customerRepository.count();
+        if (total > maxDocuments) {
+            log.warn("Kunden-Suchindex deaktiviert: {} Kunden überschreiten das Limit von {}", total, maxDocuments);
+            return null;
+        }
+
+        Long minId = customerRepository.findMinId();
+        Long maxId = customerRepository.findMaxId();
+        IndexData newData = new IndexData();
+        if (minId == null || maxId == null) {
+            return newData;
+        }
+
+        // Chunks parallel laden und normalisieren, danach in ID-Reihenfolge einfügen
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, buildThreads));
+        try {
+            List<Future<List<IndexEntry>>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += CHUNK_SIZE) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + CHUNK_SIZE - 1, maxId);
+                chunks.add(executor.submit(() -> loadChunk(chunkFrom, chunkTo)));
+            }
+
+            for (Future<List<IndexEntry>> chunk : chunks) {
+                for (IndexEntry entry : chunk.get()) {
+                    newData.upsert(entry.customerId(), entry.fieldValues());
+                }
+            }
+            return newData;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<IndexEntry> loadChunk(long fromId, long toId) {
+        List<Object[]> rows = customerRepository.findSearchFieldsByIdBetween(fromId, toId);
+        List<IndexEntry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            entries.add(new IndexEntry(
+                    ((Number) row[0]).longValue(),
+                    fieldValues((String) row[1], (String) row[2], (String) row[3], (String) row[4], (String) row[5])));
+        }
+        return entries;
+    }
+
+    private static String[] fieldValues(Customer customer) {
+        return fieldValues(customer.getFirstName(), customer.getLastName(), customer.getEmail(),
+                customer.getCompanyName(), customer.getCity());
+    }
+
+    private static String[] fieldValues(String firstName, String lastName, String email, String companyName, String city) {
+        String[] values = new String[Field.values().length];
+        values[Field.NAME.ordinal()] = normalize(nullToEmpty(firstName) + NAME_SEPARATOR + nullToEmpty(lastName));
+        values[Field.EMAIL.ordinal()] = normalize(email);
+        values[Field.COMPANY.ordinal()] = normalize(companyName);
+        values[Field.CITY.ordinal()] = normalize(city);
+        return values;
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static long gramAt(String value, int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+
+    private record IndexEntry(long customerId, String[] fieldValues) {
+    }
+
+    /**
+     * Sortierte, wachsende Liste von Dokumentnummern
+     */
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int size;
+
+        void add(int document) {
+            // Dokumente werden in aufsteigender Reihenfolge eingefügt, Duplikate liegen direkt hintereinander
+            if (size > 0 && documents[size - 1] == document) {
+                return;
+            }
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+    }
+
+    /**
+     * Datenstruktur des Index; Zugriff nur unter dem Lock des umgebenden Index
+     */
+    private static final class IndexData {
+        private long[] customerIds = new long[1024];
+        // Normalisierte Feldwerte pro Dokument; null markiert ein gelöschtes Dokument
+        private String[][] values = new String[1024][];
+        private int size;
+        private int deletedCount;
+        private final Map<Long, Integer> documentByCustomerId = new HashMap<>();
+        private final List<Map<Long, Postings>> postingsByField = new ArrayList<>();
+
+        IndexData() {
+            for (int i = 0; i < Field.values().length; i++) {
+                postingsByField.add(new HashMap<>());
+            }
+        }
+
+        int liveDocuments() {
+            return size - deletedCount;
+        }
+
+        void upsert(long customerId, String[] fieldValues) {
+            Integer existing = documentByCustomerId.get(customerId);
+            if (existing != null) {
+                if (Arrays.equals(values[existing], fieldValues)) {
+                    return;
+                }
+                markDeleted(existing);
+            }
+
+            if (size == customerIds.length) {
+                customerIds = Arrays.copyOf(customerIds, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int document = size++;
+            customerIds[document] = customerId;
+            values[document] = fieldValues;
+            documentByCustomerId.put(customerId, document);
+
+            for (int field = 0; field < fieldValues.length; field++) {
+                String value = fieldValues[field];
+                if (value == null) {
+                    continue;
+                }
+                Map<Long, Postings> postings = postingsByField.get(field);
+                for (int offset = 0; offset + GRAM_LENGTH <= value.length(); offset++) {
+                    postings.computeIfAbsent(gramAt(value, offset), gram -> new Postings()).add(document);
+                }
+            }
+        }
+
+        void remove(long customerId) {
+            Integer document = documentByCustomerId.remove(customerId);
+            if (document != null) {
+                markDeleted(document);
+            }
+        }
+
+        private void markDeleted(int document) {
+            values[document] = null;
+            deletedCount++;
+        }
+
+        boolean needsCompaction() {
+            return deletedCount >= MIN_DELETED_FOR_COMPACTION && deletedCount * 4 > size;
+        }
+
+        IndexData compact() {
+            IndexData compacted = new IndexData();
+            for (int document = 0; document < size; document++) {
+                if (values[document] != null) {
+                    compacted.upsert(customerIds[document], values[document]);
+                }
+            }
+            return compacted;
+        }
+
+        List<Long> search(Field field, String needle) {
+            List<Long> result = new ArrayList<>();
+            int fieldIndex = field.ordinal();
+
+            // Zu kurze Suchbegriffe haben kein Trigram, hier werden alle Dokumente im Speicher geprüft
+            if (needle.length() < GRAM_LENGTH) {
+                for (int document = 0; document < size; document++) {
+                    if (matches(document, fieldIndex, needle)) {
+                        result.add(customerIds[document]);
+                    }
+                }
+                return result;
+            }
+
+            for (int document : candidates(fieldIndex, needle)) {
+                if (matches(document, fieldIndex, needle)) {
+                    result.add(customerIds[document]);
+                }
+            }
+            return result;
+        }
+
+        private boolean matches(int document, int fieldIndex, String needle) {
+            String[] documentValues = values[document];
+            return documentValues != null
+                    && documentValues[fieldIndex] != null
+                    && documentValues[fieldIndex].contains(needle);
+        }
+
+        /**
+         * Schneidet die Postings aller Trigramme des Suchbegriffs, beginnend mit der kürzesten Liste
+         */
+        private int[] candidates(int fieldIndex, String needle) {
+            Map<Long, Postings> postings = postingsByField.get(fieldIndex);
+            List<Postings> lists = new ArrayList<>();
+            for (int offset = 0; offset + GRAM_LENGTH <= needle.length(); offset++) {
+                Postings list = postings.get(gramAt(needle, offset));
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            Postings smallest = lists.get(0);
+            int[] candidates = Arrays.copyOf(smallest.documents, smallest.size);
+            int count = candidates.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                Postings other = lists.get(i);
+                int retained = 0;
+                for (int c = 0; c < count; c++) {
+                    if (Arrays.binarySearch(other.documents, 0, other.size, candidates[c]) >= 0) {
+                        candidates[retained++] = candidates[c];
+                    }
+                }
+                count = retained;
+            }
+            return Arrays.copyOf(candidates, count);
+        }
+    }
+}
@@ -4,19 +4,27 @@ import eu.pierix.crmv3.domain.Customer;
 import eu.pierix.crmv3.domain.CustomerStatus;
 import eu.pierix.crmv3.domain.User;
 import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.KeysetPage;
+import eu.pierix.crmv3.infrastructure.KeysetPageRequest;
 import eu.pierix.crmv3.infrastructure.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import eu.pierix.crmv3.domain.Offer;
 import eu.pierix.crmv3.infrastructure.OfferRepository;
@@ -33,6 +41,10 @@ public class CustomerService {
     private final CustomerRepository customerRepository;
     private final UserRepository userRepository;
     private final OfferRepository offerRepository;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final CustomerTagService customerTagService;
+    private final CustomerEmailFilter customerEmailFilter;
+    private final StatusCounters statusCounters;
 
     // CRUD Operationen
     /**
@@ -55,6 +67,7 @@ public class CustomerService {
                     .orElseThrow(() -> new RuntimeException("Benutzer nicht gefunden: " + createdById));
             
             customer.setCreatedBy(createdBy);
+            customerTagService.applyTags(customer);
             Customer savedCustomer = customerRepository.save(customer);
             
             log.info("Kunde erfolgreich erstellt: {} {} (ID: {})", 
@@ -123,6 +136,7 @@ public class CustomerService {
                 throw new RuntimeException("Kunde mit ID " + customer.getId() + " existiert nicht");
             }
             
+            customerTagService.applyTags(customer);
             Customer updatedCustomer = customerRepository.save(customer);
             
             log.info("Kunde erfolgreich aktualisiert: {} {} (ID: {})", 
@@ -246,7 +260,8 @@ public class CustomerService {
             }
             
             log.debug("Suche Kunden mit Namen: '{}'", name);
-            List<Customer> customers = customerRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(name);
+            List<Customer> customers = findByIndexOrQuery(CustomerSearchIndex.Field.NAME, name,
+                    () -> customerRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(name));
             
             log.debug("{} Kunden mit Namen '{}' gefunden", customers.size(), name);
             return customers;
@@ -268,7 +283,8 @@ public class CustomerService {
             }
             
             log.debug("Suche Kunden mit Email: '{}'", email);
-            List<Customer> customers = customerRepository.findByEmailContainingIgnoreCase(email);
+            List<Customer> customers = findByIndexOrQuery(CustomerSearchIndex.Field.EMAIL, email,
+                    () -> customerRepository.findByEmailContainingIgnoreCase(email));
             
             log.debug("{} Kunden mit Email '{}' gefunden", customers.size(), email);
             return customers;
@@ -290,7 +306,8 @@ public class CustomerService {
             }
             
             log.debug("Suche Kunden mit Firmenname: '{}'", companyName);
-            List<Customer> customers = customerRepository.findByCompanyNameContainingIgnoreCase(companyName);
+            List<Customer> customers = findByIndexOrQuery(CustomerSearchIndex.Field.COMPANY, companyName,
+                    () -> customerRepository.findByCompanyNameContainingIgnoreCase(companyName));
             
             log.debug("{} Kunden mit Firmenname '{}' gefunden", customers.size(), companyName);
             return customers;
@@ -312,7 +329,8 @@ public class CustomerService {
             }
             
             log.debug("Suche Kunden mit Stadt: '{}'", city);
-            List<Customer> customers = customerRepository.findByCityContainingIgnoreCase(city);
+            List<Customer> customers = findByIndexOrQuery(CustomerSearchIndex.Field.CITY, city,
+                    () -> customerRepository.findByCityContainingIgnoreCase(city));
             
             log.debug("{} Kunden mit Stadt '{}' gefunden", customers.size(), city);
             return customers;
@@ -323,6 +341,22 @@ public class CustomerService {
         }
     }
 
+    /**
+     * Beantwortet eine Teilstring-Suche aus dem In-Memory-Index (falls aktiv) und lädt nur die Treffer,
+     * ansonsten über die Datenbank-Query
+     */
+    private List<Customer> findByIndexOrQuery(CustomerSearchIndex.Field field, String term, Supplier<List<Customer>> query) {
+        if (!customerSearchIndex.isReady()) {
+            List<Customer> customers = query.get();
+            customerRepository.fetchUsers(customers);
+            return customers;
+        }
+        List<Long> ids = customerSearchIndex.search(field, term);
+        List<Customer> customers = ids.isEmpty() ? List.of() : customerRepository.findAllById(ids);
+        customerRepository.fetchUsers(customers);
+        return customers;
+    }
+
     /**
      * Findet Kunden anhand des Status
      */
@@ -347,6 +381,79 @@ public class CustomerService {
         }
     }
 
+    /**
+     * Findet alle Kunden in Pipeline-Status, gruppiert nach Status (eine Query für alle Spalten)
+     */
+    public Map<CustomerStatus, List<Customer>> findPipelineCustomers() {
+        try {
+            List<CustomerStatus> pipelineStatuses = Arrays.stream(CustomerStatus.values())
+                    .filter(CustomerStatus::isPipelineStatus)
+                    .toList();
+
+            log.debug("Lade Pipeline-Kunden für Status: {}", pipelineStatuses);
+            Map<CustomerStatus, List<Customer>> pipeline = new EnumMap<>(CustomerStatus.class);
+            pipelineStatuses.forEach(status -> pipeline.put(status, new ArrayList<>()));
+            for (Customer customer : customerRepository.findByStatusIn(pipelineStatuses)) {
+                pipeline.get(customer.getStatus()).add(customer);
+            }
+
+            return pipeline;
+
+        } catch (Exception e) {
+            log.error("Fehler beim Laden der Pipeline-Kunden: {}", e.getMessage(), e);
+            throw new RuntimeException("Fehler beim Laden der Pipeline-Kunden", e);
+        }
+    }
+
+    /**
+     * Lädt das Pipeline-Board: je Pipeline-Status die neuesten Kunden als erste Keyset-Seite
+     * und die exakte Spaltengröße aus einer gruppierten Zählung.
+     * Weitere Karten einer Spalte liefert {@link #findPipelineColumn} mit dem Cursor der Spalte.
+     */
+    @Transactional(readOnly = true)
+    public Map<CustomerStatus, KeysetPage<Customer>> findPipelineBoard(int size) {
+        try {
+            List<CustomerStatus> pipelineStatuses = Arrays.stream(CustomerStatus.values())
+                    .filter(CustomerStatus::isPipelineStatus)
+                    .toList();
+            KeysetPageRequest pageRequest = pipelinePageRequest(null, size);
+
+            log.debug("Lade Pipeline-Board mit {} Karten je Spalte", size);
+            Map<CustomerStatus, Long> counts = countCustomersByStatusGrouped();
+            Map<CustomerStatus, KeysetPage<Customer>> board = new EnumMap<>(CustomerStatus.class);
+            customerRepository.findFirstPagesByStatus(pipelineStatuses, pageRequest).forEach((status, page) ->
+                    board.put(status, new KeysetPage<>(page.content(), page.nextCursor(), counts.getOrDefault(status, 0L))));
+
+            return board;
+
+        } catch (IllegalArgumentException e) {
+            log.error("Fehler beim Laden des Pipeline-Boards - Validierungsfehler: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Fehler beim Laden des Pipeline-Boards: {}", e.getMessage(), e);
+            throw new RuntimeException("Fehler beim Laden des Pipeline-Boards", e);
+        }
+    }
+
+    /**
+     * Lädt weitere Karten einer Spalte des Pipeline-Boards ab dem Cursor der Spalte
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Customer> findPipelineColumn(CustomerStatus status, String cursor, int size) {
+        if (status == null || !status.isPipelineStatus()) {
+            log.error("Fehler beim Laden der Pipeline-Spalte - Validierungsfehler: kein Pipeline-Status '{}'", status);
+            throw new IllegalArgumentException("Status '" + status + "' ist kein Pipeline-Status");
+        }
+        return searchCustomers(null, null, null, null, status, pipelinePageRequest(cursor, size));
+    }
+
+    /**
+     * Spalten des Pipeline-Boards: neueste Kunden zuerst (Index auf status, created_at, id)
+     */
+    private static KeysetPageRequest pipelinePageRequest(String cursor, int size) {
+        return new KeysetPageRequest("createdAt", Sort.Direction.DESC, cursor, size, false);
+    }
+
     /**
      * Findet alle aktiven Kunden
      */
@@ -408,20 +515,25 @@ public class CustomerService {
                 throw new IllegalArgumentException("Pageable-Objekt darf nicht null sein");
             }
             
-            String statusString = status != null ? status.name() : null;
-            
             log.debug("Erweiterte Kunden-Suche - Name: '{}', Email: '{}', Firma: '{}', Stadt: '{}', Status: '{}'", 
-                    name, email, company, city, statusString);
+                    name, email, company, city, status);
             
-            // Erstelle eine unsortierte Pageable für die native Query
-            Pageable unsortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
-            Page<Customer> customers = customerRepository.findBySearchCriteria(name, email, company, city, statusString, unsortedPageable);
+            // Die Sortierung wird im Repository auf freigegebene, indizierte Spalten abgebildet
+            Page<Customer> customers = customerRepository.searchByCriteria(name, email, company, city, status, pageable);
             
             log.debug("{} Kunden bei erweiterter Suche gefunden (Seite {} von {})", 
                     customers.getContent().size(), customers.getNumber(), customers.getTotalPages());
             
             return customers;
             
+        } catch (InvalidDataAccessApiUsageException e) {
+            // Ungültiges Sortierfeld, vom Repository-Proxy umgewandelt
+            if (e.getCause() instanceof IllegalArgumentException cause) {
+                log.error("Fehler bei erweiterter Kunden-Suche - Validierungsfehler: {}", cause.getMessage());
+                throw cause;
+            }
+            log.error("Fehler bei erweiterter Kunden-Suche: {}", e.getMessage(), e);
+            throw new RuntimeException("Fehler bei erweiterter Kunden-Suche", e);
         } catch (IllegalArgumentException e) {
             log.error("Fehler bei erweiterter Kunden-Suche - Validierungsfehler: {}", e.getMessage());
             throw e;
@@ -431,6 +543,43 @@ public class CustomerService {
         }
     }
 
+    /**
+     * Findet Kunden anhand mehrerer Kriterien mit Keyset-Paginierung (Cursor statt Seitennummer)
+     */
+    public KeysetPage<Customer> searchCustomers(String name, String email, String company, String city,
+                                                CustomerStatus status, KeysetPageRequest pageRequest) {
+        try {
+            if (pageRequest == null) {
+                throw new IllegalArgumentException("Seitenanfrage darf nicht null sein");
+            }
+
+            log.debug("Kunden-Suche mit Cursor - Name: '{}', Email: '{}', Firma: '{}', Stadt: '{}', Status: '{}', Sortierung: {} {}",
+                    name, email, company, city, status, pageRequest.sortProperty(), pageRequest.direction());
+
+            KeysetPage<Customer> customers = customerRepository.searchByCriteria(name, email, company, city, status, pageRequest);
+
+            log.debug("{} Kunden bei Suche mit Cursor gefunden (weitere Seite: {})",
+                    customers.content().size(), customers.hasNext());
+
+            return customers;
+
+        } catch (InvalidDataAccessApiUsageException e) {
+            // Ungültiger Cursor oder Sortierung, vom Repository-Proxy umgewandelt
+            if (e.getCause() instanceof IllegalArgumentException cause) {
+                log.error("Fehler bei Kunden-Suche mit Cursor - Validierungsfehler: {}", cause.getMessage());
+                throw cause;
+            }
+            log.error("Fehler bei Kunden-Suche mit Cursor: {}", e.getMessage(), e);
+            throw new RuntimeException("Fehler bei Kunden-Suche mit Cursor", e);
+        } catch (IllegalArgumentException e) {
+            log.error("Fehler bei Kunden-Suche mit Cursor - Validierungsfehler: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Fehler bei Kunden-Suche mit Cursor: {}", e.getMessage(), e);
+            throw new RuntimeException("Fehler bei Kunden-Suche mit Cursor", e);
+        }
+    }
+
     /**
      * Findet Kunden anhand von Tags
      */
@@ -442,7 +591,10 @@ public class CustomerService {
             }
             
             log.debug("Suche Kunden mit Tag: '{}'", tag);
-            List<Customer> customers = customerRepository.findByTag(tag);
+            // Exakter Vergleich über die normalisierten Tags statt Teilstring-Suche in der Tag-Spalte
+            List<Customer> customers = customerTagService
+                    .findCustomersByTags(List.of(tag), false, Pageable.unpaged())
+                    .getContent();
             
             log.debug("{} Kunden mit Tag '{}' gefunden", customers.size(), tag);
             return customers;
@@ -453,6 +605,20 @@ public class CustomerService {
         }
     }
 
+    /**
+     * Findet Kunden mit einem (matchAll = false) bzw. allen (matchAll = true) der angegebenen Tags
+     */
+    public Page<Customer> findCustomersByTags(List<String> tags, boolean matchAll, Pageable pageable) {
+        return customerTagService.findCustomersByTags(tags, matchAll, pageable);
+    }
+
+    /**
+     * Zählt Kunden nach Tag gruppiert
+     */
+    public Map<String, Long> countCustomersByTagGrouped() {
+        return customerTagService.countCustomersByTag();
+    }
+
     /**
      * Findet Kunden anhand der Quelle
      */
@@ -733,7 +899,7 @@ public class CustomerService {
      */
     public long countAllCustomers() {
         try {
-            long count = customerRepository.count();
+            long count = statusCounters.isReady() ? statusCounters.totalCustomers() : customerRepository.count();
             log.debug("Gesamtanzahl Kunden: {}", count);
             return count;
         } catch (Exception e) {
@@ -751,7 +917,9 @@ public class CustomerService {
                 throw new IllegalArgumentException("Status darf nicht null sein");
             }
             
-            long count = customerRepository.countByStatus(status);
+            long count = statusCounters.isReady()
+                    ? statusCounters.customerCount(status)
+                    : customerRepository.countByStatus(status);
             log.debug("Anzahl Kunden mit Status {}: {}", status, count);
             return count;
             
@@ -770,6 +938,14 @@ public class CustomerService {
     public Map<CustomerStatus, Long> countCustomersByStatusGrouped() {
         try {
             log.debug("Zähle Kunden nach Status gruppiert");
+            if (statusCounters.isReady()) {
+                // Wie bei der GROUP BY-Abfrage nur Status, die tatsächlich vorkommen
+                Map<CustomerStatus, Long> groupedCounts = statusCounters.customerCountsByStatus().entrySet().stream()
+                        .filter(entry -> entry.getValue() > 0)
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                log.debug("Kunden nach Status gruppiert (Zähler): {}", groupedCounts);
+                return groupedCounts;
+            }
             List<Object[]> results = customerRepository.countByStatusGrouped();
             
             Map<CustomerStatus, Long> groupedCounts = results.stream()
@@ -855,7 +1031,10 @@ public class CustomerService {
     }
 
     /**
-     * Prüft ob eine Email bereits existiert
+     * Prüft ob eine Email bereits existiert (exakt, Case-insensitive), z.B. für die Vorab-Prüfung im Formular.
+     * ASCII-Emails, die der Email-Filter ausschließt, werden ohne Datenbank-Abfrage beantwortet. Der Filter
+     * sieht Schreibzugriffe anderer Instanzen erst nach dem nächsten Neuaufbau, daher prüfen Anlage und
+     * Änderung eines Kunden immer direkt gegen die Datenbank.
      */
     public boolean emailExists(String email) {
         try {
@@ -864,7 +1043,14 @@ public class CustomerService {
                 return false;
             }
             
-            boolean exists = !customerRepository.findByEmailContainingIgnoreCase(email).isEmpty();
+            String normalizedEmail = email.trim().toLowerCase(Locale.ROOT);
+            // Bei Nicht-ASCII kann lower() der Datenbank anders normalisieren als Java
+            if (isAscii(normalizedEmail) && !customerEmailFilter.mightContain(normalizedEmail)) {
+                log.debug("Email '{}' existiert laut Email-Filter nicht", email);
+                return false;
+            }
+
+            boolean exists = customerRepository.existsByNormalizedEmail(normalizedEmail);
             log.debug("Email '{}' existiert bereits: {}", email, exists);
             return exists;
             
@@ -873,4 +1059,8 @@ public class CustomerService {
             throw new RuntimeException("Fehler beim Prüfen der Email-Existenz", e);
         }
     }
-} 
\ No newline at end of file
+
+    private static boolean isAscii(String value) {
+        return value.chars().allMatch(c -> c < 0x80);
+    }
+}
@@ -0,0 +1,131 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.CustomerStatusTransition;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Schreibt das Protokoll der Kunden-Statuswechsel in der Transaktion des Statuswechsels.
+ *
+ * Die Wechsel einer Transaktion werden gesammelt und kurz vor deren Commit, nach dem letzten Flush, über eine
+ * Hilfs-Session auf derselben Verbindung gebündelt eingefügt (wie bei Hibernate Envers). Ein Statuswechsel und
+ * sein Protokolleintrag werden damit gemeinsam festgeschrieben oder verworfen; es gibt keine Warteschlange, die
+ * bei einem Absturz verloren gehen oder überlaufen kann. Die Verweildauer im vorherigen Status wird beim
+ * Schreiben aus dem letzten protokollierten Wechsel des Kunden berechnet (eine Query je Transaktion).
+ */
+@Component
+@Slf4j
+public class CustomerStatusHistory {
+
+    private static final String LAST_CHANGED_AT_QUERY = "SELECT t.customerId, MAX(t.changedAt) FROM CustomerStatusTransition t " +
+            "WHERE t.customerId IN :customerIds GROUP BY t.customerId";
+
+    @Value("${statistics.status-history.enabled:true}")
+    private boolean enabled;
+
+    // Noch nicht geschriebene Wechsel je offener Session, bis zum Ende ihrer Transaktion
+    private final Map<SharedSessionContractImplementor, List<CustomerStatusTransition>> pendingBySession = new ConcurrentHashMap<>();
+    private final LongAdder written = new LongAdder();
+
+    /**
+     * Protokolliert einen Statuswechsel beim Commit der Transaktion der Session
+     *
+     * @param fromStatus vorheriger Status, null bei der Anlage des Kunden
+     */
+    public void record(EventSource session, Long customerId, CustomerStatus fromStatus, CustomerStatus toStatus) {
+        if (!enabled || customerId == null || toStatus == null || fromStatus == toStatus) {
+            return;
+        }
+        CustomerStatusTransition transition = CustomerStatusTransition.builder()
+                .customerId(customerId)
+                .fromStatus(fromStatus)
+                .toStatus(toStatus)
+                .changedAt(LocalDateTime.now())
+                .changedBy(currentUsername())
+                .build();
+
+        pendingBySession.computeIfAbsent(session, key -> {
+            // Einmal je Transaktion: vor dem Commit schreiben, danach (auch beim Rollback) aufräumen
+            key.getActionQueue().registerProcess(this::writePending);
+            key.getActionQueue().registerProcess((success, completedSession) -> pendingBySession.remove(completedSession));
+            return new ArrayList<>();
+        }).add(transition);
+    }
+
+    /**
+     * Anzahl geschriebener Statuswechsel seit dem Start
+     */
+    public HistoryStats getStats() {
+        return new HistoryStats(written.sum());
+    }
+
+    private void writePending(SessionImplementor session) {
+        List<CustomerStatusTransition> transitions = pendingBySession.remove(session);
+        if (transitions == null || transitions.isEmpty()) {
+            return;
+        }
+
+        // Eigene Session auf derselben Verbindung und Transaktion, da die Session des Aufrufers schon geflusht ist
+        try (Session historySession = session.sessionWithOptions()
+                .connection()
+                .autoClose(false)
+                .connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+                .openSession()) {
+            applyStageDurations(historySession, transitions);
+            transitions.forEach(historySession::persist);
+            historySession.flush();
+        }
+        written.add(transitions.size());
+        log.debug("{} Statuswechsel protokolliert", transitions.size());
+    }
+
+    private void applyStageDurations(Session historySession, List<CustomerStatusTransition> transitions) {
+        transitions.sort(Comparator.comparing(CustomerStatusTransition::getChangedAt));
+
+        Map<Long, LocalDateTime> stageEnteredAt = new HashMap<>();
+        List<Long> customerIds = transitions.stream().map(CustomerStatusTransition::getCustomerId).distinct().toList();
+        for (Object[] row : historySession.createQuery(LAST_CHANGED_AT_QUERY, Object[].class)
+                .setParameter("customerIds", customerIds)
+                .getResultList()) {
+            stageEnteredAt.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+
+        for (CustomerStatusTransition transition : transitions) {
+            LocalDateTime enteredAt = stageEnteredAt.put(transition.getCustomerId(), transition.getChangedAt());
+            if (transition.getFromStatus() != null && enteredAt != null && !enteredAt.isAfter(transition.getChangedAt())) {
+                transition.setStageDurationSeconds(Duration.between(enteredAt, transition.getChangedAt()).toSeconds());
+            }
+        }
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && !(authentication instanceof AnonymousAuthenticationToken) ? authentication.getName() : null;
+    }
+
+    /**
+     * Kennzahlen des Status-Protokolls seit dem Start
+     */
+    public record HistoryStats(long written) {
+    }
+}
@@ -0,0 +1,61 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate-Event-Listener, der Anlage und Statuswechsel von Kunden an die {@link CustomerStatusHistory} meldet.
+ * Wie bei den {@link StatusCounters} wird der vorherige Status aus dem Update-Event gelesen, sodass jeder
+ * Schreibpfad (Statuswechsel, Pipeline-Schritte, Änderungen über Angebote) in seiner eigenen Transaktion
+ * protokolliert wird.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerStatusHistoryListener implements PostInsertEventListener, PostUpdateEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CustomerStatusHistory customerStatusHistory;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Customer customer) {
+            customerStatusHistory.record(event.getSession(), customer.getId(), null, customer.getStatus());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        // Ohne vorherigen Zustand ist der Ausgangsstatus unbekannt; solche Updates ändern den Status nicht über die Services
+        if (event.getEntity() instanceof Customer customer && event.getOldState() != null) {
+            CustomerStatus oldStatus = (CustomerStatus) event.getOldState()[
+                    StatusCountersEventListener.propertyIndex(event.getPersister(), "status")];
+            customerStatusHistory.record(event.getSession(), customer.getId(), oldStatus, customer.getStatus());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
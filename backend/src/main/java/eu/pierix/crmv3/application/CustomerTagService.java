@@ -0,0 +1,195 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.Tag;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.TagRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service für die normalisierten Kunden-Tags (Tag-Verzeichnis + Join-Tabelle customer_tags).
+ *
+ * Die komma-getrennte Spalte Customer.tags bleibt die Eingabe- und Anzeigeform; beim Speichern
+ * eines Kunden werden daraus die normalisierten Tags abgeleitet, über die gesucht und gezählt wird.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class CustomerTagService {
+
+    private static final int MAX_TAG_LENGTH = 100;
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    private final TagRepository tagRepository;
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${customer.tags.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    /**
+     * Leitet die normalisierten Tags eines Kunden aus seiner Tag-Spalte ab (vor dem Speichern aufrufen)
+     */
+    public void applyTags(Customer customer) {
+        customer.setTagSet(resolveTags(customer.getTags()));
+    }
+
+    /**
+     * Löst eine komma-getrennte Tag-Liste in Tag-Entities auf und legt fehlende Tags an.
+     * Zu lange Tags werden mit einer Warnung übersprungen, damit ein einzelner Alt-Eintrag weder das
+     * Speichern des Kunden noch einen ganzen Migrations-Batch abbricht.
+     */
+    public Set<Tag> resolveTags(String tags) {
+        Map<String, String> parsed = Tag.parse(tags);
+        parsed.entrySet().removeIf(tag -> {
+            boolean tooLong = tag.getKey().length() > MAX_TAG_LENGTH || tag.getValue().length() > MAX_TAG_LENGTH;
+            if (tooLong) {
+                log.warn("Überspringe Tag mit mehr als {} Zeichen: '{}'", MAX_TAG_LENGTH, tag.getValue());
+            }
+            return tooLong;
+        });
+        if (parsed.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        Set<Tag> resolved = new HashSet<>(tagRepository.findByNormalizedNameIn(parsed.keySet()));
+        Set<String> missing = new HashSet<>(parsed.keySet());
+        resolved.forEach(tag -> missing.remove(tag.getNormalizedName()));
+
+        if (!missing.isEmpty()) {
+            missing.forEach(normalized -> createTag(normalized, parsed.get(normalized)));
+            // Neu angelegte (auch parallel von anderen Requests angelegte) Tags in dieser Transaktion lesen
+            resolved.addAll(tagRepository.findByNormalizedNameIn(missing));
+        }
+        return resolved;
+    }
+
+    /**
+     * Legt einen Tag in einer eigenen Transaktion an. Verliert der Request das Rennen um den eindeutigen
+     * Index auf normalized_name, bleibt die Kunden-Transaktion intakt und liest den Tag des Gewinners.
+     */
+    private void createTag(String normalized, String display) {
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            newTransaction.executeWithoutResult(status -> tagRepository.saveAndFlush(Tag.builder()
+                    .name(display)
+                    .normalizedName(normalized)
+                    .build()));
+            log.debug("Neuer Tag angelegt: '{}'", display);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Tag '{}' wurde parallel angelegt, verwende vorhandenen Tag", display);
+        }
+    }
+
+    /**
+     * Findet Kunden, die mindestens einen (matchAll = false) bzw. alle (matchAll = true) der Tags haben
+     */
+    @Transactional(readOnly = true)
+    public Page<Customer> findCustomersByTags(List<String> tags, boolean matchAll, Pageable pageable) {
+        try {
+            if (tags == null) {
+                throw new IllegalArgumentException("Tags dürfen nicht null sein");
+            }
+            if (pageable == null) {
+                throw new IllegalArgumentException("Pageable-Objekt darf nicht null sein");
+            }
+
+            List<String> normalized = Tag.normalizeAll(tags);
+            if (normalized.isEmpty()) {
+                throw new IllegalArgumentException("Mindestens ein Tag ist erforderlich");
+            }
+
+            log.debug("Suche Kunden mit {} der Tags {}", matchAll ? "allen" : "einem", normalized);
+
+            // Native Queries sortieren fest nach ID
+            Pageable unsortedPageable = pageable.isPaged()
+                    ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                    : Pageable.unpaged();
+            Page<Customer> customers = matchAll
+                    ? customerRepository.findByAllTags(normalized, normalized.size(), unsortedPageable)
+                    : customerRepository.findByAnyTag(normalized, unsortedPageable);
+            customerRepository.fetchUsers(customers.getContent());
+
+            log.debug("{} Kunden mit Tags gefunden (gesamt {})", customers.getNumberOfElements(), customers.getTotalElements());
+            return customers;
+
+        } catch (IllegalArgumentException e) {
+            log.error("Fehler bei der Tag-Suche - Validierungsfehler: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Fehler bei der Tag-Suche: {}", e.getMessage(), e);
+            throw new RuntimeException("Fehler bei der Suche von Kunden nach Tags", e);
+        }
+    }
+
+    /**
+     * Zählt Kunden je Tag, absteigend nach Anzahl
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> countCustomersByTag() {
+        try {
+            log.debug("Zähle Kunden nach Tag gruppiert");
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Object[] row : tagRepository.countCustomersByTag()) {
+                counts.put((String) row[0], ((Number) row[1]).longValue());
+            }
+            return counts;
+        } catch (Exception e) {
+            log.error("Fehler beim Zählen von Kunden nach Tag: {}", e.getMessage(), e);
+            throw new RuntimeException("Fehler beim Zählen von Kunden nach Tag", e);
+        }
+    }
+
+    /**
+     * Übernimmt beim Start die Tag-Spalte bestehender Kunden, die noch keine normalisierten Tags haben
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void migrateExistingTags() {
+        if (!migrateOnStartup) {
+            return;
+        }
+
+        long migrated = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> ids = customerRepository.findIdsWithUnmigratedTags(afterId, PageRequest.of(0, MIGRATION_BATCH_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        customerRepository.findAllById(ids).forEach(this::applyTags));
+                migrated += ids.size();
+            } catch (Exception e) {
+                log.error("Fehler bei der Tag-Migration der Kunden {} bis {}: {}", ids.get(0), ids.get(ids.size() - 1), e.getMessage());
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        if (migrated > 0) {
+            log.info("Tags von {} Kunden in das Tag-Verzeichnis übernommen", migrated);
+        }
+    }
+}
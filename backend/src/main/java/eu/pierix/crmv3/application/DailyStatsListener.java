@@ -0,0 +1,48 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.Offer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate-Event-Listener, der gelöschte Kunden und Angebote an die {@link DailyStatsRollup} meldet.
+ * Anlagen und Änderungen erkennt der Verdichtungs-Job selbst über created_at/updated_at.
+ */
+@Component
+@RequiredArgsConstructor
+public class DailyStatsListener implements PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DailyStatsRollup dailyStatsRollup;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Customer customer) {
+            dailyStatsRollup.onRemoved(customer.getCreatedAt());
+        } else if (event.getEntity() instanceof Offer offer) {
+            dailyStatsRollup.onRemoved(offer.getCreatedAt());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
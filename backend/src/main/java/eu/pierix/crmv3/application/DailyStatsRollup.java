@@ -0,0 +1,275 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.DailyStat;
+import eu.pierix.crmv3.domain.LeadSource;
+import eu.pierix.crmv3.domain.OfferStatus;
+import eu.pierix.crmv3.domain.RollupWatermark;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.DailyStatRepository;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import eu.pierix.crmv3.infrastructure.RollupWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Pflegt die tägliche Statistik-Verdichtung (daily_stats) inkrementell.
+ *
+ * Ein geplanter Job ermittelt über updated_at/created_at die Erstellungstage aller seit dem letzten
+ * Watermark geänderten Kunden und Angebote und berechnet genau diese Tage neu (Löschen und Einfügen
+ * in einer Transaktion). Der Watermark wird um statistics.rollup.overlap zurückgesetzt gelesen, damit
+ * auch Transaktionen erfasst werden, die erst nach dem letzten Lauf committet haben. Gelöschte
+ * Datensätze melden ihren Tag über den {@link DailyStatsListener}; als Absicherung gegen Änderungen
+ * an JPA vorbei wird die Verdichtung zusätzlich nächtlich vollständig neu aufgebaut.
+ *
+ * Ohne Watermark (erster Start) wird die Verdichtung beim Start vollständig aufgebaut; bis dahin
+ * rechnet der StatisticsService vollständig live.
+ *
+ * Nach jeder Neuberechnung wird ein {@link RollupUpdated} veröffentlicht, damit der StatisticsCache die
+ * daraus gelesenen Monatswerte verwirft; diese laufen dem Datenbestand um bis zu einen Job-Lauf hinterher.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DailyStatsRollup {
+
+    static final String WATERMARK_NAME = "daily_stats";
+    private static final int REBUILD_CHUNK_DAYS = 31;
+
+    private final CustomerRepository customerRepository;
+    private final OfferRepository offerRepository;
+    private final DailyStatRepository dailyStatRepository;
+    private final RollupWatermarkRepository rollupWatermarkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${statistics.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${statistics.rollup.overlap:PT5M}")
+    private Duration overlap;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<LocalDate> removedDays = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    /**
+     * Ergebnis eines Neuaufbaus
+     */
+    public record RebuildResult(LocalDate from, LocalDate to, int rows) {
+    }
+
+    /**
+     * Die Verdichtung der Tage from bis to (inklusive) wurde neu berechnet
+     */
+    public record RollupUpdated(LocalDate from, LocalDate to) {
+    }
+
+    /**
+     * Baut die Verdichtung beim ersten Start auf bzw. holt Änderungen seit dem letzten Lauf nach
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            log.info("Tägliche Statistik-Verdichtung ist deaktiviert");
+            return;
+        }
+        try {
+            if (rollupWatermarkRepository.existsById(WATERMARK_NAME)) {
+                ready = true;
+                update();
+            } else {
+                rebuild(null, null);
+            }
+        } catch (Exception e) {
+            log.error("Fehler beim Initialisieren der Statistik-Verdichtung: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gibt an, ob vergangene Tage aus der Verdichtung gelesen werden können
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Verdichtet die seit dem letzten Lauf geänderten Tage neu
+     */
+    @Scheduled(fixedDelayString = "${statistics.rollup.interval-ms:60000}",
+            initialDelayString = "${statistics.rollup.interval-ms:60000}")
+    public void update() {
+        if (!isReady() || !lock.tryLock()) {
+            return;
+        }
+
+        List<LocalDate> removed = new ArrayList<>(removedDays);
+        removedDays.removeAll(removed);
+        try {
+            LocalDateTime runStart = LocalDateTime.now();
+            LocalDateTime since = rollupWatermarkRepository.findById(WATERMARK_NAME)
+                    .map(RollupWatermark::getWatermark)
+                    .orElse(runStart)
+                    .minus(overlap);
+
+            TreeSet<LocalDate> days = new TreeSet<>(removed);
+            Stream.concat(customerRepository.findCreatedDaysChangedSince(since).stream(),
+                            offerRepository.findCreatedDaysChangedSince(since).stream())
+                    .map(DailyStatsRollup::toDate)
+                    .forEach(days::add);
+
+            int rows = 0;
+            for (LocalDate day : days) {
+                rows += recompute(day, day);
+            }
+            saveWatermark(runStart);
+            if (!days.isEmpty()) {
+                log.debug("Statistik-Verdichtung für {} Tage aktualisiert ({} Zeilen)", days.size(), rows);
+                eventPublisher.publishEvent(new RollupUpdated(days.first(), days.last()));
+            }
+        } catch (Exception e) {
+            removedDays.addAll(removed);
+            log.error("Fehler bei der Aktualisierung der Statistik-Verdichtung: {}", e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Baut die Verdichtung nächtlich vollständig neu auf
+     */
+    @Scheduled(cron = "${statistics.rollup.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild(null, null);
+        } catch (Exception e) {
+            log.error("Fehler beim nächtlichen Neuaufbau der Statistik-Verdichtung: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Berechnet die Verdichtung für die Tage from bis to (inklusive) neu, z.B. nach Datenkorrekturen.
+     * Ohne Angabe wird vom ältesten Datensatz bis heute neu aufgebaut und der Watermark gesetzt.
+     */
+    public RebuildResult rebuild(LocalDate from, LocalDate to) {
+        if (!enabled) {
+            throw new IllegalStateException("Tägliche Statistik-Verdichtung ist deaktiviert");
+        }
+
+        boolean full = from == null && to == null;
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : earliestDay(last);
+        if (first.isAfter(last)) {
+            throw new IllegalArgumentException("Startdatum darf nicht nach dem Enddatum liegen");
+        }
+
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            LocalDateTime runStart = LocalDateTime.now();
+            int rows = 0;
+            for (LocalDate chunkStart = first; !chunkStart.isAfter(last); chunkStart = chunkStart.plusDays(REBUILD_CHUNK_DAYS)) {
+                LocalDate chunkEnd = chunkStart.plusDays(REBUILD_CHUNK_DAYS - 1);
+                rows += recompute(chunkStart, chunkEnd.isAfter(last) ? last : chunkEnd);
+            }
+
+            if (full) {
+                // Tage vor dem ältesten Datensatz stammen von inzwischen gelöschten Daten
+                transactionTemplate.executeWithoutResult(status -> dailyStatRepository.deleteByStatDateBefore(first));
+                saveWatermark(runStart);
+                ready = true;
+            }
+
+            log.info("Statistik-Verdichtung von {} bis {} neu aufgebaut ({} Zeilen in {} ms)",
+                    first, last, rows, (System.nanoTime() - start) / 1_000_000);
+            eventPublisher.publishEvent(new RollupUpdated(first, last));
+            return new RebuildResult(first, last, rows);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Merkt den Erstellungstag eines gelöschten Kunden oder Angebots für den nächsten Lauf vor
+     */
+    public void onRemoved(LocalDateTime createdAt) {
+        if (!enabled || createdAt == null) {
+            return;
+        }
+        LocalDate day = createdAt.toLocalDate();
+        TransactionCallbacks.afterCommit(() -> removedDays.add(day));
+    }
+
+    /**
+     * Ersetzt die Verdichtung der Tage from bis to (inklusive) in einer Transaktion
+     */
+    private int recompute(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        Integer rows = transactionTemplate.execute(status -> {
+            dailyStatRepository.deleteByStatDateBetween(from, to);
+
+            List<DailyStat> stats = new ArrayList<>();
+            for (Object[] row : customerRepository.countByDayStatusAndLeadSource(start, end)) {
+                stats.add(DailyStat.builder()
+                        .statDate(toDate(row))
+                        .customerStatus((CustomerStatus) row[3])
+                        .leadSource((LeadSource) row[4])
+                        .customerCount(((Number) row[5]).longValue())
+                        .build());
+            }
+            for (Object[] row : offerRepository.countAndSumByDayAndStatus(start, end)) {
+                stats.add(DailyStat.builder()
+                        .statDate(toDate(row))
+                        .offerStatus((OfferStatus) row[3])
+                        .offerCount(((Number) row[4]).longValue())
+                        .revenue(row[5] instanceof BigDecimal revenue ? revenue : new BigDecimal(row[5].toString()))
+                        .build());
+            }
+            dailyStatRepository.saveAll(stats);
+            return stats.size();
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private void saveWatermark(LocalDateTime watermark) {
+        transactionTemplate.executeWithoutResult(status -> rollupWatermarkRepository.save(
+                RollupWatermark.builder().name(WATERMARK_NAME).watermark(watermark).build()));
+    }
+
+    private LocalDate earliestDay(LocalDate fallback) {
+        LocalDateTime customers = customerRepository.findMinCreatedAt();
+        LocalDateTime offers = offerRepository.findMinCreatedAt();
+        LocalDateTime earliest = customers == null ? offers
+                : offers == null ? customers
+                : customers.isBefore(offers) ? customers : offers;
+        return earliest != null ? earliest.toLocalDate() : fallback;
+    }
+
+    private static LocalDate toDate(Object[] row) {
+        return LocalDate.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+    }
+}
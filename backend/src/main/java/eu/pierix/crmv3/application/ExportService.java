@@ -0,0 +1,100 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferItem;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Service für den Export großer Datenmengen.
+ *
+ * Die Daten werden über einen Datenbank-Cursor zeilenweise gelesen und direkt an den Consumer
+ * weitergereicht; der Persistence Context wird regelmäßig geleert, damit der Speicherbedarf
+ * unabhängig von der Anzahl der Datensätze konstant bleibt.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    /**
+     * Anzahl verarbeiteter Datensätze, nach der der Persistence Context geleert wird
+     */
+    private static final int CLEAR_INTERVAL = 500;
+
+    private final CustomerRepository customerRepository;
+    private final OfferRepository offerRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Übergibt alle Kunden nacheinander an den Consumer
+     */
+    @Transactional(readOnly = true)
+    public long exportCustomers(Consumer<Customer> consumer) {
+        long count = 0;
+        try (Stream<Customer> customers = customerRepository.streamAllForExport()) {
+            Iterator<Customer> iterator = customers.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("{} Kunden exportiert", count);
+        return count;
+    }
+
+    /**
+     * Übergibt alle Angebote mit ihren Positionen nacheinander an den Consumer.
+     * Angebote und Positionen werden über zwei nach Angebots-ID sortierte Cursor gelesen und zusammengeführt,
+     * statt die Positionen je Angebot einzeln nachzuladen.
+     */
+    @Transactional(readOnly = true)
+    public long exportOffers(BiConsumer<Offer, List<OfferItem>> consumer) {
+        long count = 0;
+        try (Stream<Offer> offers = offerRepository.streamAllForExport();
+             Stream<OfferItem> items = offerRepository.streamAllItemsForExport()) {
+            Iterator<Offer> offerIterator = offers.iterator();
+            Iterator<OfferItem> itemIterator = items.iterator();
+            OfferItem pendingItem = itemIterator.hasNext() ? itemIterator.next() : null;
+
+            while (offerIterator.hasNext()) {
+                Offer offer = offerIterator.next();
+                List<OfferItem> offerItems = new ArrayList<>();
+
+                // Positionen zu Angeboten mit kleinerer ID (z.B. zwischenzeitlich gelöscht) überspringen
+                while (pendingItem != null && pendingItem.getOffer().getId() < offer.getId()) {
+                    pendingItem = itemIterator.hasNext() ? itemIterator.next() : null;
+                }
+                while (pendingItem != null && pendingItem.getOffer().getId().equals(offer.getId())) {
+                    offerItems.add(pendingItem);
+                    pendingItem = itemIterator.hasNext() ? itemIterator.next() : null;
+                }
+
+                consumer.accept(offer, offerItems);
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("{} Angebote exportiert", count);
+        return count;
+    }
+}
@@ -1,6 +1,7 @@
 package eu.pierix.crmv3.application;
 
 import eu.pierix.crmv3.infrastructure.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,7 +11,6 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,8 +25,9 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsCache userDetailsCache;
     private final TokenService tokenService;
+    private final TokenDenyList tokenDenyList;
 
     /**
      * Filtert HTTP-Requests und validiert JWT-Tokens
@@ -52,16 +53,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            // Extrahiere Username aus JWT-Token
-            username = jwtService.extractUsername(jwt);
+            // Prüfe Signatur und Ablauf einmalig und extrahiere Username aus den Claims
+            Claims claims = jwtService.parseClaims(jwt);
+            username = claims.getSubject();
 
             // Wenn Username extrahiert wurde und kein Benutzer im Security Context ist
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Lade UserDetails
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                // Lade UserDetails (aus dem Benutzer-Cache, siehe UserDetailsCache)
+                UserDetails userDetails = this.userDetailsCache.loadUserByUsername(username);
 
-                // Validiere JWT-Token (sowohl JWT als auch Datenbank-Validierung)
-                if (jwtService.isTokenValid(jwt, userDetails) && tokenService.isTokenValid(jwt)) {
+                // Validiere die Claims für den Benutzer und prüfe den Widerruf über die Sperrliste,
+                // solange diese nicht aktiv ist gegen die Datenbank
+                if (jwtService.isTokenValid(claims, userDetails) && isNotRevoked(jwt)) {
                     // Erstelle Authentication Token
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -85,4 +88,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Führe Filter-Chain fort
         filterChain.doFilter(request, response);
     }
+
+    private boolean isNotRevoked(String jwt) {
+        return tokenDenyList.isActive() ? !tokenDenyList.isDenied(jwt) : tokenService.isTokenValid(jwt);
+    }
 } 
\ No newline at end of file
@@ -1,20 +1,27 @@
 package eu.pierix.crmv3.application;
 
 import eu.pierix.crmv3.domain.*;
+import eu.pierix.crmv3.infrastructure.KeysetPage;
+import eu.pierix.crmv3.infrastructure.KeysetPageRequest;
 import eu.pierix.crmv3.infrastructure.OfferRepository;
 import eu.pierix.crmv3.infrastructure.CustomerRepository;
 import eu.pierix.crmv3.infrastructure.UserRepository;
+import eu.pierix.crmv3.web.dto.OfferStatisticsResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Service für Angebotsverwaltung
@@ -27,6 +34,7 @@ public class OfferService {
     private final OfferRepository offerRepository;
     private final CustomerRepository customerRepository;
     private final UserRepository userRepository;
+    private final StatusCounters statusCounters;
 
     // CRUD Operationen
     public Offer createOffer(Offer offer, Long createdById) {
@@ -42,6 +50,28 @@ public class OfferService {
         return offerRepository.findById(id);
     }
 
+    /**
+     * Übernimmt Kopfdaten und Positionen aus changes in das gespeicherte Angebot.
+     * Lesen und Ändern laufen in derselben Transaktion, damit der Controller kein
+     * Angebot außerhalb einer Session verändern muss.
+     */
+    public Optional<Offer> updateOffer(Long id, Offer changes) {
+        return offerRepository.findById(id)
+                .map(offer -> {
+                    offer.setTitle(changes.getTitle());
+                    offer.setDescription(changes.getDescription());
+                    offer.setValidUntil(changes.getValidUntil());
+                    offer.setStatus(changes.getStatus());
+                    offer.setDiscountPercentage(changes.getDiscountPercentage());
+
+                    offer.getItems().clear();
+                    new ArrayList<>(changes.getItems()).forEach(offer::addItem);
+
+                    offer.calculateTotals();
+                    return offerRepository.save(offer);
+                });
+    }
+
     public Offer updateOffer(Offer offer) {
         if (offer.getId() == null) {
             throw new RuntimeException("Angebots-ID ist erforderlich für Updates");
@@ -80,7 +110,21 @@ public class OfferService {
     }
 
     public Page<Offer> searchOffers(Long customerId, OfferStatus status, Long createdById, Pageable pageable) {
-        return offerRepository.findBySearchCriteria(customerId, status, createdById, pageable);
+        Page<Offer> offers = offerRepository.findBySearchCriteria(customerId, status, createdById, pageable);
+        offerRepository.fetchDetails(offers.getContent());
+        return offers;
+    }
+
+    public KeysetPage<Offer> searchOffers(Long customerId, OfferStatus status, Long createdById, KeysetPageRequest pageRequest) {
+        try {
+            return offerRepository.findBySearchCriteria(customerId, status, createdById, pageRequest);
+        } catch (InvalidDataAccessApiUsageException e) {
+            // Ungültiger Cursor oder Sortierung, vom Repository-Proxy umgewandelt
+            if (e.getCause() instanceof IllegalArgumentException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     // Status-Management
@@ -128,24 +172,83 @@ public class OfferService {
 
     // Überfällige Angebote
     public List<Offer> findOverdueOffers() {
-        return offerRepository.findOverdueOffers(OfferStatus.SENT, LocalDateTime.now());
+        List<Offer> offers = offerRepository.findOverdueOffers(OfferStatus.SENT, LocalDateTime.now());
+        offerRepository.fetchDetails(offers);
+        return offers;
     }
 
     // Statistiken
     public long countAllOffers() {
-        return offerRepository.count();
+        return statusCounters.isReady() ? statusCounters.totalOffers() : offerRepository.count();
     }
 
     public long countOffersByStatus(OfferStatus status) {
-        return offerRepository.countByStatus(status);
+        if (status == null) {
+            throw new IllegalArgumentException("Status darf nicht null sein");
+        }
+        return statusCounters.isReady()
+                ? statusCounters.offerCountsByStatus().getOrDefault(status, 0L)
+                : offerRepository.countByStatus(status);
     }
 
+    /**
+     * Zählt Angebote je Status (alle Status, fehlende mit 0) mit einer GROUP BY-Abfrage
+     */
     public Map<OfferStatus, Long> countOffersByStatusGrouped() {
-        return List.of(OfferStatus.values()).stream()
-                .collect(Collectors.toMap(
-                        status -> status,
-                        status -> offerRepository.countByStatus(status)
-                ));
+        if (statusCounters.isReady()) {
+            return statusCounters.offerCountsByStatus();
+        }
+        Map<OfferStatus, Long> counts = new EnumMap<>(OfferStatus.class);
+        for (OfferStatus status : OfferStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : offerRepository.countByStatusGrouped()) {
+            counts.put((OfferStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Anzahl, Summe der Endbeträge und durchschnittlicher Rabatt je Status aus einer einzigen Aggregat-Abfrage
+     */
+    @Transactional(readOnly = true)
+    public OfferStatisticsResponse getOfferStatistics() {
+        Map<OfferStatus, Object[]> rows = new EnumMap<>(OfferStatus.class);
+        for (Object[] row : offerRepository.aggregateByStatusGrouped()) {
+            rows.put((OfferStatus) row[0], row);
+        }
+
+        List<OfferStatisticsResponse.StatusStatistics> byStatus = new ArrayList<>();
+        long totalOffers = 0;
+        BigDecimal totalFinalAmount = BigDecimal.ZERO;
+        for (OfferStatus status : OfferStatus.values()) {
+            Object[] row = rows.get(status);
+            long count = row != null ? ((Number) row[1]).longValue() : 0L;
+            BigDecimal finalAmount = row != null ? toBigDecimal(row[2]) : BigDecimal.ZERO;
+            byStatus.add(OfferStatisticsResponse.StatusStatistics.builder()
+                    .status(status.name())
+                    .displayName(status.getDisplayName())
+                    .count(count)
+                    .totalFinalAmount(finalAmount)
+                    .averageDiscountPercentage(row != null ? toBigDecimal(row[3]).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO)
+                    .totalDiscountAmount(row != null ? toBigDecimal(row[4]) : BigDecimal.ZERO)
+                    .build());
+            totalOffers += count;
+            totalFinalAmount = totalFinalAmount.add(finalAmount);
+        }
+
+        return OfferStatisticsResponse.builder()
+                .totalOffers(totalOffers)
+                .totalFinalAmount(totalFinalAmount)
+                .byStatus(byStatus)
+                .build();
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
     }
 
     public boolean offerExists(Long id) {
@@ -0,0 +1,170 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.infrastructure.CustomerStatusTransitionRepository;
+import eu.pierix.crmv3.web.dto.PipelineAnalyticsResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service für Auswertungen über das Protokoll der Kunden-Statuswechsel.
+ *
+ * Jede Auswertung liest den Zeitraum mit genau einer Aggregat-Query; die Verweildauer wird bereits
+ * beim Protokollieren je Wechsel gespeichert ({@link CustomerStatusHistory}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class PipelineAnalyticsService {
+
+    private static final int MAX_RANGE_YEARS = 5;
+
+    private final CustomerStatusTransitionRepository transitionRepository;
+
+    /**
+     * Lädt alle Auswertungen für die Statuswechsel zwischen from und to (jeweils inklusive)
+     */
+    public PipelineAnalyticsResponse getPipelineAnalytics(LocalDate from, LocalDate to) {
+        try {
+            validateRange(from, to);
+            log.debug("Lade Pipeline-Auswertungen von {} bis {}", from, to);
+
+            return PipelineAnalyticsResponse.builder()
+                    .from(from)
+                    .to(to)
+                    .timeInStage(getTimeInStage(from, to))
+                    .conversions(getStageConversions(from, to))
+                    .weeklyThroughput(getWeeklyThroughput(from, to))
+                    .build();
+
+        } catch (IllegalArgumentException e) {
+            log.error("Fehler beim Laden der Pipeline-Auswertungen - Validierungsfehler: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Fehler beim Laden der Pipeline-Auswertungen: {}", e.getMessage(), e);
+            throw new RuntimeException("Fehler beim Laden der Pipeline-Auswertungen", e);
+        }
+    }
+
+    /**
+     * Durchschnittliche Verweildauer und Perzentile je Status, gemessen an den Wechseln aus dem Status im Zeitraum
+     */
+    public List<PipelineAnalyticsResponse.StageDuration> getTimeInStage(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return transitionRepository.aggregateStageDurations(start(from), end(to)).stream()
+                .map(row -> {
+                    CustomerStatus status = CustomerStatus.valueOf((String) row[0]);
+                    return PipelineAnalyticsResponse.StageDuration.builder()
+                            .status(status.name())
+                            .displayName(status.getDisplayName())
+                            .transitions(((Number) row[1]).longValue())
+                            .averageSeconds(toDouble(row[2]))
+                            .medianSeconds(toDouble(row[3]))
+                            .p90Seconds(toDouble(row[4]))
+                            .p95Seconds(toDouble(row[5]))
+                            .build();
+                })
+                .sorted(Comparator.comparing(duration -> CustomerStatus.valueOf(duration.getStatus())))
+                .toList();
+    }
+
+    /**
+     * Übergänge zwischen zwei Status mit ihrem Anteil an allen Wechseln aus dem Ausgangsstatus
+     */
+    public List<PipelineAnalyticsResponse.StageConversion> getStageConversions(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        List<Object[]> rows = transitionRepository.countByFromAndToStatus(start(from), end(to));
+
+        Map<CustomerStatus, Long> leftByStatus = new EnumMap<>(CustomerStatus.class);
+        for (Object[] row : rows) {
+            leftByStatus.merge((CustomerStatus) row[0], ((Number) row[2]).longValue(), Long::sum);
+        }
+
+        return rows.stream()
+                .sorted(Comparator.<Object[], CustomerStatus>comparing(row -> (CustomerStatus) row[0])
+                        .thenComparing(row -> (CustomerStatus) row[1]))
+                .map(row -> PipelineAnalyticsResponse.StageConversion.builder()
+                        .fromStatus(((CustomerStatus) row[0]).name())
+                        .toStatus(((CustomerStatus) row[1]).name())
+                        .count(((Number) row[2]).longValue())
+                        .rate(percentage(((Number) row[2]).longValue(), leftByStatus.get((CustomerStatus) row[0])))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Eintritte je Status und Woche (ISO-Wochen); Wochen ohne Wechsel sind mit leeren Werten enthalten
+     */
+    public List<PipelineAnalyticsResponse.WeeklyThroughput> getWeeklyThroughput(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        TimeSeriesGranularity week = TimeSeriesGranularity.WEEK;
+
+        Map<LocalDate, Map<String, Long>> enteredByWeek = new LinkedHashMap<>();
+        for (LocalDate start = week.start(from); !start.isAfter(to); start = week.next(start)) {
+            enteredByWeek.put(start, new LinkedHashMap<>());
+        }
+        for (Object[] row : transitionRepository.countByDayAndToStatus(start(from), end(to))) {
+            LocalDate day = LocalDate.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+            enteredByWeek.get(week.start(day)).merge(((CustomerStatus) row[3]).name(), ((Number) row[4]).longValue(), Long::sum);
+        }
+
+        List<PipelineAnalyticsResponse.WeeklyThroughput> throughput = new ArrayList<>(enteredByWeek.size());
+        enteredByWeek.forEach((start, entered) -> throughput.add(PipelineAnalyticsResponse.WeeklyThroughput.builder()
+                .week(week.label(start))
+                .start(start)
+                .entered(entered)
+                .total(entered.values().stream().mapToLong(Long::longValue).sum())
+                .build()));
+        return throughput;
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Zeitraum darf nicht leer sein");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Startdatum darf nicht nach dem Enddatum liegen");
+        }
+        if (from.plusYears(MAX_RANGE_YEARS).isBefore(to)) {
+            throw new IllegalArgumentException("Zeitraum zu lang (maximal " + MAX_RANGE_YEARS + " Jahre)");
+        }
+    }
+
+    private static LocalDateTime start(LocalDate from) {
+        return from.atStartOfDay();
+    }
+
+    private static LocalDateTime end(LocalDate to) {
+        return to.plusDays(1).atStartOfDay();
+    }
+
+    /**
+     * Berechnet den prozentualen Anteil (zwei Nachkommastellen), 0 bei leerer Basis
+     */
+    private static BigDecimal percentage(long part, long total) {
+        if (total <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(part)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+    }
+
+    private static Double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
+}
@@ -0,0 +1,48 @@
+package eu.pierix.crmv3.application;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Zeitraster für Umsatzauswertungen
+ */
+public enum RevenuePeriod {
+    DAY(DateTimeFormatter.ISO_LOCAL_DATE),
+    MONTH(DateTimeFormatter.ofPattern("yyyy-MM")),
+    YEAR(DateTimeFormatter.ofPattern("yyyy"));
+
+    private final DateTimeFormatter formatter;
+
+    RevenuePeriod(DateTimeFormatter formatter) {
+        this.formatter = formatter;
+    }
+
+    /**
+     * Liefert den Beginn des Zeitraums, in dem das Datum liegt
+     */
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    /**
+     * Liefert den Beginn des folgenden Zeitraums
+     */
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case MONTH -> start.plusMonths(1);
+            case YEAR -> start.plusYears(1);
+        };
+    }
+
+    /**
+     * Formatiert den Zeitraum als Bezeichnung (z.B. 2024-05)
+     */
+    public String label(LocalDate start) {
+        return start.format(formatter);
+    }
+}
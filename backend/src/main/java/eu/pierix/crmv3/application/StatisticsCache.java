@@ -0,0 +1,217 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.web.dto.StatisticsResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache für die Dashboard-Statistiken mit Stale-while-revalidate.
+ *
+ * Innerhalb von statistics.cache.ttl wird der zuletzt berechnete Wert direkt geliefert. Danach (oder nach
+ * einer Invalidierung durch Schreibzugriffe auf Kunden und Angebote) erhalten Aufrufer weiter den alten Wert,
+ * während genau eine Neuberechnung im Hintergrund läuft. Erst wenn der Wert älter als statistics.cache.max-stale
+ * ist oder noch keiner existiert, warten Aufrufer; gleichzeitige Fehlschläge teilen sich dabei eine Berechnung.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatisticsCache {
+
+    private final StatisticsService statisticsService;
+
+    @Value("${statistics.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${statistics.cache.ttl:PT30S}")
+    private Duration ttl;
+
+    @Value("${statistics.cache.max-stale:PT10M}")
+    private Duration maxStale;
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("statistics-cache-refresh").daemon().factory());
+
+    private volatile Entry current;
+    private final AtomicReference<CompletableFuture<StatisticsResponse>> inFlight = new AtomicReference<>();
+    // Wird bei jeder Invalidierung erhöht; Einträge einer älteren Generation gelten als veraltet
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failedRefreshes = new LongAdder();
+    private final LongAdder refreshNanos = new LongAdder();
+    private final AtomicLong maxRefreshNanos = new AtomicLong();
+    private volatile long lastRefreshNanos;
+
+    /**
+     * Liefert die Dashboard-Statistiken aus dem Cache bzw. berechnet sie bei Bedarf
+     */
+    public StatisticsResponse getStatistics() {
+        if (!enabled) {
+            return statisticsService.getStatistics();
+        }
+
+        Entry entry = current;
+        if (entry != null) {
+            long age = System.nanoTime() - entry.computedAt();
+            if (entry.generation() == generation.get() && age < ttl.toNanos()) {
+                hits.increment();
+                return entry.value();
+            }
+            if (age < maxStale.toNanos()) {
+                staleHits.increment();
+                refresh(true);
+                return entry.value();
+            }
+        }
+
+        misses.increment();
+        try {
+            return refresh(false).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Markiert die gecachten Statistiken als veraltet; wirksam nach dem Commit der aktuellen Transaktion
+     */
+    public void invalidate() {
+        if (enabled) {
+            TransactionCallbacks.afterCommit(generation::incrementAndGet);
+        }
+    }
+
+    /**
+     * Verwirft die gecachten Statistiken, sobald die tägliche Verdichtung Tage neu berechnet hat; sonst würde ein
+     * vor dem Job-Lauf berechneter Stand für die volle TTL als aktuell geliefert
+     */
+    @EventListener
+    public void onRollupUpdated(DailyStatsRollup.RollupUpdated event) {
+        invalidate();
+    }
+
+    /**
+     * Liefert Treffer, Fehlschläge und Dauer der Neuberechnungen seit dem Start
+     */
+    public CacheStats getStats() {
+        long hitCount = hits.sum();
+        long staleCount = staleHits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + staleCount + missCount;
+        long refreshCount = refreshes.sum();
+        Entry entry = current;
+        return new CacheStats(
+                hitCount,
+                staleCount,
+                missCount,
+                requests > 0 ? (double) (hitCount + staleCount) / requests : 0.0,
+                refreshCount,
+                failedRefreshes.sum(),
+                millis(lastRefreshNanos),
+                refreshCount > 0 ? millis(refreshNanos.sum() / refreshCount) : 0.0,
+                millis(maxRefreshNanos.get()),
+                entry != null ? (System.nanoTime() - entry.computedAt()) / 1_000_000 : null);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Startet eine Neuberechnung, sofern nicht bereits eine läuft, und liefert deren Ergebnis
+     *
+     * @param background true: Berechnung im Hintergrund-Thread, sonst im aufrufenden Thread
+     */
+    private CompletableFuture<StatisticsResponse> refresh(boolean background) {
+        while (true) {
+            CompletableFuture<StatisticsResponse> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<StatisticsResponse> future = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, future)) {
+                if (background) {
+                    try {
+                        refresher.execute(() -> compute(future));
+                    } catch (RejectedExecutionException e) {
+                        inFlight.compareAndSet(future, null);
+                        future.completeExceptionally(e);
+                    }
+                } else {
+                    compute(future);
+                }
+                return future;
+            }
+        }
+    }
+
+    private void compute(CompletableFuture<StatisticsResponse> future) {
+        // Generation vor der Berechnung lesen: eine Invalidierung währenddessen macht das Ergebnis sofort wieder veraltet
+        long computedGeneration = generation.get();
+        long start = System.nanoTime();
+        try {
+            StatisticsResponse value = statisticsService.getStatistics();
+            long duration = System.nanoTime() - start;
+            current = new Entry(value, start, computedGeneration);
+            refreshes.increment();
+            refreshNanos.add(duration);
+            maxRefreshNanos.accumulateAndGet(duration, Math::max);
+            lastRefreshNanos = duration;
+            log.debug("Statistiken in {} ms neu berechnet", duration / 1_000_000);
+            future.complete(value);
+        } catch (RuntimeException e) {
+            failedRefreshes.increment();
+            log.error("Fehler beim Neuberechnen der gecachten Statistiken: {}", e.getMessage(), e);
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.compareAndSet(future, null);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private record Entry(StatisticsResponse value, long computedAt, long generation) {
+    }
+
+    /**
+     * Kennzahlen des Statistik-Caches
+     *
+     * @param hitRatio Anteil der Anfragen, die ohne Warten beantwortet wurden (frische und veraltete Treffer)
+     * @param ageMs Alter des gecachten Werts, null ohne Wert
+     */
+    public record CacheStats(
+            long hits,
+            long staleHits,
+            long misses,
+            double hitRatio,
+            long refreshes,
+            long failedRefreshes,
+            double lastRefreshMs,
+            double averageRefreshMs,
+            double maxRefreshMs,
+            Long ageMs) {
+    }
+}
@@ -2,39 +2,113 @@ package eu.pierix.crmv3.application;
 
 import eu.pierix.crmv3.domain.*;
 import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.DailyStatRepository;
 import eu.pierix.crmv3.infrastructure.OfferRepository;
+import eu.pierix.crmv3.web.dto.RevenueResponse;
 import eu.pierix.crmv3.web.dto.StatisticsResponse;
+import eu.pierix.crmv3.web.dto.TimeSeriesPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
- * Service für die Berechnung von CRM-Statistiken
+ * Service für die Berechnung von CRM-Statistiken.
+ *
+ * Alle Kennzahlen werden aus wenigen gruppierten Aggregat-Queries (Kunden nach Status/Quelle und Monat,
+ * Angebote nach Status und Monat) im Speicher zusammengesetzt; die Anzahl der Queries hängt damit
+ * nicht von der Anzahl der Enum-Werte oder Monate ab. Die aktuellen Verteilungen nach Status werden immer
+ * live gezählt; nur die Zeitreihen je Monat lesen vergangene Tage aus der täglichen Verdichtung (daily_stats),
+ * sobald diese aufgebaut ist, und zählen den heutigen Tag live.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StatisticsService {
 
+    private static final int MONTHS = 6;
+    private static final int MAX_REVENUE_PERIODS = 1000;
+    private static final int MAX_TIME_SERIES_YEARS = 20;
+    private static final List<CustomerStatus> OPEN_LEAD_STATUSES =
+            List.of(CustomerStatus.NEW, CustomerStatus.CONTACTED, CustomerStatus.OFFER_CREATED);
+    private static final List<CustomerStatus> LEAD_STATUSES = List.of(
+            CustomerStatus.NEW, CustomerStatus.CONTACTED, CustomerStatus.OFFER_CREATED, CustomerStatus.WON, CustomerStatus.LOST);
+    private static final List<CustomerStatus> CLOSED_STATUSES = List.of(CustomerStatus.WON, CustomerStatus.LOST);
+
     private final CustomerRepository customerRepository;
     private final OfferRepository offerRepository;
+    private final DailyStatRepository dailyStatRepository;
+    private final DailyStatsRollup dailyStatsRollup;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${statistics.parallel.enabled:true}")
+    private boolean parallel;
+
+    // Obergrenze gleichzeitig belegter Pool-Verbindungen für parallele Abschnitte (Pool: 10)
+    @Value("${statistics.parallel.max-connections:4}")
+    private int maxConnections;
+
+    @Value("${statistics.parallel.acquire-timeout:PT5S}")
+    private Duration bulkheadTimeout;
+
+    private final ExecutorService sectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, SectionTimer> sectionTimers = new ConcurrentHashMap<>();
+    private TransactionTemplate readOnlyTransaction;
+    private Semaphore bulkhead;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        bulkhead = new Semaphore(Math.max(1, maxConnections));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sectionExecutor.shutdownNow();
+    }
 
     /**
-     * Berechnet alle Statistiken für das Dashboard
+     * Berechnet alle Statistiken für das Dashboard; die Datenbank-Abschnitte laufen parallel (siehe loadAggregates)
      */
     public StatisticsResponse getStatistics() {
         try {
             log.info("Berechne CRM-Statistiken...");
-            
-            StatisticsResponse.OverviewStatistics overview = calculateOverviewStatistics();
-            StatisticsResponse.RevenueStatistics revenue = calculateRevenueStatistics();
-            StatisticsResponse.ConversionStatistics conversion = calculateConversionStatistics();
+
+            YearMonth currentMonth = YearMonth.now();
+            Aggregates aggregates = timed("total", () -> loadAggregates(currentMonth.minusMonths(MONTHS - 1)));
+
+            StatisticsResponse.OverviewStatistics overview = calculateOverviewStatistics(aggregates);
+            StatisticsResponse.RevenueStatistics revenue = calculateRevenueStatistics(aggregates, currentMonth);
+            StatisticsResponse.ConversionStatistics conversion = calculateConversionStatistics(aggregates);
 
             return StatisticsResponse.builder()
                     .overview(overview)
@@ -48,34 +122,336 @@ public class StatisticsService {
         }
     }
 
+    /**
+     * Liefert die Laufzeiten der Statistik-Abschnitte seit dem Start ("total": alle Abschnitte zusammen)
+     */
+    public Map<String, SectionTiming> getSectionTimings() {
+        Map<String, SectionTiming> timings = new TreeMap<>();
+        sectionTimers.forEach((section, timer) -> timings.put(section, timer.snapshot()));
+        return timings;
+    }
+
+    /**
+     * Liefert Umsatz und Anzahl bezahlter Angebote je Zeitraum zwischen from und to (jeweils inklusive).
+     * Summen und Zählungen werden vollständig in der Datenbank gebildet, Angebote werden nicht geladen.
+     */
+    @Transactional(readOnly = true)
+    public RevenueResponse getRevenue(LocalDate from, LocalDate to, RevenuePeriod period) {
+        if (from == null || to == null || period == null) {
+            throw new IllegalArgumentException("Zeitraum und Raster dürfen nicht leer sein");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Startdatum darf nicht nach dem Enddatum liegen");
+        }
+
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate start = period.start(from); !start.isAfter(to); start = period.next(start)) {
+            if (starts.size() == MAX_REVENUE_PERIODS) {
+                throw new IllegalArgumentException("Zu viele Zeiträume (maximal " + MAX_REVENUE_PERIODS + ")");
+            }
+            starts.add(start);
+        }
+
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDateTime toTime = to.plusDays(1).atStartOfDay();
+            Map<LocalDate, BigDecimal> revenueByStart = new HashMap<>();
+            Map<LocalDate, Long> paidOffersByStart = new HashMap<>();
+            BiConsumer<LocalDate, Object[]> add = (start, sumAndCount) -> {
+                revenueByStart.merge(start, toBigDecimal(sumAndCount[0]), BigDecimal::add);
+                paidOffersByStart.merge(start, ((Number) sumAndCount[1]).longValue(), Long::sum);
+            };
+
+            if (dailyStatsRollup.isReady() && from.isBefore(today)) {
+                // Vergangene Tage aus der Verdichtung, nur heute live
+                LocalDate historyEnd = to.isBefore(today) ? to.plusDays(1) : today;
+                dailyStatRepository.sumAndCountOffersByDay(OfferStatus.PAID, from, historyEnd).forEach(row ->
+                        add.accept(period.start((LocalDate) row[0]), new Object[]{row[1], row[2]}));
+                if (!to.isBefore(today)) {
+                    offerRepository.sumAndCountByDay(OfferStatus.PAID, today.atStartOfDay(), toTime).forEach(row ->
+                            add.accept(period.start(toDate(row[0], row[1], row[2])), new Object[]{row[3], row[4]}));
+                }
+            } else {
+                LocalDateTime fromTime = from.atStartOfDay();
+                switch (period) {
+                    case DAY -> offerRepository.sumAndCountByDay(OfferStatus.PAID, fromTime, toTime).forEach(row ->
+                            add.accept(toDate(row[0], row[1], row[2]), new Object[]{row[3], row[4]}));
+                    case MONTH -> offerRepository.sumAndCountByMonth(OfferStatus.PAID, fromTime, toTime).forEach(row ->
+                            add.accept(toDate(row[0], row[1], 1), new Object[]{row[2], row[3]}));
+                    case YEAR -> offerRepository.sumAndCountByYear(OfferStatus.PAID, fromTime, toTime).forEach(row ->
+                            add.accept(toDate(row[0], 1, 1), new Object[]{row[1], row[2]}));
+                }
+            }
+
+            BigDecimal totalRevenue = BigDecimal.ZERO;
+            long totalPaidOffers = 0;
+            List<RevenueResponse.PeriodRevenue> periods = new ArrayList<>(starts.size());
+            for (LocalDate start : starts) {
+                BigDecimal revenue = revenueByStart.getOrDefault(start, BigDecimal.ZERO);
+                long paidOffers = paidOffersByStart.getOrDefault(start, 0L);
+                totalRevenue = totalRevenue.add(revenue);
+                totalPaidOffers += paidOffers;
+                periods.add(RevenueResponse.PeriodRevenue.builder()
+                        .period(period.label(start))
+                        .start(start)
+                        .revenue(revenue)
+                        .paidOffers(paidOffers)
+                        .build());
+            }
+
+            return RevenueResponse.builder()
+                    .from(from)
+                    .to(to)
+                    .period(period.name())
+                    .totalRevenue(totalRevenue)
+                    .paidOffers(totalPaidOffers)
+                    .periods(periods)
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Fehler beim Berechnen der Umsätze von {} bis {}: {}", from, to, e.getMessage(), e);
+            throw new RuntimeException("Fehler beim Laden der Umsätze", e);
+        }
+    }
+
+    /**
+     * Prüft die Parameter einer Zeitreihe; wird vor Beginn des Streamings aufgerufen, damit Fehler als 400 gemeldet werden können
+     */
+    public void validateTimeSeries(LocalDate from, LocalDate to, TimeSeriesGranularity granularity, TimeSeriesMetric metric) {
+        if (from == null || to == null || granularity == null || metric == null) {
+            throw new IllegalArgumentException("Zeitraum, Raster und Kennzahl dürfen nicht leer sein");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Startdatum darf nicht nach dem Enddatum liegen");
+        }
+        if (from.plusYears(MAX_TIME_SERIES_YEARS).isBefore(to)) {
+            throw new IllegalArgumentException("Zeitraum zu lang (maximal " + MAX_TIME_SERIES_YEARS + " Jahre)");
+        }
+    }
+
+    /**
+     * Übergibt die Zeitreihe einer Kennzahl zwischen from und to (jeweils inklusive) Punkt für Punkt an den Consumer.
+     * Je Kennzahl wird eine nach Tag bzw. Monat gruppierte und sortierte Aggregat-Query als Stream gelesen und
+     * beim Durchlaufen auf das Raster verdichtet; Zeiträume ohne Daten werden mit 0 gefüllt. Es werden keine
+     * Zwischenlisten aufgebaut, der Speicherbedarf hängt nicht von der Länge des Zeitraums ab.
+     *
+     * @return Wert der Kennzahl über den gesamten Zeitraum
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal streamTimeSeries(LocalDate from, LocalDate to, TimeSeriesGranularity granularity,
+                                       TimeSeriesMetric metric, Consumer<TimeSeriesPoint> consumer) {
+        validateTimeSeries(from, to, granularity, metric);
+
+        boolean daily = granularity.isDaily();
+        LocalDateTime fromTime = from.atStartOfDay();
+        LocalDateTime toTime = to.plusDays(1).atStartOfDay();
+        Stream<Object[]> rows;
+        if (metric.isOfferMetric()) {
+            rows = daily
+                    ? offerRepository.streamSumAndCountByDay(OfferStatus.PAID, fromTime, toTime)
+                    : offerRepository.streamSumAndCountByMonth(OfferStatus.PAID, fromTime, toTime);
+        } else {
+            rows = daily
+                    ? customerRepository.streamCountByDay(CustomerStatus.WON, CustomerStatus.LOST, fromTime, toTime)
+                    : customerRepository.streamCountByMonth(CustomerStatus.WON, CustomerStatus.LOST, fromTime, toTime);
+        }
+
+        try (rows) {
+            Iterator<Object[]> iterator = rows.iterator();
+            Object[] row = iterator.hasNext() ? iterator.next() : null;
+            int valueOffset = daily ? 3 : 2;
+            TimeSeriesBucket total = new TimeSeriesBucket(metric);
+
+            for (LocalDate start = granularity.start(from); !start.isAfter(to); start = granularity.next(start)) {
+                LocalDate next = granularity.next(start);
+                TimeSeriesBucket bucket = new TimeSeriesBucket(metric);
+                while (row != null && (daily ? toDate(row[0], row[1], row[2]) : toDate(row[0], row[1], 1)).isBefore(next)) {
+                    bucket.add(row, valueOffset);
+                    total.add(row, valueOffset);
+                    row = iterator.hasNext() ? iterator.next() : null;
+                }
+                consumer.accept(TimeSeriesPoint.builder()
+                        .period(granularity.label(start))
+                        .start(start)
+                        .value(bucket.value())
+                        .build());
+            }
+            return total.value();
+        }
+    }
+
+    /**
+     * Lädt die gruppierten Zählungen und Summen, aus denen alle Kennzahlen berechnet werden.
+     * Kunden und Angebote nach aktuellem Status werden live gezählt, da die Verdichtung den Status nur
+     * zum Zeitpunkt ihres letzten Laufs kennt. Für Umsatz und Abschlüsse je Monat stammen vergangene Tage
+     * aus daily_stats, sofern verfügbar, und nur der heutige Tag wird live gezählt.
+     *
+     * Die vier Abschnitte sind voneinander unabhängig und laufen ohne umgebende Transaktion parallel
+     * auf virtuellen Threads, jeweils in einer eigenen Lese-Transaktion. Innerhalb einer Transaktion
+     * des Aufrufers werden sie nacheinander in dieser ausgeführt, damit dessen Änderungen sichtbar sind.
+     */
+    private Aggregates loadAggregates(YearMonth firstMonth) {
+        boolean rollup = dailyStatsRollup.isReady();
+        LocalDate today = LocalDate.now();
+
+        if (!parallel || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return readOnlyTransaction.execute(status -> new Aggregates(
+                    timed("customers", this::loadCustomerDistribution),
+                    timed("offers", this::loadOfferDistribution),
+                    timed("monthlyRevenue", () -> loadPaidRevenueByMonth(rollup, firstMonth, today)),
+                    timed("monthlyClosings", () -> loadClosedCustomersByMonth(rollup, firstMonth, today))));
+        }
+
+        Future<CustomerDistribution> customers = fork("customers", this::loadCustomerDistribution);
+        Future<OfferDistribution> offers = fork("offers", this::loadOfferDistribution);
+        Future<Map<YearMonth, BigDecimal>> paidRevenue = fork("monthlyRevenue", () -> loadPaidRevenueByMonth(rollup, firstMonth, today));
+        Future<Map<YearMonth, Map<CustomerStatus, Long>>> closedCustomers =
+                fork("monthlyClosings", () -> loadClosedCustomersByMonth(rollup, firstMonth, today));
+        List<Future<?>> sections = List.of(customers, offers, paidRevenue, closedCustomers);
+        try {
+            return new Aggregates(join(customers), join(offers), join(paidRevenue), join(closedCustomers));
+        } finally {
+            sections.forEach(section -> section.cancel(true));
+        }
+    }
+
+    /**
+     * Kunden nach aktuellem Status und LeadSource (live)
+     */
+    private CustomerDistribution loadCustomerDistribution() {
+        Map<CustomerStatus, Long> customersByStatus = new EnumMap<>(CustomerStatus.class);
+        Map<LeadSource, Long> customersBySource = new EnumMap<>(LeadSource.class);
+        Map<LeadSource, Long> wonCustomersBySource = new EnumMap<>(LeadSource.class);
+        for (Object[] row : customerRepository.countByStatusAndLeadSourceGrouped()) {
+            CustomerStatus status = (CustomerStatus) row[0];
+            LeadSource source = (LeadSource) row[1];
+            long count = ((Number) row[2]).longValue();
+            customersByStatus.merge(status, count, Long::sum);
+            if (source != null) {
+                customersBySource.merge(source, count, Long::sum);
+                if (status == CustomerStatus.WON) {
+                    wonCustomersBySource.merge(source, count, Long::sum);
+                }
+            }
+        }
+        return new CustomerDistribution(customersByStatus, customersBySource, wonCustomersBySource);
+    }
+
+    /**
+     * Angebote und Endbeträge nach aktuellem Status (live)
+     */
+    private OfferDistribution loadOfferDistribution() {
+        Map<OfferStatus, Long> offersByStatus = new EnumMap<>(OfferStatus.class);
+        Map<OfferStatus, BigDecimal> offerAmountByStatus = new EnumMap<>(OfferStatus.class);
+        for (Object[] row : offerRepository.countAndSumFinalAmountByStatusGrouped()) {
+            OfferStatus status = (OfferStatus) row[0];
+            offersByStatus.merge(status, ((Number) row[1]).longValue(), Long::sum);
+            offerAmountByStatus.merge(status, toBigDecimal(row[2]), BigDecimal::add);
+        }
+        return new OfferDistribution(offersByStatus, offerAmountByStatus);
+    }
+
+    /**
+     * Umsatz bezahlter Angebote je Monat ab firstMonth
+     */
+    private Map<YearMonth, BigDecimal> loadPaidRevenueByMonth(boolean rollup, YearMonth firstMonth, LocalDate today) {
+        Map<YearMonth, BigDecimal> paidRevenueByMonth = new HashMap<>();
+        LocalDateTime from = firstMonth.atDay(1).atStartOfDay();
+        if (rollup) {
+            for (Object[] row : dailyStatRepository.sumAndCountOffersByDay(OfferStatus.PAID, firstMonth.atDay(1), today)) {
+                paidRevenueByMonth.merge(YearMonth.from((LocalDate) row[0]), toBigDecimal(row[1]), BigDecimal::add);
+            }
+            from = today.atStartOfDay();
+        }
+        LocalDateTime to = firstMonth.plusMonths(MONTHS).atDay(1).atStartOfDay();
+        for (Object[] row : offerRepository.sumAndCountByMonth(OfferStatus.PAID, from, to)) {
+            paidRevenueByMonth.merge(toYearMonth(row[0], row[1]), toBigDecimal(row[2]), BigDecimal::add);
+        }
+        return paidRevenueByMonth;
+    }
+
+    /**
+     * Gewonnene und verlorene Kunden je Monat ab firstMonth
+     */
+    private Map<YearMonth, Map<CustomerStatus, Long>> loadClosedCustomersByMonth(boolean rollup, YearMonth firstMonth, LocalDate today) {
+        Map<YearMonth, Map<CustomerStatus, Long>> closedCustomersByMonth = new HashMap<>();
+        BiConsumer<YearMonth, Object[]> addClosed = (month, statusAndCount) ->
+                closedCustomersByMonth.computeIfAbsent(month, key -> new EnumMap<>(CustomerStatus.class))
+                        .merge((CustomerStatus) statusAndCount[0], ((Number) statusAndCount[1]).longValue(), Long::sum);
+        LocalDateTime from = firstMonth.atDay(1).atStartOfDay();
+        if (rollup) {
+            for (Object[] row : dailyStatRepository.countCustomersByDayAndStatus(CLOSED_STATUSES, firstMonth.atDay(1), today)) {
+                addClosed.accept(YearMonth.from((LocalDate) row[0]), new Object[]{row[1], row[2]});
+            }
+            from = today.atStartOfDay();
+        }
+        for (Object[] row : customerRepository.countByMonthAndStatusGrouped(CLOSED_STATUSES, from)) {
+            addClosed.accept(toYearMonth(row[0], row[1]), new Object[]{row[2], row[3]});
+        }
+        return closedCustomersByMonth;
+    }
+
+    /**
+     * Startet einen Abschnitt auf einem virtuellen Thread; das Bulkhead begrenzt die gleichzeitig
+     * belegten Pool-Verbindungen über alle Statistik-Anfragen hinweg
+     */
+    private <T> Future<T> fork(String section, Supplier<T> loader) {
+        return sectionExecutor.submit(() -> {
+            if (!bulkhead.tryAcquire(bulkheadTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Zu viele gleichzeitige Statistik-Abfragen, Abschnitt " + section + " abgebrochen");
+            }
+            try {
+                return timed(section, () -> readOnlyTransaction.execute(status -> loader.get()));
+            } finally {
+                bulkhead.release();
+            }
+        });
+    }
+
+    private static <T> T join(Future<T> section) {
+        try {
+            return section.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Unterbrochen beim Warten auf Statistik-Abschnitte", e);
+        }
+    }
+
+    private <T> T timed(String section, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            sectionTimers.computeIfAbsent(section, key -> new SectionTimer()).record(System.nanoTime() - start);
+        }
+    }
+
     /**
      * Berechnet Übersichtsstatistiken
      */
-    private StatisticsResponse.OverviewStatistics calculateOverviewStatistics() {
+    private StatisticsResponse.OverviewStatistics calculateOverviewStatistics(Aggregates aggregates) {
         try {
             // Gesamtkunden
-            long totalCustomers = customerRepository.count();
+            long totalCustomers = aggregates.customersByStatus().values().stream().mapToLong(Long::longValue).sum();
             
             // Offene Leads (NEW, CONTACTED, OFFER_CREATED)
-            long openLeads = customerRepository.countByStatusIn(
-                Arrays.asList(CustomerStatus.NEW, CustomerStatus.CONTACTED, CustomerStatus.OFFER_CREATED)
-            );
+            long openLeads = aggregates.customers(OPEN_LEAD_STATUSES);
             
             // Offene Aufgaben (noch nicht implementiert, daher 0)
             long openTasks = 0L;
-            
-            // Kunden nach Status
-            long activeCustomers = customerRepository.countByStatus(CustomerStatus.ACTIVE);
-            long potentialCustomers = customerRepository.countByStatus(CustomerStatus.POTENTIAL);
-            long inactiveCustomers = customerRepository.countByStatus(CustomerStatus.INACTIVE);
 
             return StatisticsResponse.OverviewStatistics.builder()
                     .totalCustomers(totalCustomers)
                     .openLeads(openLeads)
                     .openTasks(openTasks)
-                    .activeCustomers(activeCustomers)
-                    .potentialCustomers(potentialCustomers)
-                    .inactiveCustomers(inactiveCustomers)
+                    .activeCustomers(aggregates.customers(CustomerStatus.ACTIVE))
+                    .potentialCustomers(aggregates.customers(CustomerStatus.POTENTIAL))
+                    .inactiveCustomers(aggregates.customers(CustomerStatus.INACTIVE))
                     .build();
                     
         } catch (Exception e) {
@@ -87,26 +463,17 @@ public class StatisticsService {
     /**
      * Berechnet Umsatzstatistiken
      */
-    private StatisticsResponse.RevenueStatistics calculateRevenueStatistics() {
+    private StatisticsResponse.RevenueStatistics calculateRevenueStatistics(Aggregates aggregates, YearMonth currentMonth) {
         try {
             // Gesamtumsatz aus bezahlten Angeboten
-            BigDecimal totalRevenue = offerRepository.findByStatus(OfferStatus.PAID)
-                    .stream()
-                    .map(Offer::getFinalAmount)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal totalRevenue = aggregates.offerAmountByStatus().getOrDefault(OfferStatus.PAID, BigDecimal.ZERO);
 
             // Monatlicher Umsatz (aktueller Monat)
-            LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
-            BigDecimal monthlyRevenue = offerRepository.findByStatusAndCreatedAtAfter(OfferStatus.PAID, currentMonth.atStartOfDay())
-                    .stream()
-                    .map(Offer::getFinalAmount)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal monthlyRevenue = aggregates.paidRevenueByMonth().getOrDefault(currentMonth, BigDecimal.ZERO);
 
             // Gewonnene vs. verlorene Leads
-            long wonLeads = customerRepository.countByStatus(CustomerStatus.WON);
-            long lostLeads = customerRepository.countByStatus(CustomerStatus.LOST);
+            long wonLeads = aggregates.customers(CustomerStatus.WON);
+            long lostLeads = aggregates.customers(CustomerStatus.LOST);
 
             // Umsatz aus gewonnenen Leads (identisch mit Gesamtumsatz aus bezahlten Angeboten)
             BigDecimal wonRevenue = totalRevenue;
@@ -115,15 +482,10 @@ public class StatisticsService {
             BigDecimal lostRevenue = BigDecimal.ZERO;
 
             // Konversionsrate
-            BigDecimal conversionRate = BigDecimal.ZERO;
-            if (wonLeads + lostLeads > 0) {
-                conversionRate = BigDecimal.valueOf(wonLeads)
-                        .multiply(BigDecimal.valueOf(100))
-                        .divide(BigDecimal.valueOf(wonLeads + lostLeads), 2, RoundingMode.HALF_UP);
-            }
+            BigDecimal conversionRate = percentage(wonLeads, wonLeads + lostLeads);
 
             // Monatliche Umsatzdaten (letzte 6 Monate)
-            List<StatisticsResponse.MonthlyRevenue> monthlyRevenueData = calculateMonthlyRevenueData();
+            List<StatisticsResponse.MonthlyRevenue> monthlyRevenueData = calculateMonthlyRevenueData(aggregates, currentMonth);
 
             return StatisticsResponse.RevenueStatistics.builder()
                     .totalRevenue(totalRevenue)
@@ -145,42 +507,21 @@ public class StatisticsService {
     /**
      * Berechnet monatliche Umsatzdaten
      */
-    private List<StatisticsResponse.MonthlyRevenue> calculateMonthlyRevenueData() {
+    private List<StatisticsResponse.MonthlyRevenue> calculateMonthlyRevenueData(Aggregates aggregates, YearMonth currentMonth) {
         try {
             List<StatisticsResponse.MonthlyRevenue> monthlyData = new ArrayList<>();
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
             
             // Letzte 6 Monate
-            for (int i = 5; i >= 0; i--) {
-                LocalDate monthStart = LocalDate.now().minusMonths(i).withDayOfMonth(1);
-                LocalDate monthEnd = monthStart.plusMonths(1).minusDays(1);
-                
-                BigDecimal monthRevenue = offerRepository.findByStatusAndCreatedAtBetween(
-                        OfferStatus.PAID, 
-                        monthStart.atStartOfDay(), 
-                        monthEnd.atTime(23, 59, 59)
-                ).stream()
-                .map(Offer::getFinalAmount)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                long monthWonLeads = customerRepository.countByStatusAndCreatedAtBetween(
-                        CustomerStatus.WON,
-                        monthStart.atStartOfDay(),
-                        monthEnd.atTime(23, 59, 59)
-                );
-
-                long monthLostLeads = customerRepository.countByStatusAndCreatedAtBetween(
-                        CustomerStatus.LOST,
-                        monthStart.atStartOfDay(),
-                        monthEnd.atTime(23, 59, 59)
-                );
+            for (int i = MONTHS - 1; i >= 0; i--) {
+                YearMonth month = currentMonth.minusMonths(i);
+                Map<CustomerStatus, Long> closed = aggregates.closedCustomersByMonth().getOrDefault(month, Map.of());
 
                 monthlyData.add(StatisticsResponse.MonthlyRevenue.builder()
-                        .month(monthStart.format(formatter))
-                        .revenue(monthRevenue)
-                        .wonLeads(monthWonLeads)
-                        .lostLeads(monthLostLeads)
+                        .month(month.format(formatter))
+                        .revenue(aggregates.paidRevenueByMonth().getOrDefault(month, BigDecimal.ZERO))
+                        .wonLeads(closed.getOrDefault(CustomerStatus.WON, 0L))
+                        .lostLeads(closed.getOrDefault(CustomerStatus.LOST, 0L))
                         .build());
             }
 
@@ -195,45 +536,26 @@ public class StatisticsService {
     /**
      * Berechnet Konversionsraten
      */
-    private StatisticsResponse.ConversionStatistics calculateConversionStatistics() {
+    private StatisticsResponse.ConversionStatistics calculateConversionStatistics(Aggregates aggregates) {
         try {
             // Lead zu Kunde Konversionsrate
-            long totalLeads = customerRepository.countByStatusIn(
-                Arrays.asList(CustomerStatus.NEW, CustomerStatus.CONTACTED, CustomerStatus.OFFER_CREATED, CustomerStatus.WON, CustomerStatus.LOST)
-            );
-            long convertedLeads = customerRepository.countByStatus(CustomerStatus.WON);
-            
-            BigDecimal leadToCustomerRate = BigDecimal.ZERO;
-            if (totalLeads > 0) {
-                leadToCustomerRate = BigDecimal.valueOf(convertedLeads)
-                        .multiply(BigDecimal.valueOf(100))
-                        .divide(BigDecimal.valueOf(totalLeads), 2, RoundingMode.HALF_UP);
-            }
+            long totalLeads = aggregates.customers(LEAD_STATUSES);
+            long convertedLeads = aggregates.customers(CustomerStatus.WON);
+            BigDecimal leadToCustomerRate = percentage(convertedLeads, totalLeads);
 
             // Angebot zu Gewonnen Konversionsrate
-            long totalOffers = offerRepository.count();
-            long wonOffers = offerRepository.countByStatus(OfferStatus.PAID);
-            
-            BigDecimal offerToWonRate = BigDecimal.ZERO;
-            if (totalOffers > 0) {
-                offerToWonRate = BigDecimal.valueOf(wonOffers)
-                        .multiply(BigDecimal.valueOf(100))
-                        .divide(BigDecimal.valueOf(totalOffers), 2, RoundingMode.HALF_UP);
-            }
+            long totalOffers = aggregates.offersByStatus().values().stream().mapToLong(Long::longValue).sum();
+            long wonOffers = aggregates.offersByStatus().getOrDefault(OfferStatus.PAID, 0L);
+            BigDecimal offerToWonRate = percentage(wonOffers, totalOffers);
 
             // Gesamtkonversionsrate
-            BigDecimal overallConversionRate = BigDecimal.ZERO;
-            if (totalLeads > 0) {
-                overallConversionRate = BigDecimal.valueOf(convertedLeads)
-                        .multiply(BigDecimal.valueOf(100))
-                        .divide(BigDecimal.valueOf(totalLeads), 2, RoundingMode.HALF_UP);
-            }
+            BigDecimal overallConversionRate = percentage(convertedLeads, totalLeads);
 
             // Konversionsraten nach Quelle
-            Map<String, BigDecimal> conversionBySource = calculateConversionBySource();
+            Map<String, BigDecimal> conversionBySource = calculateConversionBySource(aggregates);
             
             // Konversionsraten nach Status
-            Map<String, BigDecimal> conversionByStatus = calculateConversionByStatus();
+            Map<String, BigDecimal> conversionByStatus = calculateConversionByStatus(aggregates);
 
             return StatisticsResponse.ConversionStatistics.builder()
                     .leadToCustomerRate(leadToCustomerRate)
@@ -252,23 +574,15 @@ public class StatisticsService {
     /**
      * Berechnet Konversionsraten nach Quelle
      */
-    private Map<String, BigDecimal> calculateConversionBySource() {
+    private Map<String, BigDecimal> calculateConversionBySource(Aggregates aggregates) {
         try {
             Map<String, BigDecimal> conversionBySource = new HashMap<>();
             
             // Alle Lead-Quellen durchgehen
             for (LeadSource source : LeadSource.values()) {
-                long totalLeadsFromSource = customerRepository.countByLeadSource(source);
-                long wonLeadsFromSource = customerRepository.countByLeadSourceAndStatus(source, CustomerStatus.WON);
-                
-                BigDecimal conversionRate = BigDecimal.ZERO;
-                if (totalLeadsFromSource > 0) {
-                    conversionRate = BigDecimal.valueOf(wonLeadsFromSource)
-                            .multiply(BigDecimal.valueOf(100))
-                            .divide(BigDecimal.valueOf(totalLeadsFromSource), 2, RoundingMode.HALF_UP);
-                }
-                
-                conversionBySource.put(source.getDisplayName(), conversionRate);
+                long totalLeadsFromSource = aggregates.customersBySource().getOrDefault(source, 0L);
+                long wonLeadsFromSource = aggregates.wonCustomersBySource().getOrDefault(source, 0L);
+                conversionBySource.put(source.getDisplayName(), percentage(wonLeadsFromSource, totalLeadsFromSource));
             }
             
             return conversionBySource;
@@ -282,23 +596,15 @@ public class StatisticsService {
     /**
      * Berechnet Konversionsraten nach Status
      */
-    private Map<String, BigDecimal> calculateConversionByStatus() {
+    private Map<String, BigDecimal> calculateConversionByStatus(Aggregates aggregates) {
         try {
             Map<String, BigDecimal> conversionByStatus = new HashMap<>();
+            long wonFromStatus = aggregates.customers(CustomerStatus.WON);
             
             // Pipeline-Status durchgehen
-            for (CustomerStatus status : Arrays.asList(CustomerStatus.NEW, CustomerStatus.CONTACTED, CustomerStatus.OFFER_CREATED)) {
-                long totalInStatus = customerRepository.countByStatus(status);
-                long wonFromStatus = customerRepository.countByStatus(CustomerStatus.WON);
-                
-                BigDecimal conversionRate = BigDecimal.ZERO;
-                if (totalInStatus > 0) {
-                    conversionRate = BigDecimal.valueOf(wonFromStatus)
-                            .multiply(BigDecimal.valueOf(100))
-                            .divide(BigDecimal.valueOf(totalInStatus), 2, RoundingMode.HALF_UP);
-                }
-                
-                conversionByStatus.put(status.getDisplayName(), conversionRate);
+            for (CustomerStatus status : OPEN_LEAD_STATUSES) {
+                long totalInStatus = aggregates.customers(status);
+                conversionByStatus.put(status.getDisplayName(), percentage(wonFromStatus, totalInStatus));
             }
             
             return conversionByStatus;
@@ -308,4 +614,136 @@ public class StatisticsService {
             return new HashMap<>();
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Berechnet den prozentualen Anteil (zwei Nachkommastellen), 0 bei leerer Basis
+     */
+    private static BigDecimal percentage(long part, long total) {
+        if (total <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(part)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private static YearMonth toYearMonth(Object year, Object month) {
+        return YearMonth.of(toInt(year), toInt(month));
+    }
+
+    private static LocalDate toDate(Object year, Object month, Object day) {
+        return LocalDate.of(toInt(year), toInt(month), toInt(day));
+    }
+
+    private static int toInt(Object value) {
+        return ((Number) value).intValue();
+    }
+
+    /**
+     * Ergebnis der Aggregat-Queries
+     */
+    private record Aggregates(
+            Map<CustomerStatus, Long> customersByStatus,
+            Map<LeadSource, Long> customersBySource,
+            Map<LeadSource, Long> wonCustomersBySource,
+            Map<OfferStatus, Long> offersByStatus,
+            Map<OfferStatus, BigDecimal> offerAmountByStatus,
+            Map<YearMonth, BigDecimal> paidRevenueByMonth,
+            Map<YearMonth, Map<CustomerStatus, Long>> closedCustomersByMonth) {
+
+        Aggregates(CustomerDistribution customers, OfferDistribution offers,
+                   Map<YearMonth, BigDecimal> paidRevenueByMonth,
+                   Map<YearMonth, Map<CustomerStatus, Long>> closedCustomersByMonth) {
+            this(customers.byStatus(), customers.bySource(), customers.wonBySource(),
+                    offers.byStatus(), offers.amountByStatus(), paidRevenueByMonth, closedCustomersByMonth);
+        }
+
+        long customers(CustomerStatus status) {
+            return customersByStatus.getOrDefault(status, 0L);
+        }
+
+        long customers(Collection<CustomerStatus> statuses) {
+            return statuses.stream().mapToLong(this::customers).sum();
+        }
+    }
+
+    private record CustomerDistribution(
+            Map<CustomerStatus, Long> byStatus,
+            Map<LeadSource, Long> bySource,
+            Map<LeadSource, Long> wonBySource) {
+    }
+
+    private record OfferDistribution(
+            Map<OfferStatus, Long> byStatus,
+            Map<OfferStatus, BigDecimal> amountByStatus) {
+    }
+
+    /**
+     * Summen eines Zeitreihen-Zeitraums; Angebots-Zeilen liefern (Umsatz, Anzahl), Kunden-Zeilen (alle, gewonnen, verloren)
+     */
+    private static final class TimeSeriesBucket {
+        private final TimeSeriesMetric metric;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+        private long won;
+        private long lost;
+
+        TimeSeriesBucket(TimeSeriesMetric metric) {
+            this.metric = metric;
+        }
+
+        void add(Object[] row, int offset) {
+            if (metric.isOfferMetric()) {
+                amount = amount.add(toBigDecimal(row[offset]));
+                count += ((Number) row[offset + 1]).longValue();
+            } else {
+                count += ((Number) row[offset]).longValue();
+                won += ((Number) row[offset + 1]).longValue();
+                lost += ((Number) row[offset + 2]).longValue();
+            }
+        }
+
+        BigDecimal value() {
+            return switch (metric) {
+                case REVENUE -> amount;
+                case PAID_OFFERS, NEW_CUSTOMERS -> BigDecimal.valueOf(count);
+                case WON_LEADS -> BigDecimal.valueOf(won);
+                case LOST_LEADS -> BigDecimal.valueOf(lost);
+                case CONVERSION_RATE -> percentage(won, won + lost);
+            };
+        }
+    }
+
+    /**
+     * Laufzeiten eines Statistik-Abschnitts
+     */
+    public record SectionTiming(long calls, double lastMs, double averageMs, double maxMs) {
+    }
+
+    private static final class SectionTimer {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile long lastNanos;
+
+        void record(long nanos) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            lastNanos = nanos;
+        }
+
+        SectionTiming snapshot() {
+            long count = calls.sum();
+            return new SectionTiming(count, lastNanos / 1_000_000.0,
+                    count > 0 ? totalNanos.sum() / 1_000_000.0 / count : 0.0, maxNanos.get() / 1_000_000.0);
+        }
+    }
+}
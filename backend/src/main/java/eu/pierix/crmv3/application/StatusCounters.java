@@ -0,0 +1,301 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.LeadSource;
+import eu.pierix.crmv3.domain.OfferStatus;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-freie In-Memory-Zähler für die Verteilung der Kunden (Status x LeadSource) und Angebote (Status).
+ *
+ * Die Zähler werden beim Anwendungsstart aus der Datenbank befüllt und danach über den
+ * {@link StatusCountersEventListener} nach jedem Commit fortgeschrieben, sodass die Statistik-Endpunkte
+ * ohne Datenbank-Abfrage auskommen. Ein periodischer Abgleich korrigiert Abweichungen, z.B. durch
+ * Schreibzugriffe an Hibernate vorbei (Bulk-Updates, JDBC) oder Änderungen, die sich mit dem Abgleich überschneiden.
+ *
+ * Hat die aktuelle Transaktion selbst Kunden oder Angebote geändert, meldet {@link #isReady()} false,
+ * damit der Aufrufer seine eigenen, noch nicht committeten Änderungen über die Datenbank sieht.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatusCounters {
+
+    private static final int MAX_SEED_ATTEMPTS = 5;
+    private static final CustomerStatus[] CUSTOMER_STATUSES = CustomerStatus.values();
+    private static final LeadSource[] LEAD_SOURCES = LeadSource.values();
+    private static final OfferStatus[] OFFER_STATUSES = OfferStatus.values();
+
+    private final CustomerRepository customerRepository;
+    private final OfferRepository offerRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${statistics.counters.enabled:true}")
+    private boolean enabled;
+
+    // [Status][LeadSource]; die letzte Spalte zählt Kunden ohne LeadSource
+    private final LongAdder[][] customers = cells(CUSTOMER_STATUSES.length, LEAD_SOURCES.length + 1);
+    private final LongAdder[][] offers = cells(1, OFFER_STATUSES.length);
+
+    // Markiert Transaktionen, die Zähler-Änderungen vor sich herschieben
+    private final Object pendingChanges = new Object();
+
+    private volatile boolean ready;
+
+    /**
+     * Befüllt die Zähler beim Anwendungsstart
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            log.info("Status-Zähler sind deaktiviert");
+            return;
+        }
+        long start = System.nanoTime();
+        for (int attempt = 1; attempt <= MAX_SEED_ATTEMPTS && !ready; attempt++) {
+            reconcile();
+        }
+        if (ready) {
+            log.info("Status-Zähler in {} ms befüllt ({} Kunden, {} Angebote)",
+                    (System.nanoTime() - start) / 1_000_000, totalCustomers(), totalOffers());
+        } else {
+            log.warn("Status-Zähler konnten wegen laufender Änderungen nicht befüllt werden, nächster Versuch beim Abgleich");
+        }
+    }
+
+    /**
+     * Gibt an, ob Anfragen aus den Zählern beantwortet werden können
+     */
+    public boolean isReady() {
+        return ready && !hasPendingChanges();
+    }
+
+    /**
+     * Gleicht die Zähler mit der Datenbank ab.
+     * Zellen, die sich während der Abfrage geändert haben, werden erst beim nächsten Abgleich korrigiert.
+     */
+    @Scheduled(fixedDelayString = "${statistics.counters.reconcile-interval-ms:300000}",
+            initialDelayString = "${statistics.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long[][] customersBefore = snapshot(customers);
+            long[][] offersBefore = snapshot(offers);
+
+            long[][] customersInDatabase = new long[CUSTOMER_STATUSES.length][LEAD_SOURCES.length + 1];
+            for (Object[] row : customerRepository.countByStatusAndLeadSourceGrouped()) {
+                customersInDatabase[((CustomerStatus) row[0]).ordinal()][leadSourceIndex((LeadSource) row[1])] = (Long) row[2];
+            }
+            long[][] offersInDatabase = new long[1][OFFER_STATUSES.length];
+            for (Object[] row : offerRepository.countAndSumFinalAmountByStatusGrouped()) {
+                offersInDatabase[0][((OfferStatus) row[0]).ordinal()] = (Long) row[1];
+            }
+
+            int skipped = apply(customers, customersBefore, customersInDatabase) + apply(offers, offersBefore, offersInDatabase);
+            if (skipped > 0) {
+                log.debug("Abgleich der Status-Zähler: {} Zellen wegen gleichzeitiger Änderungen übersprungen", skipped);
+            } else if (!ready) {
+                ready = true;
+            }
+        } catch (Exception e) {
+            log.error("Fehler beim Abgleich der Status-Zähler: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Anzahl aller Kunden
+     */
+    public long totalCustomers() {
+        long total = 0;
+        for (LongAdder[] row : customers) {
+            total += sum(row);
+        }
+        return total;
+    }
+
+    /**
+     * Anzahl der Kunden mit dem Status
+     */
+    public long customerCount(CustomerStatus status) {
+        return sum(customers[status.ordinal()]);
+    }
+
+    /**
+     * Anzahl der Kunden je Status (alle Status, auch ohne Kunden)
+     */
+    public Map<CustomerStatus, Long> customerCountsByStatus() {
+        Map<CustomerStatus, Long> counts = new EnumMap<>(CustomerStatus.class);
+        for (CustomerStatus status : CUSTOMER_STATUSES) {
+            counts.put(status, customerCount(status));
+        }
+        return counts;
+    }
+
+    /**
+     * Anzahl aller Angebote
+     */
+    public long totalOffers() {
+        return sum(offers[0]);
+    }
+
+    /**
+     * Anzahl der Angebote je Status (alle Status, auch ohne Angebote)
+     */
+    public Map<OfferStatus, Long> offerCountsByStatus() {
+        Map<OfferStatus, Long> counts = new EnumMap<>(OfferStatus.class);
+        for (OfferStatus status : OFFER_STATUSES) {
+            counts.put(status, offers[0][status.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Meldet einen neuen Kunden; wirksam nach dem Commit
+     */
+    public void customerAdded(CustomerStatus status, LeadSource leadSource) {
+        customerChanged(null, null, status, leadSource);
+    }
+
+    /**
+     * Meldet einen gelöschten Kunden; wirksam nach dem Commit
+     */
+    public void customerRemoved(CustomerStatus status, LeadSource leadSource) {
+        customerChanged(status, leadSource, null, null);
+    }
+
+    /**
+     * Meldet einen Wechsel von Status und/oder LeadSource; null steht für "kein Kunde" (Anlage bzw. Löschung)
+     */
+    public void customerChanged(CustomerStatus oldStatus, LeadSource oldLeadSource,
+                                CustomerStatus newStatus, LeadSource newLeadSource) {
+        if (!enabled || (oldStatus == newStatus && oldLeadSource == newLeadSource)) {
+            return;
+        }
+        afterCommit(() -> {
+            if (oldStatus != null) {
+                customers[oldStatus.ordinal()][leadSourceIndex(oldLeadSource)].decrement();
+            }
+            if (newStatus != null) {
+                customers[newStatus.ordinal()][leadSourceIndex(newLeadSource)].increment();
+            }
+        });
+    }
+
+    /**
+     * Meldet einen Statuswechsel eines Angebots; null steht für "kein Angebot" (Anlage bzw. Löschung)
+     */
+    public void offerChanged(OfferStatus oldStatus, OfferStatus newStatus) {
+        if (!enabled || oldStatus == newStatus) {
+            return;
+        }
+        afterCommit(() -> {
+            if (oldStatus != null) {
+                offers[0][oldStatus.ordinal()].decrement();
+            }
+            if (newStatus != null) {
+                offers[0][newStatus.ordinal()].increment();
+            }
+        });
+    }
+
+    /**
+     * Prüft, ob die aktuelle Transaktion Änderungen enthält, die die Zähler noch nicht kennen:
+     * bereits geschriebene (markiert beim Melden) oder noch nicht geflushte im Persistence Context
+     */
+    private boolean hasPendingChanges() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        return TransactionSynchronizationManager.hasResource(pendingChanges)
+                || entityManager.unwrap(Session.class).isDirty();
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(pendingChanges)) {
+            TransactionSynchronizationManager.bindResource(pendingChanges, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingChanges);
+                }
+            });
+        }
+        TransactionCallbacks.afterCommit(change);
+    }
+
+    /**
+     * Übernimmt die Datenbank-Werte für alle Zellen, die sich seit dem Schnappschuss nicht geändert haben
+     *
+     * @return Anzahl der übersprungenen Zellen
+     */
+    private static int apply(LongAdder[][] cells, long[][] before, long[][] database) {
+        int skipped = 0;
+        for (int i = 0; i < cells.length; i++) {
+            for (int j = 0; j < cells[i].length; j++) {
+                long current = cells[i][j].sum();
+                if (current != before[i][j]) {
+                    skipped++;
+                } else if (current != database[i][j]) {
+                    cells[i][j].add(database[i][j] - current);
+                }
+            }
+        }
+        return skipped;
+    }
+
+    private static int leadSourceIndex(LeadSource leadSource) {
+        return leadSource != null ? leadSource.ordinal() : LEAD_SOURCES.length;
+    }
+
+    private static long sum(LongAdder[] row) {
+        long total = 0;
+        for (LongAdder cell : row) {
+            total += cell.sum();
+        }
+        return total;
+    }
+
+    private static long[][] snapshot(LongAdder[][] cells) {
+        long[][] values = new long[cells.length][];
+        for (int i = 0; i < cells.length; i++) {
+            values[i] = new long[cells[i].length];
+            for (int j = 0; j < cells[i].length; j++) {
+                values[i][j] = cells[i][j].sum();
+            }
+        }
+        return values;
+    }
+
+    private static LongAdder[][] cells(int rows, int columns) {
+        LongAdder[][] cells = new LongAdder[rows][columns];
+        for (LongAdder[] row : cells) {
+            for (int j = 0; j < columns; j++) {
+                row[j] = new LongAdder();
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,105 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.LeadSource;
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate-Event-Listener, der Anlage, Statuswechsel und Löschung von Kunden und Angeboten an die
+ * {@link StatusCounters} meldet.
+ *
+ * Anders als JPA-Callbacks liefert Hibernate beim Update den vorherigen Zustand mit, sodass jeder
+ * Schreibpfad (Service, Statuswechsel über Angebote, direkte Repository-Aufrufe) ohne zusätzliche Abfrage erfasst wird.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatusCountersEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StatusCounters statusCounters;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Customer customer) {
+            statusCounters.customerAdded(customer.getStatus(), customer.getLeadSource());
+        } else if (event.getEntity() instanceof Offer offer) {
+            statusCounters.offerChanged(null, offer.getStatus());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (!(entity instanceof Customer) && !(entity instanceof Offer)) {
+            return;
+        }
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // Ohne vorherigen Zustand (z.B. Update eines nicht geladenen Objekts) korrigiert der Abgleich
+            log.debug("Update ohne vorherigen Zustand für {}, Status-Zähler werden beim Abgleich korrigiert", entity.getClass().getSimpleName());
+            return;
+        }
+
+        EntityPersister persister = event.getPersister();
+        if (entity instanceof Customer customer) {
+            statusCounters.customerChanged(
+                    (CustomerStatus) oldState[propertyIndex(persister, "status")],
+                    (LeadSource) oldState[propertyIndex(persister, "leadSource")],
+                    customer.getStatus(), customer.getLeadSource());
+        } else if (entity instanceof Offer offer) {
+            statusCounters.offerChanged((OfferStatus) oldState[propertyIndex(persister, "status")], offer.getStatus());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Customer customer) {
+            statusCounters.customerRemoved(customer.getStatus(), customer.getLeadSource());
+        } else if (event.getEntity() instanceof Offer offer) {
+            statusCounters.offerChanged(offer.getStatus(), null);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    static int propertyIndex(EntityPersister persister, String property) {
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(property)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Eigenschaft " + property + " fehlt in " + persister.getEntityName());
+    }
+}
@@ -0,0 +1,74 @@
+package eu.pierix.crmv3.application;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Zeitraster für Zeitreihen (Wochen nach ISO-8601, beginnend am Montag)
+ */
+public enum TimeSeriesGranularity {
+    DAY,
+    WEEK,
+    MONTH,
+    QUARTER;
+
+    /**
+     * Liefert den Beginn des Zeitraums, in dem das Datum liegt
+     */
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> date.withMonth((date.get(IsoFields.QUARTER_OF_YEAR) - 1) * 3 + 1).withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Liefert den Beginn des folgenden Zeitraums
+     */
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+            case QUARTER -> start.plusMonths(3);
+        };
+    }
+
+    /**
+     * Formatiert den Zeitraum als Bezeichnung (z.B. 2024-05-17, 2024-W20, 2024-05, 2024-Q2)
+     */
+    public String label(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.toString();
+            case WEEK -> String.format("%d-W%02d", start.get(IsoFields.WEEK_BASED_YEAR), start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> String.format("%d-%02d", start.getYear(), start.getMonthValue());
+            case QUARTER -> start.getYear() + "-Q" + start.get(IsoFields.QUARTER_OF_YEAR);
+        };
+    }
+
+    /**
+     * Gibt an, ob die Werte tageweise (sonst monatsweise) aus der Datenbank gelesen werden müssen
+     */
+    public boolean isDaily() {
+        return this == DAY || this == WEEK;
+    }
+
+    /**
+     * Ermittelt das Raster aus einem Request-Parameter (z.B. "day", "week", "month", "quarter")
+     */
+    public static TimeSeriesGranularity fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return MONTH;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unbekanntes Raster: " + value + " (erlaubt: day, week, month, quarter)");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package eu.pierix.crmv3.application;
+
+import java.util.Locale;
+
+/**
+ * Kennzahlen für Zeitreihen; Angebots-Kennzahlen beziehen sich auf bezahlte Angebote, Kunden-Kennzahlen
+ * jeweils auf das Erstellungsdatum
+ */
+public enum TimeSeriesMetric {
+    REVENUE(true),
+    PAID_OFFERS(true),
+    NEW_CUSTOMERS(false),
+    WON_LEADS(false),
+    LOST_LEADS(false),
+    CONVERSION_RATE(false);
+
+    private final boolean offerMetric;
+
+    TimeSeriesMetric(boolean offerMetric) {
+        this.offerMetric = offerMetric;
+    }
+
+    /**
+     * Gibt an, ob die Kennzahl aus Angeboten (sonst aus Kunden) berechnet wird
+     */
+    public boolean isOfferMetric() {
+        return offerMetric;
+    }
+
+    /**
+     * Ermittelt die Kennzahl aus einem Request-Parameter (z.B. "revenue", "conversion_rate", "won-leads")
+     */
+    public static TimeSeriesMetric fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return REVENUE;
+        }
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unbekannte Kennzahl: " + value
+                    + " (erlaubt: revenue, paid_offers, new_customers, won_leads, lost_leads, conversion_rate)");
+        }
+    }
+}
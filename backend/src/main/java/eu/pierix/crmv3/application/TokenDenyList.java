@@ -0,0 +1,163 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.infrastructure.JwtService;
+import eu.pierix.crmv3.infrastructure.TokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Begrenzte In-Memory-Sperrliste widerrufener, noch nicht abgelaufener Tokens.
+ *
+ * Der JwtAuthenticationFilter vertraut Signatur und Ablaufzeit des Tokens und prüft nur noch diese Liste,
+ * statt je Request die Token-Tabelle abzufragen. Gefüllt wird sie vom TokenService bei jedem Widerruf
+ * sowie beim Start und danach periodisch (security.token-deny-list.refresh-interval-ms) aus der Datenbank,
+ * damit auch Widerrufe anderer Instanzen greifen. Einträge werden wie in der Token-Tabelle über den
+ * Token-Hash ({@link JwtService#tokenHash(String)}) gespeichert und nach Ablauf des Tokens entfernt.
+ *
+ * Solange die Liste nicht geladen ist oder mehr als security.token-deny-list.max-entries Widerrufe
+ * gespeichert werden müssten, ist sie inaktiv und der Filter prüft wie bisher gegen die Datenbank.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenDenyList {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final TokenRepository tokenRepository;
+
+    @Value("${security.token-deny-list.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.token-deny-list.max-entries:100000}")
+    private int maxEntries;
+
+    // Token-Hash -> Ablaufzeitpunkt des Tokens (Epoch-Millisekunden)
+    private final Map<String, Long> denied = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile boolean overflow;
+
+    /**
+     * Lädt beim Start alle widerrufenen, noch nicht abgelaufenen Tokens
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            log.info("Token-Sperrliste ist deaktiviert, Tokens werden je Request gegen die Datenbank geprüft");
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * Gibt an, ob der Widerrufsstatus aus der Sperrliste gelesen werden kann
+     */
+    public boolean isActive() {
+        return enabled && loaded && !overflow;
+    }
+
+    /**
+     * Prüft, ob ein Token widerrufen wurde (nur aussagekräftig, wenn {@link #isActive()})
+     */
+    public boolean isDenied(String token) {
+        Long expiresAt = denied.get(JwtService.tokenHash(token));
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Sperrt einen Token bis zu seinem Ablauf.
+     * Wirkt sofort und nicht erst nach dem Commit: ein zu früh gesperrter Token ist unkritischer als ein zu spät gesperrter.
+     */
+    public void deny(String token, LocalDateTime expiresAt) {
+        if (token != null) {
+            denyHash(JwtService.tokenHash(token), expiresAt);
+        }
+    }
+
+    /**
+     * Sperrt einen Token anhand seines Hashes bis zu seinem Ablauf
+     */
+    public void denyHash(String tokenHash, LocalDateTime expiresAt) {
+        if (!enabled || tokenHash == null || expiresAt == null) {
+            return;
+        }
+        long expiresAtMillis = expiresAt.atZone(ZONE).toInstant().toEpochMilli();
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (denied.size() >= maxEntries && !denied.containsKey(tokenHash)) {
+            markOverflow();
+            return;
+        }
+        denied.put(tokenHash, expiresAtMillis);
+    }
+
+    /**
+     * Übernimmt alle widerrufenen, noch nicht abgelaufenen Tokens aus der Datenbank
+     */
+    @Scheduled(fixedDelayString = "${security.token-deny-list.refresh-interval-ms:60000}",
+            initialDelayString = "${security.token-deny-list.refresh-interval-ms:60000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            evictExpired();
+            Map<String, Long> revoked = new HashMap<>();
+            for (Object[] row : tokenRepository.findRevokedTokensExpiringAfter(LocalDateTime.now())) {
+                revoked.put((String) row[0], ((LocalDateTime) row[1]).atZone(ZONE).toInstant().toEpochMilli());
+            }
+            // Nur ergänzen: Widerrufe, die während des Ladens eingetragen wurden, bleiben erhalten
+            denied.putAll(revoked);
+            if (denied.size() > maxEntries) {
+                markOverflow();
+                return;
+            }
+            if (overflow) {
+                log.info("Token-Sperrliste passt wieder in {} Einträge und ist wieder aktiv", maxEntries);
+            }
+            overflow = false;
+            loaded = true;
+            log.debug("Token-Sperrliste geladen: {} widerrufene Tokens", denied.size());
+        } catch (Exception e) {
+            log.error("Fehler beim Laden der Token-Sperrliste: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Entfernt Einträge abgelaufener Tokens; diese weist bereits die Prüfung der Ablaufzeit ab
+     */
+    @Scheduled(fixedDelayString = "${security.token-deny-list.eviction-interval-ms:300000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        denied.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    /**
+     * Anzahl der gesperrten Tokens
+     */
+    public int size() {
+        return denied.size();
+    }
+
+    private void markOverflow() {
+        if (!overflow) {
+            log.warn("Token-Sperrliste hat mehr als {} Einträge, Tokens werden bis zum nächsten Laden gegen die Datenbank geprüft",
+                    maxEntries);
+        }
+        overflow = true;
+        // Einträge abgelaufener Tokens freigeben, damit das nächste Laden wieder passt
+        evictExpired();
+    }
+}
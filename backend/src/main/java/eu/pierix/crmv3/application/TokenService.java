@@ -3,7 +3,10 @@ package eu.pierix.crmv3.application;
 import eu.pierix.crmv3.domain.Token;
 import eu.pierix.crmv3.domain.TokenType;
 import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.JwtService;
+import eu.pierix.crmv3.infrastructure.JwtService.IssuedToken;
 import eu.pierix.crmv3.infrastructure.TokenRepository;
+import eu.pierix.crmv3.infrastructure.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -22,13 +25,18 @@ import java.util.Optional;
 public class TokenService {
 
     private final TokenRepository tokenRepository;
+    private final TokenDenyList tokenDenyList;
+    private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
     /**
-     * Speichert einen neuen Token in der Datenbank
+     * Speichert einen neuen Token in der Datenbank (nur Hash und Token-ID, nicht den Token selbst).
+     * Die Token-ID stammt aus der Ausgabe, der gerade signierte Token wird nicht erneut geprüft.
      */
-    public Token saveToken(String tokenString, User user, TokenType tokenType, LocalDateTime expiresAt) {
+    public Token saveToken(IssuedToken issuedToken, User user, TokenType tokenType, LocalDateTime expiresAt) {
         Token token = Token.builder()
-                .token(tokenString)
+                .tokenHash(JwtService.tokenHash(issuedToken.token()))
+                .jti(issuedToken.tokenId())
                 .user(user)
                 .tokenType(tokenType)
                 .expired(false)
@@ -43,14 +51,14 @@ public class TokenService {
      * Findet einen Token anhand des Token-Strings
      */
     public Optional<Token> findByToken(String tokenString) {
-        return tokenRepository.findByToken(tokenString);
+        return tokenRepository.findByTokenHash(JwtService.tokenHash(tokenString));
     }
 
     /**
-     * Validiert einen Token (prüft ob er gültig ist)
+     * Validiert einen Token anhand der Datenbank (prüft ob er gültig ist)
      */
     public boolean isTokenValid(String tokenString) {
-        Optional<Token> tokenOpt = tokenRepository.findByToken(tokenString);
+        Optional<Token> tokenOpt = tokenRepository.findByTokenHash(JwtService.tokenHash(tokenString));
         if (tokenOpt.isEmpty()) {
             return false;
         }
@@ -63,13 +71,20 @@ public class TokenService {
      * Markiert einen Token als widerrufen
      */
     public void revokeToken(String tokenString) {
-        tokenRepository.revokeToken(tokenString);
+        String tokenHash = JwtService.tokenHash(tokenString);
+        tokenRepository.findByTokenHash(tokenHash)
+                .ifPresent(token -> tokenDenyList.denyHash(tokenHash, token.getExpiresAt()));
+        tokenRepository.revokeToken(tokenHash);
     }
 
     /**
-     * Markiert alle Tokens eines Benutzers als widerrufen
+     * Widerruft alle Tokens eines Benutzers (z.B. Logout auf allen Geräten).
+     * Die erhöhte Token-Version macht alle ausgegebenen Tokens ungültig, ohne sie einzeln in die Sperrliste
+     * einzutragen; die Token-Einträge werden nur noch für die Zählung aktiver Sitzungen als widerrufen markiert.
      */
     public void revokeAllUserTokens(User user) {
+        userRepository.incrementTokenVersion(user.getId());
+        userDetailsCache.invalidate(user);
         tokenRepository.revokeAllUserTokens(user);
     }
 
@@ -77,6 +92,7 @@ public class TokenService {
      * Markiert alle Access-Tokens eines Benutzers als widerrufen
      */
     public void revokeAllUserAccessTokens(User user) {
+        denyAll(tokenRepository.findAllValidAccessTokensByUser(user, LocalDateTime.now()));
         tokenRepository.revokeAllUserAccessTokens(user);
     }
 
@@ -84,9 +100,17 @@ public class TokenService {
      * Markiert alle Refresh-Tokens eines Benutzers als widerrufen
      */
     public void revokeAllUserRefreshTokens(User user) {
+        denyAll(tokenRepository.findAllValidRefreshTokensByUser(user, LocalDateTime.now()));
         tokenRepository.revokeAllUserRefreshTokens(user);
     }
 
+    /**
+     * Trägt Tokens in die Sperrliste ein, die der Filter statt der Datenbank prüft
+     */
+    private void denyAll(List<Token> tokens) {
+        tokens.forEach(token -> tokenDenyList.denyHash(token.getTokenHash(), token.getExpiresAt()));
+    }
+
     /**
      * Findet alle gültigen Tokens eines Benutzers
      */
@@ -169,7 +193,10 @@ public class TokenService {
             validTokens.stream()
                     .sorted((t1, t2) -> t1.getCreatedAt().compareTo(t2.getCreatedAt()))
                     .limit(currentTokens - maxTokens + 1)
-                    .forEach(token -> tokenRepository.revokeToken(token.getToken()));
+                    .forEach(token -> {
+                        tokenDenyList.denyHash(token.getTokenHash(), token.getExpiresAt());
+                        tokenRepository.revokeToken(token.getTokenHash());
+                    });
         }
     }
 } 
\ No newline at end of file
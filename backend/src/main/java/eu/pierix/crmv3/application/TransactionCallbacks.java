@@ -0,0 +1,31 @@
+package eu.pierix.crmv3.application;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hilfsmethoden für Aktionen, die erst nach erfolgreichem Commit ausgeführt werden dürfen
+ * (z.B. Aktualisierung von In-Memory-Strukturen nach Schreibzugriffen)
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Führt die Aktion nach dem Commit der aktuellen Transaktion aus.
+     * Ohne aktive Transaktion wird die Aktion sofort ausgeführt, bei Rollback gar nicht.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.domain.UserPrincipal;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Begrenzter Cache der Benutzer für die Authentifizierung je Request.
+ *
+ * Der JwtAuthenticationFilter lädt den Benutzer eines Tokens hier statt je Request aus der Tabelle users.
+ * Gecacht wird ein unveränderlicher {@link UserPrincipal}, keine User-Entity: parallele Requests teilen sich
+ * so keinen veränderbaren Stand, der versehentlich geändert oder über save() zurückgeschrieben werden könnte.
+ * Einträge gelten security.user-cache.ttl lang; Änderungen an Rolle, Aktivierung, Passwort oder das Löschen
+ * eines Benutzers entfernen den Eintrag sofort und nochmals nach dem Commit ({@link #invalidate(User)}),
+ * sodass z.B. ein deaktivierter Benutzer nicht bis zum Ablauf der TTL angemeldet bleibt.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserDetailsCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${security.user-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.user-cache.ttl:PT60S}")
+    private Duration ttl;
+
+    @Value("${security.user-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Wird bei jeder Invalidierung erhöht; während einer Invalidierung geladene Benutzer werden nicht gecacht
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Liefert den Stand des Benutzers aus dem Cache bzw. lädt ihn bei Bedarf aus der Datenbank
+     */
+    public UserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (!enabled) {
+            return load(username);
+        }
+
+        long now = System.nanoTime();
+        Entry entry = entries.get(username);
+        if (entry != null && now - entry.loadedAt() < ttl.toNanos()) {
+            hits.increment();
+            return entry.principal();
+        }
+
+        misses.increment();
+        long loadedGeneration = generation.get();
+        UserPrincipal principal = load(username);
+        if (entries.size() >= maxEntries && !entries.containsKey(username)) {
+            evictExpired(now);
+        }
+        if (entries.size() < maxEntries || entries.containsKey(username)) {
+            Entry loaded = new Entry(principal, now);
+            entries.put(username, loaded);
+            // Eine Invalidierung während des Ladens macht den geladenen Stand sofort wieder ungültig
+            if (generation.get() != loadedGeneration) {
+                entries.remove(username, loaded);
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Entfernt einen Benutzer aus dem Cache, sofort und nochmals nach dem Commit der aktuellen Transaktion
+     * (sonst könnte ein paralleler Request den noch nicht committeten alten Stand erneut cachen)
+     */
+    public void invalidate(User user) {
+        if (!enabled || user == null) {
+            return;
+        }
+        remove(user);
+        TransactionCallbacks.afterCommit(() -> remove(user));
+    }
+
+    /**
+     * Liefert Treffer, Fehlschläge und Größe des Caches seit dem Start
+     */
+    public UserCacheStats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new UserCacheStats(
+                hitCount,
+                missCount,
+                requests > 0 ? (double) hitCount / requests : 0.0,
+                invalidations.sum(),
+                evictions.sum(),
+                entries.size());
+    }
+
+    private UserPrincipal load(String username) {
+        return userRepository.findByUsername(username)
+                .map(UserPrincipal::from)
+                .orElseThrow(() -> new UsernameNotFoundException("Benutzer nicht gefunden: " + username));
+    }
+
+    private void remove(User user) {
+        generation.incrementAndGet();
+        // Auch über die ID, falls der Benutzername geändert wurde
+        boolean removed = entries.remove(user.getUsername()) != null;
+        if (user.getId() != null) {
+            removed |= entries.values().removeIf(entry -> user.getId().equals(entry.principal().id()));
+        }
+        if (removed) {
+            invalidations.increment();
+            log.debug("Benutzer {} aus dem Cache entfernt", user.getUsername());
+        }
+    }
+
+    private void evictExpired(long now) {
+        int before = entries.size();
+        entries.values().removeIf(entry -> now - entry.loadedAt() >= ttl.toNanos());
+        evictions.add(Math.max(0, before - entries.size()));
+    }
+
+    private record Entry(UserPrincipal principal, long loadedAt) {
+    }
+
+    /**
+     * Kennzahlen des Benutzer-Caches
+     *
+     * @param hitRatio Anteil der Anfragen, die ohne Datenbankzugriff beantwortet wurden
+     * @param evictions Wegen Platzmangels entfernte abgelaufene Einträge
+     */
+    public record UserCacheStats(
+            long hits,
+            long misses,
+            double hitRatio,
+            long invalidations,
+            long evictions,
+            int size) {
+    }
+}
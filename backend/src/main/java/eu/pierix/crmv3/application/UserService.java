@@ -7,6 +7,7 @@ import eu.pierix.crmv3.web.dto.RegisterRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -29,6 +30,7 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
+    private final UserDetailsCache userDetailsCache;
 
     /**
      * Lädt einen Benutzer für Spring Security
@@ -73,16 +75,21 @@ public class UserService implements UserDetailsService {
      */
     public User authenticateUser(String username, String password) {
         // Authentifizierung über Spring Security
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(username, password)
         );
 
-        // Benutzer finden und lastLogin aktualisieren
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Benutzer nicht gefunden: " + username));
+        // Benutzer übernehmen (bereits bei der Authentifizierung geladen) und nur lastLogin aktualisieren;
+        // save(user) würde alle Spalten mit dem vor der Passwortprüfung geladenen Stand zurückschreiben
+        User user = authentication.getPrincipal() instanceof User principal
+                ? principal
+                : userRepository.findByUsername(username)
+                        .orElseThrow(() -> new UsernameNotFoundException("Benutzer nicht gefunden: " + username));
 
-        user.setLastLogin(LocalDateTime.now());
-        return userRepository.save(user);
+        LocalDateTime lastLogin = LocalDateTime.now();
+        userRepository.updateLastLogin(user.getId(), lastLogin);
+        user.setLastLogin(lastLogin);
+        return user;
     }
 
     /**
@@ -124,11 +131,12 @@ public class UserService implements UserDetailsService {
      * Aktualisiert einen Benutzer
      */
     public User updateUser(User user) {
+        userDetailsCache.invalidate(user);
         return userRepository.save(user);
     }
 
     /**
-     * Ändert das Passwort eines Benutzers
+     * Ändert das Passwort eines Benutzers und macht seine bisherigen Tokens ungültig
      */
     public void changePassword(Long userId, String newPassword) {
         User user = userRepository.findById(userId)
@@ -136,10 +144,12 @@ public class UserService implements UserDetailsService {
         
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userRepository.incrementTokenVersion(userId);
+        userDetailsCache.invalidate(user);
     }
 
     /**
-     * Aktiviert oder deaktiviert einen Benutzer
+     * Aktiviert oder deaktiviert einen Benutzer (Deaktivieren macht seine bisherigen Tokens ungültig)
      */
     public void setUserEnabled(Long userId, boolean enabled) {
         User user = userRepository.findById(userId)
@@ -147,10 +157,14 @@ public class UserService implements UserDetailsService {
         
         user.setEnabled(enabled);
         userRepository.save(user);
+        if (!enabled) {
+            userRepository.incrementTokenVersion(userId);
+        }
+        userDetailsCache.invalidate(user);
     }
 
     /**
-     * Ändert die Rolle eines Benutzers
+     * Ändert die Rolle eines Benutzers und macht seine bisherigen Tokens ungültig
      */
     public void changeUserRole(Long userId, Role role) {
         User user = userRepository.findById(userId)
@@ -158,12 +172,15 @@ public class UserService implements UserDetailsService {
         
         user.setRole(role);
         userRepository.save(user);
+        userRepository.incrementTokenVersion(userId);
+        userDetailsCache.invalidate(user);
     }
 
     /**
      * Löscht einen Benutzer
      */
     public void deleteUser(Long userId) {
+        userRepository.findById(userId).ifPresent(userDetailsCache::invalidate);
         userRepository.deleteById(userId);
     }
 
@@ -7,23 +7,50 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Customer-Entity für die Kundenverwaltung
  */
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        // Keyset-Paginierung: Sortierspalte + ID als eindeutiger Tiebreaker
+        @Index(name = "idx_customers_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_customers_last_name_id", columnList = "last_name, id"),
+        // Sortierte Kundensuche
+        @Index(name = "idx_customers_company_name_id", columnList = "company_name, id"),
+        @Index(name = "idx_customers_last_contact_id", columnList = "last_contact, id"),
+        @Index(name = "idx_customers_status_id", columnList = "status, id"),
+        // Spalten des Pipeline-Boards: Status + Keyset-Sortierung
+        @Index(name = "idx_customers_status_created_at_id", columnList = "status, created_at, id"),
+        // Inkrementelle Statistik-Verdichtung (Änderungen seit dem Watermark)
+        @Index(name = "idx_customers_updated_at", columnList = "updated_at")
+})
+// Listen-Endpunkte laden Ersteller und Zuständigen mit, statt sie je Zeile nachzuladen
+@NamedEntityGraph(name = Customer.WITH_USERS, attributeNodes = {
+        @NamedAttributeNode("createdBy"),
+        @NamedAttributeNode("assignedTo")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Customer {
 
+    /**
+     * Entity-Graph mit Ersteller und Zuständigem
+     */
+    public static final String WITH_USERS = "Customer.withUsers";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     // Kontaktdaten
@@ -110,6 +137,17 @@ public class Customer {
     @Column(name = "tags")
     private String tags; // Komma-getrennte Tags für Kategorisierung
 
+    // Normalisierte Tags (Tag-Verzeichnis + customer_tags), wird beim Speichern aus "tags" abgeleitet
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "customer_tags",
+            joinColumns = @JoinColumn(name = "customer_id"),
+            inverseJoinColumns = @JoinColumn(name = "tag_id"),
+            indexes = @Index(name = "idx_customer_tags_tag_customer", columnList = "tag_id, customer_id"))
+    @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<Tag> tagSet = new HashSet<>();
+
     // Notizen und zusätzliche Informationen
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
@@ -0,0 +1,58 @@
+package eu.pierix.crmv3.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity für das Protokoll der Statuswechsel von Kunden (customer_status_transitions).
+ *
+ * Das Protokoll wird nur fortgeschrieben, nie geändert. Die Kunden-ID wird ohne Fremdschlüssel gespeichert,
+ * damit die Historie auch nach dem Löschen eines Kunden für Auswertungen erhalten bleibt. Die Verweildauer
+ * im vorherigen Status wird beim Schreiben berechnet, damit Auswertungen ohne Window-Funktionen auskommen.
+ */
+@Entity
+@Table(name = "customer_status_transitions", indexes = {
+        // Historie eines Kunden und Eintrittszeit in den aktuellen Status
+        @Index(name = "idx_status_transitions_customer_changed_at", columnList = "customer_id, changed_at"),
+        // Auswertungen über einen Zeitraum
+        @Index(name = "idx_status_transitions_changed_at", columnList = "changed_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerStatusTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_status_transitions_seq")
+    @SequenceGenerator(name = "customer_status_transitions_seq", sequenceName = "customer_status_transitions_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    // Null bei der Anlage des Kunden
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status")
+    private CustomerStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false)
+    private CustomerStatus toStatus;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // Benutzername des auslösenden Benutzers, null bei Änderungen ohne Anmeldung (z.B. Jobs)
+    @Column(name = "changed_by", length = 100)
+    private String changedBy;
+
+    // Verweildauer in from_status, null wenn der Eintritt in den Status nicht protokolliert ist
+    @Column(name = "stage_duration_seconds")
+    private Long stageDurationSeconds;
+}
@@ -0,0 +1,60 @@
+package eu.pierix.crmv3.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entity für die tägliche Statistik-Verdichtung (daily_stats).
+ *
+ * Eine Zeile fasst entweder Kunden (customer_status/lead_source gesetzt, offer_status leer) oder
+ * Angebote (offer_status gesetzt) eines Erstellungstages zusammen. Die Zeilen werden vom
+ * DailyStatsRollup je Tag vollständig neu berechnet und nie einzeln fortgeschrieben.
+ */
+@Entity
+@Table(name = "daily_stats", indexes = {
+        @Index(name = "idx_daily_stats_date", columnList = "stat_date")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_stats_seq")
+    @SequenceGenerator(name = "daily_stats_seq", sequenceName = "daily_stats_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "customer_status")
+    private CustomerStatus customerStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "lead_source")
+    private LeadSource leadSource;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "offer_status")
+    private OfferStatus offerStatus;
+
+    @Column(name = "customer_count", nullable = false)
+    @Builder.Default
+    private Long customerCount = 0L;
+
+    @Column(name = "offer_count", nullable = false)
+    @Builder.Default
+    private Long offerCount = 0L;
+
+    @Column(name = "revenue", precision = 14, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
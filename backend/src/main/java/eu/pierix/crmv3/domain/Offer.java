@@ -17,7 +17,12 @@ import java.util.List;
  * Entity für Angebote
  */
 @Entity
-@Table(name = "offers")
+@Table(name = "offers", indexes = {
+        // Keyset-Paginierung: Sortierspalte + ID als eindeutiger Tiebreaker
+        @Index(name = "idx_offers_created_at_id", columnList = "created_at, id"),
+        // Inkrementelle Statistik-Verdichtung (Änderungen seit dem Watermark)
+        @Index(name = "idx_offers_updated_at", columnList = "updated_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -25,7 +30,8 @@ import java.util.List;
 public class Offer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "offers_seq")
+    @SequenceGenerator(name = "offers_seq", sequenceName = "offers_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "offer_number", unique = true, nullable = false)
@@ -21,7 +21,8 @@ import java.math.RoundingMode;
 public class OfferItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "offer_items_seq")
+    @SequenceGenerator(name = "offer_items_seq", sequenceName = "offer_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "description", nullable = false)
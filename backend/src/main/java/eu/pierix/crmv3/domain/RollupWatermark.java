@@ -0,0 +1,28 @@
+package eu.pierix.crmv3.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity für den Fortschritt inkrementeller Verdichtungs-Jobs (Zeitpunkt des letzten erfolgreichen Laufs)
+ */
+@Entity
+@Table(name = "rollup_watermarks")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupWatermark {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "watermark", nullable = false)
+    private LocalDateTime watermark;
+}
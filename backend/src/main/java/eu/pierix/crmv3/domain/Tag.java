@@ -0,0 +1,75 @@
+package eu.pierix.crmv3.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Entity für das Tag-Verzeichnis der Kunden.
+ *
+ * Tags werden über den normalisierten Namen (getrimmt, kleingeschrieben) eindeutig identifiziert,
+ * der Anzeigename entspricht der ersten Schreibweise, in der der Tag angelegt wurde.
+ */
+@Entity
+@Table(name = "tags", indexes = {
+        @Index(name = "idx_tags_normalized_name", columnList = "normalized_name", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tags_seq")
+    @SequenceGenerator(name = "tags_seq", sequenceName = "tags_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "normalized_name", nullable = false, length = 100)
+    private String normalizedName;
+
+    /**
+     * Normalisiert einen Tag-Namen für Vergleiche und Suche
+     */
+    public static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Zerlegt eine komma-getrennte Tag-Liste in normalisierter Name -> Anzeigename (ohne Duplikate und Leerwerte)
+     */
+    public static Map<String, String> parse(String tags) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        if (tags == null || tags.isBlank()) {
+            return parsed;
+        }
+        for (String tag : tags.split(",")) {
+            String display = tag.trim();
+            if (!display.isEmpty()) {
+                parsed.putIfAbsent(normalize(display), display);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Normalisiert eine Liste von Tag-Namen (ohne Duplikate und Leerwerte)
+     */
+    public static List<String> normalizeAll(List<String> names) {
+        return names.stream()
+                .map(Tag::normalize)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
@@ -9,10 +9,15 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 /**
- * Entity für JWT-Token-Verwaltung
+ * Entity für JWT-Token-Verwaltung.
+ *
+ * Gespeichert wird nicht der Token selbst, sondern sein SHA-256-Hash als Suchschlüssel fester Länge
+ * (siehe JwtService#tokenHash) sowie die Token-ID (Claim jti).
  */
 @Entity
-@Table(name = "tokens")
+@Table(name = "tokens", indexes = {
+        @Index(name = "uk_tokens_token_hash", columnList = "token_hash", unique = true)
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,11 +25,18 @@ import java.time.LocalDateTime;
 public class Token {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tokens_seq")
+    @SequenceGenerator(name = "tokens_seq", sequenceName = "tokens_seq", allocationSize = 50)
     private Long id;
 
-    @Column(unique = true, nullable = false)
-    private String token;
+    @Column(name = "token_hash", nullable = false, length = 43)
+    private String tokenHash;
+
+    /**
+     * Token-ID (Claim jti); null bei Tokens, die vor Einführung der ID ausgegeben wurden
+     */
+    @Column(length = 36)
+    private String jti;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -28,7 +29,8 @@ import java.util.List;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Username ist erforderlich")
@@ -86,6 +88,17 @@ public class User implements UserDetails {
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
 
+    /**
+     * Version der ausgegebenen Tokens; jeder Token trägt sie als Claim. Erhöhen macht alle bisher
+     * ausgegebenen Tokens des Benutzers auf einmal ungültig. Wird nie über save() geschrieben, sondern nur
+     * atomar über UserRepository.incrementTokenVersion, damit ein paralleles Speichern des Benutzers mit altem
+     * Stand eine Erhöhung nicht rückgängig machen kann.
+     */
+    @Column(name = "token_version", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long tokenVersion = 0;
+
     // Spring Security UserDetails Implementation
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -0,0 +1,83 @@
+package eu.pierix.crmv3.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Unveränderlicher Stand eines {@link User} als Principal im Security Context.
+ *
+ * Enthält nur die für Authentifizierung und Token-Prüfung nötigen Angaben und keine JPA-Entity, sodass
+ * parallele Requests denselben Stand nutzen können, ohne ihn zu verändern oder zurückzuspeichern.
+ */
+public record UserPrincipal(
+        Long id,
+        String username,
+        String password,
+        Role role,
+        boolean enabled,
+        boolean accountNonExpired,
+        boolean accountNonLocked,
+        boolean credentialsNonExpired,
+        long tokenVersion) implements UserDetails {
+
+    /**
+     * Übernimmt den aktuellen Stand eines Benutzers
+     */
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getRole(),
+                user.isEnabled(),
+                user.isAccountNonExpired(),
+                user.isAccountNonLocked(),
+                user.isCredentialsNonExpired(),
+                user.getTokenVersion());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return accountNonExpired;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return accountNonLocked;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return credentialsNonExpired;
+    }
+
+    @Override
+    public String toString() {
+        // Ohne Passwort-Hash, falls der Principal geloggt wird
+        return "UserPrincipal[id=" + id + ", username=" + username + ", role=" + role + "]";
+    }
+}
@@ -5,48 +5,93 @@ import eu.pierix.crmv3.domain.CustomerStatus;
 import eu.pierix.crmv3.domain.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository für Customer-Entity mit Spring Data JPA
  */
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerSearchRepository {
 
     // Grundlegende Suchmethoden
     /**
-     * Findet Kunden anhand von Vor- oder Nachname (Case-insensitive)
+     * Findet Kunden anhand von Vor- oder Nachname (Case-insensitive, nutzt die Trigram-Indizes auf PostgreSQL).
+     * Läuft über {@link CustomerSearchRepository#searchByCriteria}, damit '%', '_' und Backslash aus der Eingabe
+     * wörtlich gesucht werden.
+     */
+    default List<Customer> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String name) {
+        return searchByCriteria(name, null, null, null, null, Pageable.unpaged()).getContent();
+    }
+
+    /**
+     * Findet Kunden anhand der Email (Case-insensitive, nutzt den Trigram-Index auf PostgreSQL)
+     */
+    default List<Customer> findByEmailContainingIgnoreCase(String email) {
+        return searchByCriteria(null, email, null, null, null, Pageable.unpaged()).getContent();
+    }
+
+    /**
+     * Prüft exakt (Case-insensitive) auf eine vorhandene Email, nutzt den Index auf lower(email).
+     * Beide Seiten werden von der Datenbank klein geschrieben, damit auch Umlaute gleich behandelt werden.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM customers c WHERE lower(c.email) = lower(:normalizedEmail))", nativeQuery = true)
+    boolean existsByNormalizedEmail(@Param("normalizedEmail") String normalizedEmail);
+
+    /**
+     * Findet Kunden anhand des Firmennamens (Case-insensitive, nutzt den Trigram-Index auf PostgreSQL)
      */
-    @Query(value = "SELECT * FROM customers c WHERE c.first_name ILIKE CONCAT('%', :name, '%') OR c.last_name ILIKE CONCAT('%', :name, '%')", nativeQuery = true)
-    List<Customer> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(@Param("name") String name);
+    default List<Customer> findByCompanyNameContainingIgnoreCase(String companyName) {
+        return searchByCriteria(null, null, companyName, null, null, Pageable.unpaged()).getContent();
+    }
 
     /**
-     * Findet Kunden anhand der Email (Case-insensitive)
+     * Findet Kunden anhand der Stadt (Case-insensitive, nutzt den Trigram-Index auf PostgreSQL)
      */
-    List<Customer> findByEmailContainingIgnoreCase(String email);
+    default List<Customer> findByCityContainingIgnoreCase(String city) {
+        return searchByCriteria(null, null, null, city, null, Pageable.unpaged()).getContent();
+    }
 
     /**
-     * Findet Kunden anhand des Firmennamens (Case-insensitive)
+     * Findet einen Kunden inklusive Ersteller und Zuständigem
      */
-    List<Customer> findByCompanyNameContainingIgnoreCase(String companyName);
+    @Override
+    @EntityGraph(Customer.WITH_USERS)
+    Optional<Customer> findById(Long id);
 
     /**
-     * Findet Kunden anhand der Stadt (Case-insensitive)
+     * Findet Kunden seitenweise inklusive Ersteller und Zuständigem (eine Query plus COUNT)
      */
-    List<Customer> findByCityContainingIgnoreCase(String city);
+    @Override
+    @EntityGraph(Customer.WITH_USERS)
+    Page<Customer> findAll(Pageable pageable);
 
     // Status-basierte Methoden
     /**
-     * Findet alle Kunden mit einem bestimmten Status
+     * Findet alle Kunden mit einem bestimmten Status inklusive Ersteller und Zuständigem
      */
+    @EntityGraph(Customer.WITH_USERS)
     List<Customer> findByStatus(CustomerStatus status);
 
+    /**
+     * Findet alle Kunden mit einem der Status inklusive Ersteller und Zuständigem
+     */
+    @EntityGraph(Customer.WITH_USERS)
+    List<Customer> findByStatusIn(Collection<CustomerStatus> statuses);
+
     /**
      * Zählt Kunden nach Status
      */
@@ -71,8 +116,9 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     // Zugewiesene Kunden
     /**
-     * Findet alle Kunden die einem bestimmten Benutzer zugewiesen sind
+     * Findet alle Kunden die einem bestimmten Benutzer zugewiesen sind inklusive Ersteller und Zuständigem
      */
+    @EntityGraph(Customer.WITH_USERS)
     List<Customer> findByAssignedTo(User assignedTo);
 
     /**
@@ -83,7 +129,10 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     // Komplexe Suchmethoden
     /**
      * Findet Kunden anhand mehrerer Kriterien
+     * @deprecated Die "(:param IS NULL OR ...)"-Bedingungen verhindern die Nutzung der Trigram-Indizes,
+     * stattdessen {@link CustomerSearchRepository#searchByCriteria} verwenden
      */
+    @Deprecated
     @Query(value = "SELECT * FROM customers c WHERE " +
            "(:name IS NULL OR (c.first_name ILIKE CONCAT('%', :name, '%') OR c.last_name ILIKE CONCAT('%', :name, '%'))) AND " +
            "(:email IS NULL OR c.email ILIKE CONCAT('%', :email, '%')) AND " +
@@ -110,15 +159,71 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     /**
      * Findet Kunden anhand von Tags
+     * @deprecated Teilstring-Suche über die Tag-Spalte (Full Scan, "Growth" trifft auch "Hypergrowth");
+     * stattdessen {@link #findByAnyTag} bzw. {@link #findByAllTags} verwenden
      */
+    @Deprecated
     @Query(value = "SELECT * FROM customers c WHERE c.tags ILIKE CONCAT('%', :tag, '%')", nativeQuery = true)
     List<Customer> findByTag(@Param("tag") String tag);
 
+    /**
+     * Findet Kunden, die mindestens einen der Tags haben (normalisierte Namen)
+     */
+    @Query(value = "SELECT c.* FROM customers c WHERE c.id IN (" +
+                   "SELECT ct.customer_id FROM customer_tags ct JOIN tags t ON t.id = ct.tag_id " +
+                   "WHERE t.normalized_name IN (:tags)) ORDER BY c.id",
+           countQuery = "SELECT COUNT(DISTINCT ct.customer_id) FROM customer_tags ct JOIN tags t ON t.id = ct.tag_id " +
+                        "WHERE t.normalized_name IN (:tags)",
+           nativeQuery = true)
+    Page<Customer> findByAnyTag(@Param("tags") Collection<String> normalizedTags, Pageable pageable);
+
+    /**
+     * Findet Kunden, die alle Tags haben (normalisierte Namen, tagCount = Anzahl der unterschiedlichen Tags)
+     */
+    @Query(value = "SELECT c.* FROM customers c WHERE c.id IN (" +
+                   "SELECT ct.customer_id FROM customer_tags ct JOIN tags t ON t.id = ct.tag_id " +
+                   "WHERE t.normalized_name IN (:tags) GROUP BY ct.customer_id HAVING COUNT(*) = :tagCount) ORDER BY c.id",
+           countQuery = "SELECT COUNT(*) FROM (SELECT ct.customer_id FROM customer_tags ct JOIN tags t ON t.id = ct.tag_id " +
+                        "WHERE t.normalized_name IN (:tags) GROUP BY ct.customer_id HAVING COUNT(*) = :tagCount) matches",
+           nativeQuery = true)
+    Page<Customer> findByAllTags(@Param("tags") Collection<String> normalizedTags, @Param("tagCount") long tagCount, Pageable pageable);
+
+    /**
+     * Findet IDs von Kunden mit gepflegter Tag-Spalte, aber ohne normalisierte Tags (für die Migration)
+     */
+    @Query("SELECT c.id FROM Customer c WHERE c.id > :afterId AND c.tags IS NOT NULL AND c.tags <> '' AND c.tagSet IS EMPTY ORDER BY c.id")
+    List<Long> findIdsWithUnmigratedTags(@Param("afterId") Long afterId, Pageable pageable);
+
     /**
      * Findet Kunden anhand der Quelle
      */
     List<Customer> findBySource(String source);
 
+    // Methoden für den In-Memory-Suchindex
+    /**
+     * Liefert die kleinste Kunden-ID
+     */
+    @Query("SELECT MIN(c.id) FROM Customer c")
+    Long findMinId();
+
+    /**
+     * Liefert die größte Kunden-ID
+     */
+    @Query("SELECT MAX(c.id) FROM Customer c")
+    Long findMaxId();
+
+    /**
+     * Lädt die durchsuchbaren Felder (ID, Vorname, Nachname, Email, Firma, Stadt) eines ID-Bereichs
+     */
+    @Query("SELECT c.id, c.firstName, c.lastName, c.email, c.companyName, c.city FROM Customer c WHERE c.id BETWEEN :fromId AND :toId")
+    List<Object[]> findSearchFieldsByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Lädt die kleingeschriebenen Emails eines ID-Bereichs (für den Email-Filter)
+     */
+    @Query("SELECT LOWER(c.email) FROM Customer c WHERE c.id BETWEEN :fromId AND :toId AND c.email IS NOT NULL")
+    List<String> findNormalizedEmailsByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
     // Statistik-Methoden
     /**
      * Zählt Kunden nach Status gruppiert
@@ -140,22 +245,81 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     // Statistik-Methoden für StatisticsService
     /**
-     * Zählt Kunden mit einem der angegebenen Status
+     * Zählt Kunden gruppiert nach Status und LeadSource (Basis aller Dashboard-Kennzahlen zu Kunden)
+     */
+    @Query("SELECT c.status, c.leadSource, COUNT(c) FROM Customer c GROUP BY c.status, c.leadSource")
+    List<Object[]> countByStatusAndLeadSourceGrouped();
+
+    /**
+     * Zählt Kunden mit einem der angegebenen Status ab einem Zeitpunkt, gruppiert nach Jahr, Monat und Status
+     */
+    @Query("SELECT YEAR(c.createdAt), MONTH(c.createdAt), c.status, COUNT(c) FROM Customer c " +
+           "WHERE c.status IN :statuses AND c.createdAt >= :from " +
+           "GROUP BY YEAR(c.createdAt), MONTH(c.createdAt), c.status")
+    List<Object[]> countByMonthAndStatusGrouped(@Param("statuses") Collection<CustomerStatus> statuses,
+                                                @Param("from") LocalDateTime from);
+
+    /**
+     * Zählt im Zeitraum [from, to) angelegte Kunden je Tag, aufsteigend sortiert: alle, davon mit Status won, davon mit Status lost.
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT YEAR(c.createdAt), MONTH(c.createdAt), DAY(c.createdAt), COUNT(c), " +
+           "SUM(CASE WHEN c.status = :won THEN 1 ELSE 0 END), SUM(CASE WHEN c.status = :lost THEN 1 ELSE 0 END) " +
+           "FROM Customer c WHERE c.createdAt >= :from AND c.createdAt < :to " +
+           "GROUP BY YEAR(c.createdAt), MONTH(c.createdAt), DAY(c.createdAt) " +
+           "ORDER BY YEAR(c.createdAt), MONTH(c.createdAt), DAY(c.createdAt)")
+    Stream<Object[]> streamCountByDay(@Param("won") CustomerStatus won,
+                                      @Param("lost") CustomerStatus lost,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    /**
+     * Zählt im Zeitraum [from, to) angelegte Kunden je Monat, aufsteigend sortiert: alle, davon mit Status won, davon mit Status lost.
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT YEAR(c.createdAt), MONTH(c.createdAt), COUNT(c), " +
+           "SUM(CASE WHEN c.status = :won THEN 1 ELSE 0 END), SUM(CASE WHEN c.status = :lost THEN 1 ELSE 0 END) " +
+           "FROM Customer c WHERE c.createdAt >= :from AND c.createdAt < :to " +
+           "GROUP BY YEAR(c.createdAt), MONTH(c.createdAt) " +
+           "ORDER BY YEAR(c.createdAt), MONTH(c.createdAt)")
+    Stream<Object[]> streamCountByMonth(@Param("won") CustomerStatus won,
+                                        @Param("lost") CustomerStatus lost,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+    // Methoden für die tägliche Statistik-Verdichtung
+    /**
+     * Zählt im Zeitraum [from, to) angelegte Kunden gruppiert nach Erstellungstag, Status und LeadSource
      */
-    long countByStatusIn(List<CustomerStatus> statuses);
+    @Query("SELECT YEAR(c.createdAt), MONTH(c.createdAt), DAY(c.createdAt), c.status, c.leadSource, COUNT(c) FROM Customer c " +
+           "WHERE c.createdAt >= :from AND c.createdAt < :to " +
+           "GROUP BY YEAR(c.createdAt), MONTH(c.createdAt), DAY(c.createdAt), c.status, c.leadSource")
+    List<Object[]> countByDayStatusAndLeadSource(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     /**
-     * Zählt Kunden nach LeadSource
+     * Liefert die Erstellungstage (Jahr, Monat, Tag) der seit einem Zeitpunkt angelegten oder geänderten Kunden
      */
-    long countByLeadSource(eu.pierix.crmv3.domain.LeadSource leadSource);
+    @Query("SELECT DISTINCT YEAR(c.createdAt), MONTH(c.createdAt), DAY(c.createdAt) FROM Customer c " +
+           "WHERE c.createdAt > :since OR c.updatedAt > :since")
+    List<Object[]> findCreatedDaysChangedSince(@Param("since") LocalDateTime since);
 
     /**
-     * Zählt gewonnene Kunden nach LeadSource
+     * Liefert den Erstellungszeitpunkt des ältesten Kunden
      */
-    long countByLeadSourceAndStatus(eu.pierix.crmv3.domain.LeadSource leadSource, CustomerStatus status);
+    @Query("SELECT MIN(c.createdAt) FROM Customer c")
+    LocalDateTime findMinCreatedAt();
 
+    // Export
     /**
-     * Zählt Kunden nach Status und Erstellungsdatum
+     * Liefert alle Kunden als vorwärtsgerichteten Stream (serverseitiger Cursor mit Fetch-Size).
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
      */
-    long countByStatusAndCreatedAtBetween(CustomerStatus status, LocalDateTime startDate, LocalDateTime endDate);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Customer c LEFT JOIN FETCH c.createdBy LEFT JOIN FETCH c.assignedTo ORDER BY c.id")
+    Stream<Customer> streamAllForExport();
 } 
\ No newline at end of file
@@ -0,0 +1,44 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Repository-Fragment für die indexgestützte Kundensuche
+ */
+public interface CustomerSearchRepository {
+
+    /**
+     * Findet Kunden anhand mehrerer Kriterien.
+     * Es werden nur die gesetzten Kriterien in die Query übernommen, damit PostgreSQL
+     * die Trigram-Indizes (pg_trgm) für die Teilstring-Suche verwenden kann.
+     */
+    Page<Customer> searchByCriteria(String name, String email, String company, String city,
+                                    CustomerStatus status, Pageable pageable);
+
+    /**
+     * Findet Kunden anhand mehrerer Kriterien mit Keyset-Paginierung.
+     * Statt OFFSET wird ab (Sortierwert, ID) des Cursors gelesen; COUNT nur auf Anfrage.
+     */
+    KeysetPage<Customer> searchByCriteria(String name, String email, String company, String city,
+                                          CustomerStatus status, KeysetPageRequest pageRequest);
+
+    /**
+     * Liefert die erste Keyset-Seite je Status (z.B. für die Spalten des Pipeline-Boards).
+     * Jede Spalte wird über eine eigene Seek-Query gelesen, Ersteller und Zuständige aller Spalten
+     * gemeinsam mit einer Query nachgeladen.
+     */
+    Map<CustomerStatus, KeysetPage<Customer>> findFirstPagesByStatus(Collection<CustomerStatus> statuses,
+                                                                     KeysetPageRequest pageRequest);
+
+    /**
+     * Initialisiert Ersteller und Zuständigen der Kunden mit einer einzigen Query,
+     * damit sie auch nach Ende der Transaktion (ohne Open-in-View) lesbar sind
+     */
+    void fetchUsers(Collection<Customer> customers);
+}
@@ -0,0 +1,282 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Query;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Implementierung der Kundensuche mit dynamisch aufgebauter Native Query.
+ *
+ * Im Gegensatz zu {@link CustomerRepository#findBySearchCriteria} enthält die Query keine
+ * "(:param IS NULL OR ...)"-Konstrukte, die den Planner zu einem Sequential Scan zwingen.
+ * Auf PostgreSQL werden die ILIKE-Bedingungen über die GIN-Trigram-Indizes aus dem
+ * {@link DatabaseIndexInitializer} beantwortet, auf H2 (Test-Profil) läuft dieselbe Query ohne Index.
+ */
+public class CustomerSearchRepositoryImpl implements CustomerSearchRepository {
+
+    private static final String LIKE_ESCAPE = " ESCAPE '\\'";
+
+    /**
+     * Für die Keyset-Paginierung zulässige Sortierfelder (nicht-nullbare Spalten mit Index auf (Spalte, id))
+     */
+    private static final Map<String, KeysetColumn> KEYSET_COLUMNS = Map.of(
+            "createdAt", new KeysetColumn("created_at", Customer::getCreatedAt, LocalDateTime::parse),
+            "lastName", new KeysetColumn("last_name", Customer::getLastName, value -> value),
+            "id", new KeysetColumn("id", Customer::getId, Long::valueOf)
+    );
+
+    /**
+     * Für die Sortierung der Suche zulässige Felder (Property -> Spalte), jeweils mit Index auf (Spalte, id)
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "lastName", "last_name",
+            "companyName", "company_name",
+            "createdAt", "created_at",
+            "lastContact", "last_contact",
+            "status", "status",
+            "id", "id"
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<Customer> searchByCriteria(String name, String email, String company, String city,
+                                           CustomerStatus status, Pageable pageable) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String whereClause = buildWhereClause(name, email, company, city, status, parameters);
+
+        Query query = entityManager.createNativeQuery(
+                "SELECT c.* FROM customers c" + whereClause + buildOrderBy(pageable.getSort()), Customer.class);
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Customer> content = query.getResultList();
+        fetchUsers(content);
+
+        // COUNT nur ausführen, wenn sich die Gesamtanzahl nicht aus der Seite ableiten lässt
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(whereClause, parameters));
+    }
+
+    @Override
+    public KeysetPage<Customer> searchByCriteria(String name, String email, String company, String city,
+                                                 CustomerStatus status, KeysetPageRequest pageRequest) {
+        KeysetColumn column = keysetColumn(pageRequest);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<String> conditions = buildConditions(name, email, company, city, status, parameters);
+
+        List<Customer> rows = seek(column, conditions, parameters, pageRequest);
+        fetchUsers(rows);
+
+        return toKeysetPage(rows, column, pageRequest, () -> count(toWhereClause(conditions), parameters));
+    }
+
+    @Override
+    public Map<CustomerStatus, KeysetPage<Customer>> findFirstPagesByStatus(Collection<CustomerStatus> statuses,
+                                                                            KeysetPageRequest pageRequest) {
+        KeysetColumn column = keysetColumn(pageRequest);
+
+        // Je Status eine eigene Seek-Query, damit jede Spalte nur size + 1 Zeilen über den Index liest
+        Map<CustomerStatus, List<Customer>> rowsByStatus = new LinkedHashMap<>();
+        for (CustomerStatus status : statuses) {
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            List<String> conditions = buildConditions(null, null, null, null, status, parameters);
+            rowsByStatus.put(status, seek(column, conditions, parameters, pageRequest));
+        }
+        fetchUsers(rowsByStatus.values().stream().flatMap(List::stream).toList());
+
+        Map<CustomerStatus, KeysetPage<Customer>> pages = new LinkedHashMap<>();
+        rowsByStatus.forEach((status, rows) -> pages.put(status, toKeysetPage(rows, column, pageRequest,
+                () -> count(" WHERE c.status = :status", Map.of("status", status.name())))));
+        return pages;
+    }
+
+    private static KeysetColumn keysetColumn(KeysetPageRequest pageRequest) {
+        KeysetColumn column = KEYSET_COLUMNS.get(pageRequest.sortProperty());
+        if (column == null) {
+            throw new IllegalArgumentException("Sortierung nach '" + pageRequest.sortProperty()
+                    + "' wird für Cursor-Paginierung nicht unterstützt, erlaubt: " + KEYSET_COLUMNS.keySet());
+        }
+        return column;
+    }
+
+    /**
+     * Liest bis zu size + 1 Zeilen ab dem Cursor der Anfrage
+     */
+    @SuppressWarnings("unchecked")
+    private List<Customer> seek(KeysetColumn column, List<String> conditions, Map<String, Object> parameters,
+                                KeysetPageRequest pageRequest) {
+        // Seek-Bedingung: alles hinter (Sortierwert, ID) des letzten Elements der vorherigen Seite
+        List<String> seekConditions = new ArrayList<>(conditions);
+        Map<String, Object> seekParameters = new LinkedHashMap<>(parameters);
+        KeysetCursor cursor = pageRequest.decodedCursor();
+        String comparator = pageRequest.direction().isAscending() ? ">" : "<";
+        if (cursor != null) {
+            if ("id".equals(column.name())) {
+                seekConditions.add("c.id " + comparator + " :afterId");
+            } else {
+                seekConditions.add("(c." + column.name() + " " + comparator + " :afterValue OR (c." + column.name()
+                        + " = :afterValue AND c.id " + comparator + " :afterId))");
+                seekParameters.put("afterValue", cursor.parseSortValue(column.parser()));
+            }
+            seekParameters.put("afterId", cursor.id());
+        }
+
+        String direction = pageRequest.direction().isAscending() ? "ASC" : "DESC";
+        String orderBy = "id".equals(column.name())
+                ? " ORDER BY c.id " + direction
+                : " ORDER BY c." + column.name() + " " + direction + ", c.id " + direction;
+
+        Query query = entityManager.createNativeQuery(
+                "SELECT c.* FROM customers c" + toWhereClause(seekConditions) + orderBy, Customer.class);
+        seekParameters.forEach(query::setParameter);
+        query.setMaxResults(pageRequest.size() + 1);
+        return query.getResultList();
+    }
+
+    private static KeysetPage<Customer> toKeysetPage(List<Customer> rows, KeysetColumn column,
+                                                     KeysetPageRequest pageRequest, LongSupplier totalSupplier) {
+        return KeysetPage.of(rows, pageRequest,
+                last -> new KeysetCursor(pageRequest.sortProperty(), pageRequest.direction(), last.getId(),
+                        String.valueOf(column.extractor().apply(last))),
+                totalSupplier);
+    }
+
+    /**
+     * Übersetzt die Sortierung in eine ORDER BY-Klausel über die freigegebenen Spalten.
+     * Die ID wird immer als letztes Kriterium angehängt, damit die Seiten stabil sind.
+     */
+    private static String buildOrderBy(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        boolean sortedById = false;
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Sortierung nach '" + order.getProperty()
+                        + "' wird nicht unterstützt, erlaubt: " + SORT_COLUMNS.keySet());
+            }
+            orders.add("c." + column + (order.isAscending() ? " ASC" : " DESC"));
+            sortedById |= "id".equals(column);
+        }
+        if (!sortedById) {
+            Sort.Order last = sort.stream().reduce((first, second) -> second).orElse(Sort.Order.asc("id"));
+            orders.add("c.id" + (last.isAscending() ? " ASC" : " DESC"));
+        }
+        return " ORDER BY " + String.join(", ", orders);
+    }
+
+    /**
+     * Lädt Ersteller und Zuständige aller Kunden mit einer einzigen Query in den Persistence Context
+     * und initialisiert anschließend die Proxies aus diesem, ohne weitere SELECTs.
+     * Native Queries können keinen Entity-Graph verwenden; ohne Vorladen würde jeder Proxy beim ersten
+     * Zugriff (z.B. getFullName() im Controller) ein eigenes SELECT auslösen.
+     */
+    @Override
+    public void fetchUsers(Collection<Customer> customers) {
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<User> proxies = new ArrayList<>();
+        Set<Object> userIds = new HashSet<>();
+        for (Customer customer : customers) {
+            for (User user : new User[]{customer.getCreatedBy(), customer.getAssignedTo()}) {
+                if (user != null && !persistenceUnitUtil.isLoaded(user)) {
+                    proxies.add(user);
+                    // Liest die ID aus dem Proxy, ohne ihn zu initialisieren
+                    userIds.add(persistenceUnitUtil.getIdentifier(user));
+                }
+            }
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        entityManager.createQuery("SELECT u FROM User u WHERE u.id IN :ids", User.class)
+                .setParameter("ids", userIds)
+                .getResultList();
+        proxies.forEach(Hibernate::initialize);
+    }
+
+    private long count(String whereClause, Map<String, Object> parameters) {
+        Query countQuery = entityManager.createNativeQuery("SELECT COUNT(*) FROM customers c" + whereClause);
+        parameters.forEach(countQuery::setParameter);
+        return ((Number) countQuery.getSingleResult()).longValue();
+    }
+
+    private String buildWhereClause(String name, String email, String company, String city,
+                                    CustomerStatus status, Map<String, Object> parameters) {
+        return toWhereClause(buildConditions(name, email, company, city, status, parameters));
+    }
+
+    private List<String> buildConditions(String name, String email, String company, String city,
+                                         CustomerStatus status, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+
+        if (hasText(name)) {
+            conditions.add("(c.first_name ILIKE :name" + LIKE_ESCAPE + " OR c.last_name ILIKE :name" + LIKE_ESCAPE + ")");
+            parameters.put("name", containsPattern(name));
+        }
+        if (hasText(email)) {
+            conditions.add("c.email ILIKE :email" + LIKE_ESCAPE);
+            parameters.put("email", containsPattern(email));
+        }
+        if (hasText(company)) {
+            conditions.add("c.company_name ILIKE :company" + LIKE_ESCAPE);
+            parameters.put("company", containsPattern(company));
+        }
+        if (hasText(city)) {
+            conditions.add("c.city ILIKE :city" + LIKE_ESCAPE);
+            parameters.put("city", containsPattern(city));
+        }
+        if (status != null) {
+            conditions.add("c.status = :status");
+            parameters.put("status", status.name());
+        }
+
+        return conditions;
+    }
+
+    private static String toWhereClause(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private record KeysetColumn(String name, Function<Customer, Object> extractor, Function<String, Object> parser) {
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    /**
+     * Erzeugt ein '%wert%'-Muster und maskiert die LIKE-Platzhalter aus der Benutzereingabe
+     */
+    private static String containsPattern(String value) {
+        String escaped = value.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,55 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.CustomerStatusTransition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository für das Protokoll der Kunden-Statuswechsel.
+ * Jede Auswertung ist eine einzelne Aggregation über die Wechsel im Zeitraum [from, to).
+ */
+@Repository
+public interface CustomerStatusTransitionRepository extends JpaRepository<CustomerStatusTransition, Long> {
+
+    /**
+     * Findet die Statuswechsel eines Kunden in zeitlicher Reihenfolge
+     */
+    List<CustomerStatusTransition> findByCustomerIdOrderByChangedAtAscIdAsc(Long customerId);
+
+    /**
+     * Verweildauer je verlassenem Status in Sekunden: Status, Anzahl, Durchschnitt, Median, 90. und 95. Perzentil.
+     * Native Query, da JPQL keine Perzentile (PERCENTILE_CONT ... WITHIN GROUP) kennt; PostgreSQL und H2 unterstützen sie.
+     */
+    @Query(value = "SELECT t.from_status, COUNT(*), AVG(t.stage_duration_seconds), " +
+                   "PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY t.stage_duration_seconds), " +
+                   "PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY t.stage_duration_seconds), " +
+                   "PERCENTILE_CONT(0.95) WITHIN GROUP (ORDER BY t.stage_duration_seconds) " +
+                   "FROM customer_status_transitions t " +
+                   "WHERE t.changed_at >= :from AND t.changed_at < :to " +
+                   "AND t.from_status IS NOT NULL AND t.stage_duration_seconds IS NOT NULL " +
+                   "GROUP BY t.from_status",
+           nativeQuery = true)
+    List<Object[]> aggregateStageDurations(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Zählt die Wechsel je Paar aus vorherigem und neuem Status: vorheriger Status, neuer Status, Anzahl
+     */
+    @Query("SELECT t.fromStatus, t.toStatus, COUNT(t) FROM CustomerStatusTransition t " +
+           "WHERE t.changedAt >= :from AND t.changedAt < :to AND t.fromStatus IS NOT NULL " +
+           "GROUP BY t.fromStatus, t.toStatus")
+    List<Object[]> countByFromAndToStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Zählt die Eintritte je Tag und neuem Status, aufsteigend sortiert: Jahr, Monat, Tag, Status, Anzahl
+     */
+    @Query("SELECT YEAR(t.changedAt), MONTH(t.changedAt), DAY(t.changedAt), t.toStatus, COUNT(t) " +
+           "FROM CustomerStatusTransition t WHERE t.changedAt >= :from AND t.changedAt < :to " +
+           "GROUP BY YEAR(t.changedAt), MONTH(t.changedAt), DAY(t.changedAt), t.toStatus " +
+           "ORDER BY YEAR(t.changedAt), MONTH(t.changedAt), DAY(t.changedAt)")
+    List<Object[]> countByDayAndToStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,57 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.DailyStat;
+import eu.pierix.crmv3.domain.OfferStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository für die tägliche Statistik-Verdichtung.
+ * Die Abfragen liefern dieselben Spalten wie die entsprechenden Live-Abfragen auf Kunden und Angeboten,
+ * damit der StatisticsService beide Quellen zusammenführen kann.
+ */
+@Repository
+public interface DailyStatRepository extends JpaRepository<DailyStat, Long> {
+
+    /**
+     * Löscht die Verdichtung der Tage from bis to (inklusive)
+     */
+    @Modifying
+    @Query("DELETE FROM DailyStat d WHERE d.statDate BETWEEN :from AND :to")
+    int deleteByStatDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Löscht die Verdichtung aller Tage vor einem Tag
+     */
+    @Modifying
+    @Query("DELETE FROM DailyStat d WHERE d.statDate < :before")
+    int deleteByStatDateBefore(@Param("before") LocalDate before);
+
+    /**
+     * Zählt Kunden mit einem der Status im Zeitraum [from, before), gruppiert nach Tag und Status
+     */
+    @Query("SELECT d.statDate, d.customerStatus, SUM(d.customerCount) FROM DailyStat d " +
+           "WHERE d.offerStatus IS NULL AND d.customerStatus IN :statuses AND d.statDate >= :from AND d.statDate < :before " +
+           "GROUP BY d.statDate, d.customerStatus")
+    List<Object[]> countCustomersByDayAndStatus(@Param("statuses") Collection<CustomerStatus> statuses,
+                                                @Param("from") LocalDate from,
+                                                @Param("before") LocalDate before);
+
+    /**
+     * Summiert und zählt die Angebote eines Status im Zeitraum [from, before), gruppiert nach Tag
+     */
+    @Query("SELECT d.statDate, COALESCE(SUM(d.revenue), 0), SUM(d.offerCount) FROM DailyStat d " +
+           "WHERE d.offerStatus = :status AND d.statDate >= :from AND d.statDate < :before " +
+           "GROUP BY d.statDate")
+    List<Object[]> sumAndCountOffersByDay(@Param("status") OfferStatus status,
+                                          @Param("from") LocalDate from,
+                                          @Param("before") LocalDate before);
+}
@@ -0,0 +1,99 @@
+package eu.pierix.crmv3.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Komponente zum Anlegen von Datenbank-Indizes, die sich nicht über JPA-Annotationen
+ * abbilden lassen (z.B. GIN-Trigram-Indizes auf PostgreSQL).
+ *
+ * Hibernate (ddl-auto=update) legt nur die Tabellen an; die Indizes werden hier idempotent
+ * mit CREATE INDEX CONCURRENTLY IF NOT EXISTS nachgezogen, damit laufende Schreibzugriffe
+ * auf großen Tabellen nicht blockiert werden. Auf anderen Datenbanken (H2 im Test-Profil)
+ * wird die Initialisierung übersprungen.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseIndexInitializer {
+
+    /**
+     * Trigram-Indizes für die Teilstring-Suche (ILIKE '%...%') auf der Kundentabelle
+     */
+    private static final List<String> CUSTOMER_SEARCH_INDEXES = List.of(
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_first_name_trgm ON customers USING gin (first_name gin_trgm_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_last_name_trgm ON customers USING gin (last_name gin_trgm_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_email_trgm ON customers USING gin (email gin_trgm_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_company_name_trgm ON customers USING gin (company_name gin_trgm_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_city_trgm ON customers USING gin (city gin_trgm_ops)"
+    );
+
+    /**
+     * Funktionsindex für die exakte, Case-insensitive Email-Prüfung
+     */
+    private static final List<String> CUSTOMER_LOOKUP_INDEXES = List.of(
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_email_lower ON customers (lower(email))"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${database.indexes.enabled:true}")
+    private boolean indexesEnabled;
+
+    /**
+     * Legt die Indizes beim Anwendungsstart an
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIndexes() {
+        if (!indexesEnabled) {
+            log.info("Index-Initialisierung ist deaktiviert");
+            return;
+        }
+
+        if (!isPostgreSql()) {
+            log.info("Keine PostgreSQL-Datenbank erkannt, überspringe Index-Initialisierung");
+            return;
+        }
+
+        executeAll(CUSTOMER_LOOKUP_INDEXES);
+
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        } catch (Exception e) {
+            log.warn("pg_trgm-Extension konnte nicht aktiviert werden, Trigram-Indizes werden übersprungen: {}", e.getMessage());
+            return;
+        }
+
+        executeAll(CUSTOMER_SEARCH_INDEXES);
+    }
+
+    private void executeAll(List<String> statements) {
+        for (String statement : statements) {
+            try {
+                jdbcTemplate.execute(statement);
+                log.debug("Index-Statement ausgeführt: {}", statement);
+            } catch (Exception e) {
+                log.error("Fehler beim Ausführen von '{}': {}", statement, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isPostgreSql() {
+        try {
+            String productName = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            return "PostgreSQL".equalsIgnoreCase(productName);
+        } catch (Exception e) {
+            log.warn("Datenbanktyp konnte nicht ermittelt werden: {}", e.getMessage());
+            return false;
+        }
+    }
+}
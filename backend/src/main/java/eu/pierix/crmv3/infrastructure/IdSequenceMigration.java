@@ -0,0 +1,121 @@
+package eu.pierix.crmv3.infrastructure;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migration der ID-Spalten von IDENTITY auf Sequenzen mit Pooled-Optimizer.
+ *
+ * Mit IDENTITY muss Hibernate jede Zeile sofort einzeln einfügen, um die ID zu erhalten;
+ * JDBC-Batching (hibernate.jdbc.batch_size) greift dadurch nie. Die Entities verwenden
+ * deshalb Sequenzen mit allocationSize = 50. Für bestehende Datenbanken wird beim Start
+ * (vor allen Schreibzugriffen der Anwendung) die IDENTITY-Eigenschaft bzw. der Serial-Default
+ * entfernt und die Sequenz hinter die höchste vorhandene ID gesetzt. Die Migration ist idempotent
+ * und läuft nur auf PostgreSQL; auf H2 (Test-Profil) legt Hibernate das Schema neu an.
+ *
+ * Schlägt die Migration fehl, bricht der Start ab, da sonst erst spätere Inserts an fehlenden IDs scheitern.
+ * Nach dem Entfernen von IDENTITY können ältere Instanzen (ohne Sequenz-Generator) keine Zeilen mehr anlegen;
+ * die Umstellung erfordert daher ein Deployment ohne parallel laufende alte Versionen.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceMigration {
+
+    /**
+     * Muss mit allocationSize der @SequenceGenerator-Annotationen übereinstimmen
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Tabelle -> Sequenz
+     */
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "customers", "customers_seq",
+            "offers", "offers_seq",
+            "offer_items", "offer_items_seq",
+            "tokens", "tokens_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${database.sequence-migration.enabled:true}")
+    private boolean migrationEnabled;
+
+    /**
+     * Führt die Migration beim Start aus, nachdem Hibernate das Schema aktualisiert hat
+     */
+    @PostConstruct
+    public void migrate() {
+        if (!migrationEnabled) {
+            log.info("Sequenz-Migration ist deaktiviert");
+            return;
+        }
+
+        if (!isPostgreSql()) {
+            log.info("Keine PostgreSQL-Datenbank erkannt, überspringe Sequenz-Migration");
+            return;
+        }
+
+        SEQUENCES.forEach((table, sequence) -> {
+            try {
+                migrateTable(table, sequence);
+            } catch (Exception e) {
+                log.error("Fehler bei der Sequenz-Migration für Tabelle {}: {}", table, e.getMessage(), e);
+                throw new IllegalStateException("Sequenz-Migration für Tabelle " + table + " fehlgeschlagen", e);
+            }
+        });
+    }
+
+    private void migrateTable(String table, String sequence) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+
+        List<Map<String, Object>> idColumn = jdbcTemplate.queryForList(
+                "SELECT is_identity, column_default FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'id'", table);
+        if (idColumn.isEmpty()) {
+            return;
+        }
+
+        if ("YES".equals(idColumn.get(0).get("is_identity"))) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            log.info("IDENTITY von {}.id entfernt", table);
+        } else if (idColumn.get(0).get("column_default") != null) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP DEFAULT");
+            log.info("Serial-Default von {}.id entfernt", table);
+        }
+
+        // Nur nachziehen, wenn die Sequenz hinter den vorhandenen IDs liegt; ein bereits genutzter
+        // Sequenzstand wird nie zurückgesetzt, damit parallel startende Instanzen keine IDs doppelt vergeben
+        Long newValue = jdbcTemplate.query(
+                "SELECT setval('" + sequence + "', m.max_id) FROM (SELECT MAX(id) AS max_id FROM " + table + ") m " +
+                "WHERE EXISTS (SELECT 1 FROM " + sequence + " s " +
+                "WHERE m.max_id > s.last_value OR (m.max_id = s.last_value AND NOT s.is_called))",
+                rs -> rs.next() ? rs.getLong(1) : null);
+        if (newValue != null) {
+            log.info("Sequenz {} auf {} gesetzt", sequence, newValue);
+        }
+    }
+
+    private boolean isPostgreSql() {
+        try {
+            String productName = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            return "PostgreSQL".equalsIgnoreCase(productName);
+        } catch (Exception e) {
+            // Ohne bekannten Datenbanktyp bliebe eine nötige Migration unbemerkt aus
+            throw new IllegalStateException("Datenbanktyp für die Sequenz-Migration konnte nicht ermittelt werden", e);
+        }
+    }
+}
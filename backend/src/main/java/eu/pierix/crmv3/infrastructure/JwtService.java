@@ -1,28 +1,45 @@
 package eu.pierix.crmv3.infrastructure;
 
 import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.domain.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
- * Service für JWT-Token-Operationen
+ * Service für JWT-Token-Operationen.
+ *
+ * Signing-Key und Parser werden einmalig beim Start gebaut (beide sind thread-safe). Wer mehrere Angaben eines
+ * Tokens benötigt, prüft ihn einmal mit {@link #parseClaims(String)} und arbeitet mit den Claims weiter,
+ * statt die Signatur für jede Angabe erneut zu prüfen.
  */
 @Service
 @RequiredArgsConstructor
 public class JwtService {
 
+    /**
+     * Claim mit der Token-Version des Benutzers ({@link User#getTokenVersion()}, {@link UserPrincipal#tokenVersion()})
+     */
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -32,6 +49,31 @@ public class JwtService {
     @Value("${jwt.refresh-token.expiration:604800000}") // 7 Tage in Millisekunden
     private long refreshExpiration;
 
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    /**
+     * Baut Signing-Key und Parser aus dem Secret
+     */
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    /**
+     * Prüft Signatur und Ablauf eines JWT-Tokens und liefert dessen Claims
+     *
+     * @throws io.jsonwebtoken.JwtException bei ungültigem oder abgelaufenem Token
+     */
+    public Claims parseClaims(String token) {
+        return parser
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
     /**
      * Extrahiert den Username aus einem JWT-Token
      */
@@ -39,6 +81,13 @@ public class JwtService {
         return extractClaim(token, Claims::getSubject);
     }
 
+    /**
+     * Extrahiert die Token-ID (Claim jti) aus einem JWT-Token; null bei Tokens ohne ID
+     */
+    public String extractTokenId(String token) {
+        return extractClaim(token, Claims::getId);
+    }
+
     /**
      * Extrahiert das Ablaufdatum aus einem JWT-Token
      */
@@ -50,7 +99,7 @@ public class JwtService {
      * Extrahiert eine spezifische Claim aus einem JWT-Token
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
@@ -65,62 +114,104 @@ public class JwtService {
      * Generiert einen JWT-Token mit zusätzlichen Claims
      */
     public String generateToken(Map<String, Object> extraClaims, User user) {
-        return buildToken(extraClaims, user, jwtExpiration);
+        return buildToken(extraClaims, user, jwtExpiration).token();
     }
 
     /**
      * Generiert einen Refresh-Token
      */
     public String generateRefreshToken(User user) {
+        return issueRefreshToken(user).token();
+    }
+
+    /**
+     * Generiert einen JWT-Token samt Token-ID, die so ohne erneutes Prüfen des Tokens gespeichert werden kann
+     */
+    public IssuedToken issueToken(User user) {
+        return buildToken(new HashMap<>(), user, jwtExpiration);
+    }
+
+    /**
+     * Generiert einen Refresh-Token samt Token-ID
+     */
+    public IssuedToken issueRefreshToken(User user) {
         return buildToken(new HashMap<>(), user, refreshExpiration);
     }
 
     /**
-     * Baut einen JWT-Token
+     * Baut einen JWT-Token mit neuer Token-ID
      */
-    private String buildToken(Map<String, Object> extraClaims, User user, long expiration) {
-        return Jwts
+    private IssuedToken buildToken(Map<String, Object> extraClaims, User user, long expiration) {
+        String tokenId = UUID.randomUUID().toString();
+        String token = Jwts
                 .builder()
                 .claims(extraClaims)
+                .id(tokenId)
                 .subject(user.getUsername())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signingKey)
                 .compact();
+        return new IssuedToken(token, tokenId);
     }
 
     /**
      * Validiert einen JWT-Token für einen Benutzer
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseClaims(token), userDetails);
+    }
+
+    /**
+     * Validiert die bereits geprüften Claims eines JWT-Tokens für einen Benutzer
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !isTokenExpired(claims)
+                && hasCurrentTokenVersion(claims, userDetails);
+    }
+
+    /**
+     * Prüft ob der Token mit der aktuellen Token-Version des Benutzers ausgegeben wurde.
+     * Tokens ohne Claim (vor Einführung der Version ausgegeben) gelten als Version 0.
+     */
+    private boolean hasCurrentTokenVersion(Claims claims, UserDetails userDetails) {
+        long currentVersion;
+        if (userDetails instanceof UserPrincipal principal) {
+            currentVersion = principal.tokenVersion();
+        } else if (userDetails instanceof User user) {
+            currentVersion = user.getTokenVersion();
+        } else {
+            return true;
+        }
+        Number version = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        return (version != null ? version.longValue() : 0L) == currentVersion;
     }
 
     /**
      * Prüft ob ein Token abgelaufen ist
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     /**
-     * Extrahiert alle Claims aus einem JWT-Token
+     * Fester Suchschlüssel eines Tokens: Base64url des SHA-256-Hashes (43 Zeichen).
+     * Gespeichert und verglichen wird nur dieser Hash, nicht der Token selbst.
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public static String tokenHash(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
     }
 
     /**
-     * Generiert den Signing-Key aus dem Secret
+     * Ein ausgegebener JWT-Token mit seiner Token-ID (Claim jti)
      */
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public record IssuedToken(String token, String tokenId) {
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package eu.pierix.crmv3.infrastructure;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Cursor für die Keyset-Paginierung: Sortierwert und ID des letzten Elements einer Seite.
+ * Nach außen wird der Cursor nur als undurchsichtiger Base64-Token weitergegeben.
+ */
+public record KeysetCursor(String sortProperty, Sort.Direction direction, long id, String sortValue) {
+
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * Kodiert den Cursor als URL-sicheren Token
+     */
+    public String encode() {
+        String raw = sortProperty + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + (sortValue != null ? sortValue : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dekodiert einen Token, der mit {@link #encode()} erzeugt wurde
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Ungültiger Cursor");
+            }
+            return new KeysetCursor(parts[0], Sort.Direction.valueOf(parts[1]), Long.parseLong(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ungültiger Cursor: " + token, e);
+        }
+    }
+
+    /**
+     * Prüft, ob der Cursor zur angeforderten Sortierung passt
+     */
+    public void verifyMatches(String expectedSortProperty, Sort.Direction expectedDirection) {
+        if (!sortProperty.equals(expectedSortProperty) || direction != expectedDirection) {
+            throw new IllegalArgumentException("Cursor passt nicht zur Sortierung " + expectedSortProperty + " " + expectedDirection);
+        }
+    }
+
+    /**
+     * Wandelt den Sortierwert in den Typ der Sortierspalte um. Ein manipulierter Cursor führt zu einer
+     * IllegalArgumentException (400) statt zu einem Parse-Fehler (500).
+     */
+    public Object parseSortValue(Function<String, Object> parser) {
+        try {
+            return parser.apply(sortValue);
+        } catch (DateTimeException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ungültiger Sortierwert im Cursor: " + sortValue, e);
+        }
+    }
+}
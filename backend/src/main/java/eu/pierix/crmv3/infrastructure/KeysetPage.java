@@ -0,0 +1,35 @@
+package eu.pierix.crmv3.infrastructure;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Ergebnis einer Keyset-Paginierung
+ *
+ * @param content       Elemente der Seite
+ * @param nextCursor    Token für die nächste Seite, null wenn keine weitere Seite existiert
+ * @param totalElements Gesamtanzahl, nur gesetzt wenn sie angefordert wurde
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor, Long totalElements) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(content.stream().<R>map(mapper).toList(), nextCursor, totalElements);
+    }
+
+    /**
+     * Baut eine Seite aus bis zu size + 1 gelesenen Zeilen; die zusätzliche Zeile zeigt an, dass eine weitere Seite existiert
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, KeysetPageRequest request,
+                                       Function<T, KeysetCursor> cursorOf, LongSupplier totalSupplier) {
+        boolean hasNext = rows.size() > request.size();
+        List<T> content = hasNext ? rows.subList(0, request.size()) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        Long totalElements = request.includeTotal() ? totalSupplier.getAsLong() : null;
+        return new KeysetPage<>(List.copyOf(content), nextCursor, totalElements);
+    }
+}
@@ -0,0 +1,44 @@
+package eu.pierix.crmv3.infrastructure;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Anfrage für eine Seite mit Keyset-Paginierung
+ *
+ * @param sortProperty Sortierfeld (nur indexgestützte Felder werden unterstützt)
+ * @param direction    Sortierrichtung, die ID dient als eindeutiges Zweitkriterium
+ * @param cursor       Token aus {@link KeysetPage#nextCursor()} der vorherigen Seite, null für die erste Seite
+ * @param size         Seitengröße
+ * @param includeTotal ob zusätzlich die Gesamtanzahl per COUNT ermittelt werden soll
+ */
+public record KeysetPageRequest(String sortProperty, Sort.Direction direction, String cursor, int size, boolean includeTotal) {
+
+    public static final int MAX_SIZE = 100;
+
+    public KeysetPageRequest {
+        if (sortProperty == null || sortProperty.isBlank()) {
+            throw new IllegalArgumentException("Sortierfeld darf nicht leer sein");
+        }
+        if (direction == null) {
+            throw new IllegalArgumentException("Sortierrichtung darf nicht null sein");
+        }
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Seitengröße muss zwischen 1 und " + MAX_SIZE + " liegen");
+        }
+        if (cursor != null && cursor.isBlank()) {
+            cursor = null;
+        }
+    }
+
+    /**
+     * Dekodierter Cursor, geprüft gegen die angeforderte Sortierung
+     */
+    public KeysetCursor decodedCursor() {
+        if (cursor == null) {
+            return null;
+        }
+        KeysetCursor decoded = KeysetCursor.decode(cursor);
+        decoded.verifyMatches(sortProperty, direction);
+        return decoded;
+    }
+}
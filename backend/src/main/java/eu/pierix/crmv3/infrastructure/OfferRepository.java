@@ -1,22 +1,34 @@
 package eu.pierix.crmv3.infrastructure;
 
 import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferItem;
 import eu.pierix.crmv3.domain.OfferStatus;
 import eu.pierix.crmv3.domain.Customer;
 import eu.pierix.crmv3.domain.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface OfferRepository extends JpaRepository<Offer, Long> {
+public interface OfferRepository extends JpaRepository<Offer, Long>, OfferSearchRepository {
+
+    // Finde Angebot inklusive Kunde, Ersteller und Positionen
+    @Override
+    @EntityGraph(attributePaths = {"customer", "createdBy", "items"})
+    Optional<Offer> findById(Long id);
 
     // Finde Angebote nach Status
     List<Offer> findByStatus(OfferStatus status);
@@ -53,18 +65,128 @@ public interface OfferRepository extends JpaRepository<Offer, Long> {
     
     // Zähle Angebote nach Status
     long countByStatus(OfferStatus status);
+
+    /**
+     * Zählt Angebote gruppiert nach Status: Status, Anzahl (nur vorkommende Status)
+     */
+    @Query("SELECT o.status, COUNT(o) FROM Offer o GROUP BY o.status")
+    List<Object[]> countByStatusGrouped();
+
+    /**
+     * Kennzahlen je Status in einem Durchlauf: Status, Anzahl, Summe der Endbeträge,
+     * durchschnittlicher Rabatt in Prozent, Summe der Rabattbeträge (fehlender Rabatt zählt als 0)
+     */
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.finalAmount), 0), AVG(COALESCE(o.discountPercentage, 0)), " +
+           "COALESCE(SUM(o.discountAmount), 0) FROM Offer o GROUP BY o.status")
+    List<Object[]> aggregateByStatusGrouped();
     
     // Zähle Angebote nach Kunde
     long countByCustomer(Customer customer);
 
     // Statistik-Methoden für StatisticsService
     /**
-     * Findet bezahlte Angebote nach einem bestimmten Datum
+     * Zählt Angebote und summiert deren Endbeträge gruppiert nach Status
+     */
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.finalAmount), 0) FROM Offer o GROUP BY o.status")
+    List<Object[]> countAndSumFinalAmountByStatusGrouped();
+
+    /**
+     * Summiert und zählt die Angebote eines Status im Zeitraum [from, to), gruppiert nach Jahr
+     */
+    @Query("SELECT YEAR(o.createdAt), COALESCE(SUM(o.finalAmount), 0), COUNT(o) FROM Offer o " +
+           "WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to " +
+           "GROUP BY YEAR(o.createdAt)")
+    List<Object[]> sumAndCountByYear(@Param("status") OfferStatus status,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    /**
+     * Summiert und zählt die Angebote eines Status im Zeitraum [from, to), gruppiert nach Jahr und Monat
+     */
+    @Query("SELECT YEAR(o.createdAt), MONTH(o.createdAt), COALESCE(SUM(o.finalAmount), 0), COUNT(o) FROM Offer o " +
+           "WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to " +
+           "GROUP BY YEAR(o.createdAt), MONTH(o.createdAt)")
+    List<Object[]> sumAndCountByMonth(@Param("status") OfferStatus status,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    /**
+     * Summiert und zählt die Angebote eines Status im Zeitraum [from, to), gruppiert nach Tag
+     */
+    @Query("SELECT YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt), COALESCE(SUM(o.finalAmount), 0), COUNT(o) FROM Offer o " +
+           "WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to " +
+           "GROUP BY YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt)")
+    List<Object[]> sumAndCountByDay(@Param("status") OfferStatus status,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+
+    /**
+     * Summiert und zählt die Angebote eines Status im Zeitraum [from, to) je Tag, aufsteigend sortiert.
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt), COALESCE(SUM(o.finalAmount), 0), COUNT(o) FROM Offer o " +
+           "WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to " +
+           "GROUP BY YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt) " +
+           "ORDER BY YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt)")
+    Stream<Object[]> streamSumAndCountByDay(@Param("status") OfferStatus status,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    /**
+     * Summiert und zählt die Angebote eines Status im Zeitraum [from, to) je Monat, aufsteigend sortiert.
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT YEAR(o.createdAt), MONTH(o.createdAt), COALESCE(SUM(o.finalAmount), 0), COUNT(o) FROM Offer o " +
+           "WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to " +
+           "GROUP BY YEAR(o.createdAt), MONTH(o.createdAt) " +
+           "ORDER BY YEAR(o.createdAt), MONTH(o.createdAt)")
+    Stream<Object[]> streamSumAndCountByMonth(@Param("status") OfferStatus status,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    // Methoden für die tägliche Statistik-Verdichtung
+    /**
+     * Zählt und summiert im Zeitraum [from, to) angelegte Angebote gruppiert nach Erstellungstag und Status
+     */
+    @Query("SELECT YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt), o.status, COUNT(o), COALESCE(SUM(o.finalAmount), 0) FROM Offer o " +
+           "WHERE o.createdAt >= :from AND o.createdAt < :to " +
+           "GROUP BY YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt), o.status")
+    List<Object[]> countAndSumByDayAndStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Liefert die Erstellungstage (Jahr, Monat, Tag) der seit einem Zeitpunkt angelegten oder geänderten Angebote
+     */
+    @Query("SELECT DISTINCT YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt) FROM Offer o " +
+           "WHERE o.createdAt > :since OR o.updatedAt > :since")
+    List<Object[]> findCreatedDaysChangedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Liefert den Erstellungszeitpunkt des ältesten Angebots
+     */
+    @Query("SELECT MIN(o.createdAt) FROM Offer o")
+    LocalDateTime findMinCreatedAt();
+
+    // Export
+    /**
+     * Liefert alle Angebote nach ID sortiert als vorwärtsgerichteten Stream (serverseitiger Cursor mit Fetch-Size).
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
      */
-    List<Offer> findByStatusAndCreatedAtAfter(OfferStatus status, LocalDateTime date);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Offer o JOIN FETCH o.customer LEFT JOIN FETCH o.createdBy ORDER BY o.id")
+    Stream<Offer> streamAllForExport();
 
     /**
-     * Findet bezahlte Angebote zwischen zwei Daten
+     * Liefert alle Angebotspositionen nach Angebots-ID sortiert, passend zu {@link #streamAllForExport()}
      */
-    List<Offer> findByStatusAndCreatedAtBetween(OfferStatus status, LocalDateTime startDate, LocalDateTime endDate);
-} 
\ No newline at end of file
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM OfferItem i WHERE i.offer IS NOT NULL ORDER BY i.offer.id, i.id")
+    Stream<OfferItem> streamAllItemsForExport();
+}
@@ -0,0 +1,25 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferStatus;
+
+import java.util.Collection;
+
+/**
+ * Repository-Fragment für die Angebotssuche mit Keyset-Paginierung
+ */
+public interface OfferSearchRepository {
+
+    /**
+     * Findet Angebote anhand mehrerer Kriterien mit Keyset-Paginierung.
+     * Statt OFFSET wird ab (Sortierwert, ID) des Cursors gelesen; COUNT nur auf Anfrage.
+     */
+    KeysetPage<Offer> findBySearchCriteria(Long customerId, OfferStatus status, Long createdById,
+                                           KeysetPageRequest pageRequest);
+
+    /**
+     * Initialisiert Kunde, Ersteller und Positionen der Angebote mit einer einzigen Query,
+     * damit sie auch nach Ende der Transaktion (ohne Open-in-View) lesbar sind
+     */
+    void fetchDetails(Collection<Offer> offers);
+}
@@ -0,0 +1,130 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Implementierung der Angebotssuche mit dynamisch aufgebauter JPQL-Query.
+ *
+ * Es werden nur die gesetzten Kriterien in die Query übernommen; die Seiten werden
+ * über (Sortierwert, ID) fortgesetzt, sodass tiefe Seiten keine übersprungenen Zeilen lesen.
+ */
+public class OfferSearchRepositoryImpl implements OfferSearchRepository {
+
+    /**
+     * Für die Keyset-Paginierung zulässige Sortierfelder (nicht-nullbare Spalten mit Index)
+     */
+    private static final Map<String, KeysetColumn> KEYSET_COLUMNS = Map.of(
+            "createdAt", new KeysetColumn("createdAt", Offer::getCreatedAt, LocalDateTime::parse),
+            "offerNumber", new KeysetColumn("offerNumber", Offer::getOfferNumber, value -> value),
+            "id", new KeysetColumn("id", Offer::getId, Long::valueOf)
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public KeysetPage<Offer> findBySearchCriteria(Long customerId, OfferStatus status, Long createdById,
+                                                  KeysetPageRequest pageRequest) {
+        KeysetColumn column = KEYSET_COLUMNS.get(pageRequest.sortProperty());
+        if (column == null) {
+            throw new IllegalArgumentException("Sortierung nach '" + pageRequest.sortProperty()
+                    + "' wird für Cursor-Paginierung nicht unterstützt, erlaubt: " + KEYSET_COLUMNS.keySet());
+        }
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<String> conditions = new ArrayList<>();
+        if (customerId != null) {
+            conditions.add("o.customer.id = :customerId");
+            parameters.put("customerId", customerId);
+        }
+        if (status != null) {
+            conditions.add("o.status = :status");
+            parameters.put("status", status);
+        }
+        if (createdById != null) {
+            conditions.add("o.createdBy.id = :createdById");
+            parameters.put("createdById", createdById);
+        }
+        String whereClause = toWhereClause(conditions);
+
+        // Seek-Bedingung: alles hinter (Sortierwert, ID) des letzten Elements der vorherigen Seite
+        List<String> seekConditions = new ArrayList<>(conditions);
+        Map<String, Object> seekParameters = new LinkedHashMap<>(parameters);
+        KeysetCursor cursor = pageRequest.decodedCursor();
+        String comparator = pageRequest.direction().isAscending() ? ">" : "<";
+        if (cursor != null) {
+            if ("id".equals(column.name())) {
+                seekConditions.add("o.id " + comparator + " :afterId");
+            } else {
+                seekConditions.add("(o." + column.name() + " " + comparator + " :afterValue OR (o." + column.name()
+                        + " = :afterValue AND o.id " + comparator + " :afterId))");
+                seekParameters.put("afterValue", cursor.parseSortValue(column.parser()));
+            }
+            seekParameters.put("afterId", cursor.id());
+        }
+
+        String direction = pageRequest.direction().isAscending() ? "ASC" : "DESC";
+        String orderBy = "id".equals(column.name())
+                ? " ORDER BY o.id " + direction
+                : " ORDER BY o." + column.name() + " " + direction + ", o.id " + direction;
+
+        TypedQuery<Offer> query = entityManager.createQuery(
+                "SELECT o FROM Offer o" + toWhereClause(seekConditions) + orderBy, Offer.class);
+        seekParameters.forEach(query::setParameter);
+        query.setMaxResults(pageRequest.size() + 1);
+        List<Offer> rows = query.getResultList();
+        fetchDetails(rows);
+
+        return KeysetPage.of(rows, pageRequest,
+                last -> new KeysetCursor(pageRequest.sortProperty(), pageRequest.direction(), last.getId(),
+                        String.valueOf(column.extractor().apply(last))),
+                () -> count(whereClause, parameters));
+    }
+
+    @Override
+    public void fetchDetails(Collection<Offer> offers) {
+        if (offers.isEmpty()) {
+            return;
+        }
+
+        // Lädt die Zuordnungen in den Persistence Context; die Proxies und Collections
+        // der bereits geladenen Angebote werden danach ohne weitere SELECTs initialisiert
+        List<Long> ids = offers.stream().map(Offer::getId).toList();
+        entityManager.createQuery("SELECT DISTINCT o FROM Offer o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.createdBy " +
+                        "LEFT JOIN FETCH o.items WHERE o.id IN :ids", Offer.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        for (Offer offer : offers) {
+            Hibernate.initialize(offer.getCustomer());
+            Hibernate.initialize(offer.getCreatedBy());
+            Hibernate.initialize(offer.getItems());
+        }
+    }
+
+    private long count(String whereClause, Map<String, Object> parameters) {
+        TypedQuery<Long> countQuery = entityManager.createQuery(
+                "SELECT COUNT(o) FROM Offer o" + whereClause, Long.class);
+        parameters.forEach(countQuery::setParameter);
+        return countQuery.getSingleResult();
+    }
+
+    private static String toWhereClause(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private record KeysetColumn(String name, Function<Offer, Object> extractor, Function<String, Object> parser) {
+    }
+}
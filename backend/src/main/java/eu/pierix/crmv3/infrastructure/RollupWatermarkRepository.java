@@ -0,0 +1,12 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.RollupWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository für die Watermarks der Verdichtungs-Jobs
+ */
+@Repository
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+}
@@ -0,0 +1,29 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository für das Tag-Verzeichnis
+ */
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+
+    /**
+     * Findet Tags anhand ihrer normalisierten Namen
+     */
+    List<Tag> findByNormalizedNameIn(Collection<String> normalizedNames);
+
+    /**
+     * Zählt Kunden je Tag; beantwortet über den Index (tag_id, customer_id) der Join-Tabelle
+     */
+    @Query(value = "SELECT t.name, ct.customer_count FROM tags t " +
+                   "JOIN (SELECT tag_id, COUNT(*) AS customer_count FROM customer_tags GROUP BY tag_id) ct ON ct.tag_id = t.id " +
+                   "ORDER BY ct.customer_count DESC, t.name", nativeQuery = true)
+    List<Object[]> countCustomersByTag();
+}
@@ -0,0 +1,118 @@
+package eu.pierix.crmv3.infrastructure;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migration der Token-Tabelle vom vollständigen JWT auf dessen Hash als Suchschlüssel.
+ *
+ * Bisher war die Spalte tokens.token (mehrere hundert Bytes je JWT) eindeutig indiziert und wurde bei jeder
+ * Token-Prüfung verglichen. Die Entity speichert nur noch token_hash (SHA-256, Base64url, 43 Zeichen) und jti.
+ * Für bestehende Datenbanken wird beim Start zuerst die NOT-NULL-Bedingung der alten Spalte aufgehoben (damit
+ * neue Tokens ohne sie gespeichert werden können), dann token_hash für alle Zeilen batchweise nachgetragen,
+ * der eindeutige Index angelegt und zuletzt die alte Spalte samt Index gelöscht. Die Migration ist idempotent
+ * und läuft nur auf PostgreSQL; auf H2 (Test-Profil) legt Hibernate das Schema neu an.
+ *
+ * Schlägt die Migration fehl, bricht der Start ab: ohne token_hash scheitert jedes Speichern und Prüfen eines
+ * Tokens, es könnte sich also niemand mehr anmelden.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class TokenHashMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${database.token-hash-migration.enabled:true}")
+    private boolean migrationEnabled;
+
+    /**
+     * Führt die Migration beim Start aus, nachdem Hibernate das Schema aktualisiert hat
+     */
+    @PostConstruct
+    public void migrate() {
+        if (!migrationEnabled) {
+            log.info("Token-Hash-Migration ist deaktiviert");
+            return;
+        }
+
+        if (!isPostgreSql()) {
+            log.info("Keine PostgreSQL-Datenbank erkannt, überspringe Token-Hash-Migration");
+            return;
+        }
+
+        try {
+            // Schema-Update von Hibernate schlägt bei vorhandenen Zeilen für NOT-NULL-Spalten fehl
+            jdbcTemplate.execute("ALTER TABLE tokens ADD COLUMN IF NOT EXISTS token_hash VARCHAR(43)");
+            jdbcTemplate.execute("ALTER TABLE tokens ADD COLUMN IF NOT EXISTS jti VARCHAR(36)");
+
+            if (hasColumn("tokens", "token")) {
+                jdbcTemplate.execute("ALTER TABLE tokens ALTER COLUMN token DROP NOT NULL");
+                long migrated = backfillHashes();
+                if (migrated > 0) {
+                    log.info("Token-Hash für {} Tokens nachgetragen", migrated);
+                }
+            }
+
+            // Zeilen ohne Hash kann keine Token-Prüfung mehr finden
+            jdbcTemplate.execute("DELETE FROM tokens WHERE token_hash IS NULL");
+            jdbcTemplate.execute("ALTER TABLE tokens ALTER COLUMN token_hash SET NOT NULL");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_tokens_token_hash ON tokens (token_hash)");
+
+            if (hasColumn("tokens", "token")) {
+                jdbcTemplate.execute("ALTER TABLE tokens DROP COLUMN token");
+                log.info("Spalte tokens.token samt Index entfernt");
+            }
+        } catch (Exception e) {
+            log.error("Fehler bei der Token-Hash-Migration: {}", e.getMessage(), e);
+            throw new IllegalStateException("Token-Hash-Migration fehlgeschlagen", e);
+        }
+    }
+
+    private long backfillHashes() {
+        long migrated = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, token FROM tokens WHERE token_hash IS NULL AND token IS NOT NULL LIMIT ?", BATCH_SIZE);
+            if (rows.isEmpty()) {
+                return migrated;
+            }
+            jdbcTemplate.batchUpdate("UPDATE tokens SET token_hash = ? WHERE id = ?",
+                    rows.stream()
+                            .map(row -> new Object[]{JwtService.tokenHash((String) row.get("token")), row.get("id")})
+                            .toList());
+            migrated += rows.size();
+        }
+    }
+
+    private boolean hasColumn(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    private boolean isPostgreSql() {
+        try {
+            String productName = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            return "PostgreSQL".equalsIgnoreCase(productName);
+        } catch (Exception e) {
+            // Ohne bekannten Datenbanktyp bliebe eine nötige Migration unbemerkt aus
+            throw new IllegalStateException("Datenbanktyp für die Token-Hash-Migration konnte nicht ermittelt werden", e);
+        }
+    }
+}
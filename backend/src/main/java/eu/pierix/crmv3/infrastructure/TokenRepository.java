@@ -20,9 +20,9 @@ import java.util.Optional;
 public interface TokenRepository extends JpaRepository<Token, Long> {
 
     /**
-     * Findet einen Token anhand des Token-Strings
+     * Findet einen Token anhand seines Hashes
      */
-    Optional<Token> findByToken(String token);
+    Optional<Token> findByTokenHash(String tokenHash);
 
     /**
      * Findet alle gültigen Tokens eines Benutzers
@@ -48,6 +48,12 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
     @Query("SELECT t FROM Token t WHERE t.expiresAt < :now")
     List<Token> findAllExpiredTokens(@Param("now") LocalDateTime now);
 
+    /**
+     * Lädt Token-Hash und Ablaufzeit aller widerrufenen oder als abgelaufen markierten, noch nicht abgelaufenen Tokens
+     */
+    @Query("SELECT t.tokenHash, t.expiresAt FROM Token t WHERE (t.revoked = true OR t.expired = true) AND t.expiresAt > :now")
+    List<Object[]> findRevokedTokensExpiringAfter(@Param("now") LocalDateTime now);
+
     /**
      * Findet alle widerrufenen Tokens
      */
@@ -111,8 +117,8 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
      * Markiert einen spezifischen Token als widerrufen
      */
     @Modifying
-    @Query("UPDATE Token t SET t.revoked = true WHERE t.token = :token")
-    void revokeToken(@Param("token") String token);
+    @Query("UPDATE Token t SET t.revoked = true WHERE t.tokenHash = :tokenHash")
+    void revokeToken(@Param("tokenHash") String tokenHash);
 
     /**
      * Löscht alle abgelaufenen Tokens
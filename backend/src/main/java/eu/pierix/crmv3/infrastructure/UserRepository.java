@@ -3,6 +3,7 @@ package eu.pierix.crmv3.infrastructure;
 import eu.pierix.crmv3.domain.Role;
 import eu.pierix.crmv3.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -93,4 +94,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Findet gesperrte Benutzer
      */
     List<User> findByAccountNonLockedFalse();
+
+    /**
+     * Erhöht die Token-Version eines Benutzers und macht damit alle seine Tokens ungültig
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :userId")
+    int incrementTokenVersion(@Param("userId") Long userId);
+
+    /**
+     * Setzt nur den Zeitpunkt der letzten Anmeldung, ohne die übrigen Spalten mit dem geladenen Stand zu überschreiben
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.lastLogin = :lastLogin WHERE u.id = :userId")
+    int updateLastLogin(@Param("userId") Long userId, @Param("lastLogin") LocalDateTime lastLogin);
 } 
\ No newline at end of file
@@ -3,6 +3,8 @@ package eu.pierix.crmv3.web;
 import eu.pierix.crmv3.application.CustomerService;
 import eu.pierix.crmv3.domain.Customer;
 import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.infrastructure.KeysetPage;
+import eu.pierix.crmv3.infrastructure.KeysetPageRequest;
 import eu.pierix.crmv3.web.dto.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +20,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -243,6 +246,37 @@ public class CustomerController {
         }
     }
 
+    /**
+     * Findet alle Kunden mit Cursor-Paginierung (konstante Kosten auch für tiefe Seiten)
+     * Erlaubt: Authentifizierte Benutzer (USER, ADMIN)
+     */
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<CursorPageResponse<CustomerResponse>> scrollCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        try {
+            log.debug("Lade Kunden mit Cursor - Größe: {}, Sortierung: {} {}", size, sortBy, sortDirection);
+
+            KeysetPageRequest pageRequest = new KeysetPageRequest(
+                    sortBy, Sort.Direction.fromString(sortDirection), cursor, size, includeTotal);
+            KeysetPage<Customer> customers = customerService.searchCustomers(null, null, null, null, null, pageRequest);
+
+            return ResponseEntity.ok(CursorPageResponse.of(customers, this::mapToCustomerResponse));
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validierungsfehler beim Laden der Kunden mit Cursor: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Fehler beim Laden der Kunden mit Cursor: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Erweiterte Kunden-Suche
      * Erlaubt: Authentifizierte Benutzer (USER, ADMIN)
@@ -287,6 +321,49 @@ public class CustomerController {
         }
     }
 
+    /**
+     * Erweiterte Kunden-Suche mit Cursor-Paginierung; page wird ignoriert, cursor setzt die Suche fort
+     * Erlaubt: Authentifizierte Benutzer (USER, ADMIN)
+     */
+    @PostMapping("/search/scroll")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<CursorPageResponse<CustomerResponse>> scrollSearchCustomers(@Valid @RequestBody CustomerSearchRequest request) {
+        try {
+            if (request == null) {
+                log.error("CustomerSearchRequest ist null");
+                return ResponseEntity.badRequest().build();
+            }
+
+            log.debug("Kunden-Suche mit Cursor - Name: '{}', Email: '{}', Firma: '{}', Stadt: '{}', Status: '{}'",
+                    request.getName(), request.getEmail(), request.getCompany(), request.getCity(), request.getStatus());
+
+            KeysetPageRequest pageRequest = new KeysetPageRequest(
+                    request.getSortBy(),
+                    Sort.Direction.fromString(request.getSortDirection()),
+                    request.getCursor(),
+                    request.getSize(),
+                    Boolean.TRUE.equals(request.getIncludeTotal()));
+
+            KeysetPage<Customer> customers = customerService.searchCustomers(
+                    request.getName(),
+                    request.getEmail(),
+                    request.getCompany(),
+                    request.getCity(),
+                    request.getStatus(),
+                    pageRequest
+            );
+
+            return ResponseEntity.ok(CursorPageResponse.of(customers, this::mapToCustomerResponse));
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validierungsfehler bei Kunden-Suche mit Cursor: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Fehler bei Kunden-Suche mit Cursor: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Findet Kunden anhand des Namens
      */
@@ -339,6 +416,56 @@ public class CustomerController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Findet Kunden anhand von Tags (match=any: mindestens ein Tag, match=all: alle Tags)
+     * Erlaubt: Authentifizierte Benutzer (USER, ADMIN)
+     */
+    @GetMapping("/search/tags")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<Page<CustomerResponse>> searchCustomersByTags(
+            @RequestParam List<String> tags,
+            @RequestParam(defaultValue = "any") String match,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        try {
+            boolean matchAll;
+            if ("all".equalsIgnoreCase(match)) {
+                matchAll = true;
+            } else if ("any".equalsIgnoreCase(match)) {
+                matchAll = false;
+            } else {
+                log.error("Ungültiger Match-Modus für Tag-Suche: {}", match);
+                return ResponseEntity.badRequest().build();
+            }
+
+            Page<Customer> customers = customerService.findCustomersByTags(tags, matchAll, PageRequest.of(page, size));
+            return ResponseEntity.ok(customers.map(this::mapToCustomerResponse));
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validierungsfehler bei der Tag-Suche: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Fehler bei der Tag-Suche: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Zählt Kunden je Tag (absteigend nach Anzahl)
+     * Erlaubt: Authentifizierte Benutzer (USER, ADMIN)
+     */
+    @GetMapping("/tags/counts")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<Map<String, Long>> getTagCounts() {
+        try {
+            return ResponseEntity.ok(customerService.countCustomersByTagGrouped());
+        } catch (Exception e) {
+            log.error("Fehler beim Zählen der Kunden nach Tag: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // Status-basierte Methoden
     /**
      * Findet alle Kunden mit einem bestimmten Status
@@ -400,16 +527,11 @@ public class CustomerController {
     public ResponseEntity<Map<String, List<CustomerResponse>>> getPipelineCustomers() {
         Map<String, List<CustomerResponse>> pipeline = new HashMap<>();
         
-        // Alle Pipeline-Status durchgehen
-        for (CustomerStatus status : CustomerStatus.values()) {
-            if (status.isPipelineStatus()) {
-                List<Customer> customers = customerService.findCustomersByStatus(status);
-                List<CustomerResponse> response = customers.stream()
+        // Alle Pipeline-Status mit einer Query laden
+        customerService.findPipelineCustomers().forEach((status, customers) ->
+                pipeline.put(status.name(), customers.stream()
                         .map(this::mapToCustomerResponse)
-                        .collect(Collectors.toList());
-                pipeline.put(status.name(), response);
-            }
-        }
+                        .collect(Collectors.toList())));
         
         return ResponseEntity.ok(pipeline);
     }
@@ -431,6 +553,68 @@ public class CustomerController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Lädt das Pipeline-Board: die ersten Karten je Spalte samt exakter Spaltengröße und Cursor zum Nachladen
+     * Erlaubt: Authentifizierte Benutzer (USER, ADMIN)
+     */
+    @GetMapping("/pipeline/board")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<PipelineBoardResponse> getPipelineBoard(@RequestParam(defaultValue = "20") int size) {
+        try {
+            log.debug("Lade Pipeline-Board - Karten je Spalte: {}", size);
+
+            List<PipelineBoardResponse.Column> columns = new ArrayList<>();
+            customerService.findPipelineBoard(size).forEach((status, page) -> columns.add(
+                    PipelineBoardResponse.Column.builder()
+                            .status(status.name())
+                            .displayName(status.getDisplayName())
+                            .count(page.totalElements())
+                            .cards(page.content().stream().map(this::mapToCustomerResponse).toList())
+                            .nextCursor(page.nextCursor())
+                            .hasNext(page.hasNext())
+                            .build()));
+
+            return ResponseEntity.ok(PipelineBoardResponse.builder()
+                    .columns(columns)
+                    .totalInPipeline(columns.stream().mapToLong(PipelineBoardResponse.Column::getCount).sum())
+                    .build());
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validierungsfehler beim Laden des Pipeline-Boards: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Fehler beim Laden des Pipeline-Boards: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Lädt weitere Karten einer Spalte des Pipeline-Boards ab dem Cursor der Spalte
+     * Erlaubt: Authentifizierte Benutzer (USER, ADMIN)
+     */
+    @GetMapping("/pipeline/board/{status}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<CursorPageResponse<CustomerResponse>> getPipelineBoardColumn(
+            @PathVariable CustomerStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        try {
+            log.debug("Lade Pipeline-Spalte {} mit Cursor - Größe: {}", status, size);
+
+            KeysetPage<Customer> customers = customerService.findPipelineColumn(status, cursor, size);
+
+            return ResponseEntity.ok(CursorPageResponse.of(customers, this::mapToCustomerResponse));
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validierungsfehler beim Laden der Pipeline-Spalte: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Fehler beim Laden der Pipeline-Spalte: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Ändert den Status eines Kunden in der Pipeline
      */
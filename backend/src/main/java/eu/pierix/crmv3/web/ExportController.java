@@ -0,0 +1,196 @@
+package eu.pierix.crmv3.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.pierix.crmv3.application.ExportService;
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferItem;
+import eu.pierix.crmv3.web.export.ExportFormat;
+import eu.pierix.crmv3.web.export.ExportWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST-Controller für den Export von Kunden und Angeboten als CSV oder NDJSON.
+ * Die Antwort wird gestreamt, der Speicherbedarf hängt nicht von der Anzahl der Datensätze ab.
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Slf4j
+public class ExportController {
+
+    private static final List<String> CUSTOMER_COLUMNS = List.of(
+            "id", "firstName", "lastName", "email", "phone", "mobile", "companyName", "position", "department",
+            "street", "houseNumber", "postalCode", "city", "country", "website", "status", "priority", "source",
+            "tags", "notes", "createdAt", "updatedAt", "lastContact", "createdById", "assignedToId");
+
+    private static final List<String> OFFER_COLUMNS = List.of(
+            "id", "offerNumber", "title", "description", "validUntil", "status", "netAmount", "taxAmount",
+            "grossAmount", "discountPercentage", "discountAmount", "finalAmount", "customerId", "customerName",
+            "createdById", "createdAt", "updatedAt", "sentAt", "paidAt");
+
+    private static final List<String> OFFER_ITEM_COLUMNS = List.of(
+            "itemId", "itemDescription", "itemQuantity", "itemUnitPrice", "itemTaxRate",
+            "itemNetAmount", "itemTaxAmount", "itemGrossAmount");
+
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Exportiert alle Kunden
+     * Erlaubt: Authentifizierte Benutzer (USER, ADMIN)
+     */
+    @GetMapping("/api/customers/export")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromString(format);
+        } catch (IllegalArgumentException e) {
+            log.error("Validierungsfehler beim Kunden-Export: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("Starte Kunden-Export im Format {}", exportFormat);
+
+        StreamingResponseBody body = outputStream -> {
+            ExportWriter writer = new ExportWriter(exportFormat, outputStream, objectMapper, CUSTOMER_COLUMNS);
+            exportService.exportCustomers(customer -> writer.write(toExportRecord(customer)));
+            writer.flush();
+        };
+        return streamingResponse(body, exportFormat, "customers");
+    }
+
+    /**
+     * Exportiert alle Angebote inklusive Positionen.
+     * CSV enthält eine Zeile je Position (Angebotsdaten wiederholt), NDJSON ein Objekt je Angebot mit "items".
+     */
+    @GetMapping("/api/offers/export")
+    public ResponseEntity<StreamingResponseBody> exportOffers(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromString(format);
+        } catch (IllegalArgumentException e) {
+            log.error("Validierungsfehler beim Angebots-Export: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("Starte Angebots-Export im Format {}", exportFormat);
+
+        List<String> csvColumns = new ArrayList<>(OFFER_COLUMNS);
+        csvColumns.addAll(OFFER_ITEM_COLUMNS);
+
+        StreamingResponseBody body = outputStream -> {
+            ExportWriter writer = new ExportWriter(exportFormat, outputStream, objectMapper, csvColumns);
+            exportService.exportOffers((offer, items) -> writeOffer(writer, offer, items));
+            writer.flush();
+        };
+        return streamingResponse(body, exportFormat, "offers");
+    }
+
+    private void writeOffer(ExportWriter writer, Offer offer, List<OfferItem> items) {
+        Map<String, Object> offerRecord = toExportRecord(offer);
+        if (writer.getFormat() == ExportFormat.NDJSON) {
+            offerRecord.put("items", items.stream().map(this::toExportRecord).toList());
+            writer.write(offerRecord);
+        } else if (items.isEmpty()) {
+            writer.write(offerRecord);
+        } else {
+            for (OfferItem item : items) {
+                Map<String, Object> row = new LinkedHashMap<>(offerRecord);
+                toExportRecord(item).forEach((key, value) ->
+                        row.put("item" + Character.toUpperCase(key.charAt(0)) + key.substring(1), value));
+                writer.write(row);
+            }
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamingResponse(StreamingResponseBody body, ExportFormat format, String name) {
+        String filename = name + "-" + LocalDate.now() + "." + format.getFileExtension();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // Mapping-Methoden
+    private Map<String, Object> toExportRecord(Customer customer) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", customer.getId());
+        record.put("firstName", customer.getFirstName());
+        record.put("lastName", customer.getLastName());
+        record.put("email", customer.getEmail());
+        record.put("phone", customer.getPhone());
+        record.put("mobile", customer.getMobile());
+        record.put("companyName", customer.getCompanyName());
+        record.put("position", customer.getPosition());
+        record.put("department", customer.getDepartment());
+        record.put("street", customer.getStreet());
+        record.put("houseNumber", customer.getHouseNumber());
+        record.put("postalCode", customer.getPostalCode());
+        record.put("city", customer.getCity());
+        record.put("country", customer.getCountry());
+        record.put("website", customer.getWebsite());
+        record.put("status", customer.getStatus());
+        record.put("priority", customer.getPriority());
+        record.put("source", customer.getSource());
+        record.put("tags", customer.getTags());
+        record.put("notes", customer.getNotes());
+        record.put("createdAt", customer.getCreatedAt());
+        record.put("updatedAt", customer.getUpdatedAt());
+        record.put("lastContact", customer.getLastContact());
+        record.put("createdById", customer.getCreatedBy() != null ? customer.getCreatedBy().getId() : null);
+        record.put("assignedToId", customer.getAssignedTo() != null ? customer.getAssignedTo().getId() : null);
+        return record;
+    }
+
+    private Map<String, Object> toExportRecord(Offer offer) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", offer.getId());
+        record.put("offerNumber", offer.getOfferNumber());
+        record.put("title", offer.getTitle());
+        record.put("description", offer.getDescription());
+        record.put("validUntil", offer.getValidUntil());
+        record.put("status", offer.getStatus());
+        record.put("netAmount", offer.getNetAmount());
+        record.put("taxAmount", offer.getTaxAmount());
+        record.put("grossAmount", offer.getGrossAmount());
+        record.put("discountPercentage", offer.getDiscountPercentage());
+        record.put("discountAmount", offer.getDiscountAmount());
+        record.put("finalAmount", offer.getFinalAmount());
+        record.put("customerId", offer.getCustomer() != null ? offer.getCustomer().getId() : null);
+        record.put("customerName", offer.getCustomer() != null ? offer.getCustomer().getFullName() : null);
+        record.put("createdById", offer.getCreatedBy() != null ? offer.getCreatedBy().getId() : null);
+        record.put("createdAt", offer.getCreatedAt());
+        record.put("updatedAt", offer.getUpdatedAt());
+        record.put("sentAt", offer.getSentAt());
+        record.put("paidAt", offer.getPaidAt());
+        return record;
+    }
+
+    private Map<String, Object> toExportRecord(OfferItem item) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", item.getId());
+        record.put("description", item.getDescription());
+        record.put("quantity", item.getQuantity());
+        record.put("unitPrice", item.getUnitPrice());
+        record.put("taxRate", item.getTaxRate());
+        record.put("netAmount", item.getNetAmount());
+        record.put("taxAmount", item.getTaxAmount());
+        record.put("grossAmount", item.getGrossAmount());
+        return record;
+    }
+}
@@ -3,13 +3,18 @@ package eu.pierix.crmv3.web;
 import eu.pierix.crmv3.application.OfferService;
 import eu.pierix.crmv3.application.CustomerService;
 import eu.pierix.crmv3.domain.*;
+import eu.pierix.crmv3.infrastructure.KeysetPage;
+import eu.pierix.crmv3.infrastructure.KeysetPageRequest;
+import eu.pierix.crmv3.web.dto.CursorPageResponse;
 import eu.pierix.crmv3.web.dto.OfferItemResponse;
 import eu.pierix.crmv3.web.dto.OfferRequest;
 import eu.pierix.crmv3.web.dto.OfferResponse;
+import eu.pierix.crmv3.web.dto.OfferStatisticsResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -75,31 +80,30 @@ public class OfferController {
 
     @PutMapping("/{id}")
     public ResponseEntity<OfferResponse> updateOffer(@PathVariable Long id, @RequestBody OfferRequest request) {
-        return offerService.findById(id)
-                .map(offer -> {
-                    offer.setTitle(request.getTitle());
-                    offer.setDescription(request.getDescription());
-                    offer.setValidUntil(request.getValidUntil());
-                    offer.setStatus(request.getStatus());
-                    offer.setDiscountPercentage(request.getDiscountPercentage());
-                    
-                    // Positionen aktualisieren
-                    offer.getItems().clear();
-                    if (request.getItems() != null) {
-                        request.getItems().forEach(itemRequest -> {
-                            OfferItem item = OfferItem.builder()
-                                    .description(itemRequest.getDescription())
-                                    .quantity(itemRequest.getQuantity())
-                                    .unitPrice(itemRequest.getUnitPrice())
-                                    .taxRate(itemRequest.getTaxRate())
-                                    .build();
-                            offer.addItem(item);
-                        });
-                    }
-                    
-                    Offer updatedOffer = offerService.updateOffer(offer);
-                    return ResponseEntity.ok(mapToResponse(updatedOffer));
-                })
+        Offer changes = Offer.builder()
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .validUntil(request.getValidUntil())
+                .status(request.getStatus())
+                .discountPercentage(request.getDiscountPercentage())
+                .build();
+
+        // Positionen aktualisieren
+        if (request.getItems() != null) {
+            request.getItems().forEach(itemRequest -> {
+                OfferItem item = OfferItem.builder()
+                        .description(itemRequest.getDescription())
+                        .quantity(itemRequest.getQuantity())
+                        .unitPrice(itemRequest.getUnitPrice())
+                        .taxRate(itemRequest.getTaxRate())
+                        .build();
+                changes.addItem(item);
+            });
+        }
+
+        return offerService.updateOffer(id, changes)
+                .map(this::mapToResponse)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -126,6 +130,27 @@ public class OfferController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<OfferResponse>> scrollOffers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) OfferStatus status,
+            @RequestParam(required = false) Long createdById) {
+
+        try {
+            KeysetPageRequest pageRequest = new KeysetPageRequest(
+                    sortBy, Sort.Direction.fromString(sortDirection), cursor, size, includeTotal);
+            KeysetPage<Offer> offers = offerService.searchOffers(customerId, status, createdById, pageRequest);
+            return ResponseEntity.ok(CursorPageResponse.of(offers, this::mapToResponse));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/{id}/send")
     public ResponseEntity<OfferResponse> markAsSent(@PathVariable Long id) {
         Offer offer = offerService.markAsSent(id);
@@ -153,6 +178,14 @@ public class OfferController {
         return ResponseEntity.ok(statistics);
     }
 
+    /**
+     * Anzahl, Summe der Endbeträge und durchschnittlicher Rabatt je Status (eine Aggregat-Abfrage)
+     */
+    @GetMapping("/statistics/summary")
+    public ResponseEntity<OfferStatisticsResponse> getOfferStatisticsSummary() {
+        return ResponseEntity.ok(offerService.getOfferStatistics());
+    }
+
     private OfferResponse mapToResponse(Offer offer) {
         return OfferResponse.builder()
                 .id(offer.getId())
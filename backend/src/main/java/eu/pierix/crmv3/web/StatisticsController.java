@@ -1,14 +1,38 @@
 package eu.pierix.crmv3.web;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.pierix.crmv3.application.CustomerStatusHistory;
+import eu.pierix.crmv3.application.DailyStatsRollup;
+import eu.pierix.crmv3.application.PipelineAnalyticsService;
+import eu.pierix.crmv3.application.RevenuePeriod;
+import eu.pierix.crmv3.application.StatisticsCache;
 import eu.pierix.crmv3.application.StatisticsService;
+import eu.pierix.crmv3.application.TimeSeriesGranularity;
+import eu.pierix.crmv3.application.TimeSeriesMetric;
+import eu.pierix.crmv3.application.UserDetailsCache;
+import eu.pierix.crmv3.web.dto.PipelineAnalyticsResponse;
+import eu.pierix.crmv3.web.dto.RevenueResponse;
 import eu.pierix.crmv3.web.dto.StatisticsResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
 
 /**
  * Controller für CRM-Statistiken
@@ -20,9 +44,15 @@ import org.springframework.web.bind.annotation.RestController;
 public class StatisticsController {
 
     private final StatisticsService statisticsService;
+    private final DailyStatsRollup dailyStatsRollup;
+    private final StatisticsCache statisticsCache;
+    private final PipelineAnalyticsService pipelineAnalyticsService;
+    private final CustomerStatusHistory customerStatusHistory;
+    private final UserDetailsCache userDetailsCache;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Lädt alle CRM-Statistiken
+     * Lädt alle CRM-Statistiken (aus dem Statistik-Cache, siehe {@link StatisticsCache})
      * 
      * @return Statistiken für Dashboard
      */
@@ -32,7 +62,7 @@ public class StatisticsController {
         try {
             log.info("Statistiken werden angefordert");
             
-            StatisticsResponse statistics = statisticsService.getStatistics();
+            StatisticsResponse statistics = statisticsCache.getStatistics();
             
             log.info("Statistiken erfolgreich geladen");
             return ResponseEntity.ok(statistics);
@@ -42,4 +72,189 @@ public class StatisticsController {
             return ResponseEntity.internalServerError().build();
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Lädt die Kennzahlen des Statistik-Caches
+     *
+     * @return Treffer, Fehlschläge und Dauer der Neuberechnungen
+     */
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StatisticsCache.CacheStats> getCacheStats() {
+        return ResponseEntity.ok(statisticsCache.getStats());
+    }
+
+    /**
+     * Lädt die Kennzahlen des Benutzer-Caches der Authentifizierung
+     *
+     * @return Treffer, Fehlschläge, Trefferquote und Invalidierungen
+     */
+    @GetMapping("/user-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserDetailsCache.UserCacheStats> getUserCacheStats() {
+        return ResponseEntity.ok(userDetailsCache.getStats());
+    }
+
+    /**
+     * Lädt die Laufzeiten der parallel berechneten Statistik-Abschnitte
+     *
+     * @return Aufrufe sowie letzte, mittlere und maximale Dauer je Abschnitt
+     */
+    @GetMapping("/timings")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, StatisticsService.SectionTiming>> getSectionTimings() {
+        return ResponseEntity.ok(statisticsService.getSectionTimings());
+    }
+
+    /**
+     * Lädt Umsatz und Anzahl bezahlter Angebote je Zeitraum
+     *
+     * @param from Startdatum (Standard: Beginn des Monats vor elf Monaten)
+     * @param to Enddatum inklusive (Standard: heute)
+     * @param period Raster DAY, MONTH oder YEAR (Standard: MONTH)
+     * @return Umsätze je Zeitraum und Gesamtsumme
+     */
+    @GetMapping("/revenue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RevenueResponse> getRevenue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "MONTH") RevenuePeriod period) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusMonths(11).withDayOfMonth(1);
+            log.info("Umsätze von {} bis {} ({}) werden angefordert", start, end, period);
+
+            return ResponseEntity.ok(statisticsService.getRevenue(start, end, period));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Ungültige Umsatzabfrage: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Fehler beim Laden der Umsätze: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Lädt eine Zeitreihe einer Kennzahl; die Antwort wird Punkt für Punkt gestreamt
+     *
+     * @param from Startdatum (Standard: Beginn des Monats vor elf Monaten)
+     * @param to Enddatum inklusive (Standard: heute)
+     * @param granularity Raster day, week, month (Standard) oder quarter
+     * @param metric Kennzahl revenue (Standard), paid_offers, new_customers, won_leads, lost_leads oder conversion_rate
+     * @return Zeitreihe mit einem Punkt je Zeitraum und Gesamtwert
+     */
+    @GetMapping("/timeseries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> getTimeSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(defaultValue = "revenue") String metric) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusMonths(11).withDayOfMonth(1);
+        TimeSeriesGranularity timeSeriesGranularity;
+        TimeSeriesMetric timeSeriesMetric;
+        try {
+            timeSeriesGranularity = TimeSeriesGranularity.fromString(granularity);
+            timeSeriesMetric = TimeSeriesMetric.fromString(metric);
+            statisticsService.validateTimeSeries(start, end, timeSeriesGranularity, timeSeriesMetric);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ungültige Zeitreihen-Abfrage: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Zeitreihe {} von {} bis {} ({}) wird angefordert", timeSeriesMetric, start, end, timeSeriesGranularity);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(outputStream)) {
+                json.writeStartObject();
+                json.writeStringField("from", start.toString());
+                json.writeStringField("to", end.toString());
+                json.writeStringField("granularity", timeSeriesGranularity.name());
+                json.writeStringField("metric", timeSeriesMetric.name());
+                json.writeArrayFieldStart("points");
+                BigDecimal total = statisticsService.streamTimeSeries(start, end, timeSeriesGranularity, timeSeriesMetric, point -> {
+                    try {
+                        json.writeObject(point);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+                json.writeNumberField("total", total);
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Lädt Verweildauer je Status, Übergänge zwischen Status und Durchsatz je Woche aus dem Status-Protokoll
+     *
+     * @param from Startdatum (Standard: Montag vor elf Wochen)
+     * @param to Enddatum inklusive (Standard: heute)
+     * @return Auswertungen der Statuswechsel im Zeitraum
+     */
+    @GetMapping("/pipeline")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PipelineAnalyticsResponse> getPipelineAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : TimeSeriesGranularity.WEEK.start(end).minusWeeks(11);
+            log.info("Pipeline-Auswertungen von {} bis {} werden angefordert", start, end);
+
+            return ResponseEntity.ok(pipelineAnalyticsService.getPipelineAnalytics(start, end));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Ungültige Abfrage der Pipeline-Auswertungen: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Fehler beim Laden der Pipeline-Auswertungen: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Lädt die Kennzahlen des Status-Protokolls
+     *
+     * @return Anzahl geschriebener Statuswechsel
+     */
+    @GetMapping("/status-history")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CustomerStatusHistory.HistoryStats> getStatusHistoryStats() {
+        return ResponseEntity.ok(customerStatusHistory.getStats());
+    }
+
+    /**
+     * Baut die tägliche Statistik-Verdichtung neu auf (Backfill nach Importen oder Datenkorrekturen)
+     *
+     * @param from Erster Tag (ohne Angabe: ältester Datensatz)
+     * @param to Letzter Tag inklusive (ohne Angabe: heute)
+     * @return Neu aufgebauter Zeitraum und Anzahl der Zeilen
+     */
+    @PostMapping("/rollup/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DailyStatsRollup.RebuildResult> rebuildRollup(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            log.info("Neuaufbau der Statistik-Verdichtung von {} bis {} angefordert", from, to);
+            return ResponseEntity.ok(dailyStatsRollup.rebuild(from, to));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Ungültiger Zeitraum für den Neuaufbau: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Neuaufbau der Statistik-Verdichtung nicht möglich: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Fehler beim Neuaufbau der Statistik-Verdichtung: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package eu.pierix.crmv3.web.dto;
+
+import eu.pierix.crmv3.infrastructure.KeysetPage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO für Seiten mit Cursor-Paginierung
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private Integer size;
+    private String nextCursor;
+    private Boolean hasNext;
+    // Nur gesetzt, wenn includeTotal angefordert wurde
+    private Long totalElements;
+
+    public static <S, T> CursorPageResponse<T> of(KeysetPage<S> page, Function<S, T> mapper) {
+        List<T> content = page.content().stream().map(mapper).toList();
+        return CursorPageResponse.<T>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(page.nextCursor())
+                .hasNext(page.hasNext())
+                .totalElements(page.totalElements())
+                .build();
+    }
+}
@@ -49,4 +49,10 @@ public class CustomerSearchRequest {
     @Pattern(regexp = "^(asc|desc)$", flags = Pattern.Flag.CASE_INSENSITIVE, message = "Sortierrichtung muss 'asc' oder 'desc' sein")
     @Builder.Default
     private String sortDirection = "desc";
+
+    // Cursor-Paginierung (nur für /search/scroll)
+    @Size(max = 512, message = "Cursor darf maximal 512 Zeichen lang sein")
+    private String cursor;
+    @Builder.Default
+    private Boolean includeTotal = false;
 } 
\ No newline at end of file
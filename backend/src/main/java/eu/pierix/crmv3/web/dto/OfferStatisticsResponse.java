@@ -0,0 +1,36 @@
+package eu.pierix.crmv3.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO für die Angebots-Kennzahlen je Status und insgesamt
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfferStatisticsResponse {
+
+    private Long totalOffers;
+    private BigDecimal totalFinalAmount;
+    private List<StatusStatistics> byStatus;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusStatistics {
+        private String status;
+        private String displayName;
+        private Long count;
+        private BigDecimal totalFinalAmount;
+        private BigDecimal averageDiscountPercentage;
+        private BigDecimal totalDiscountAmount;
+    }
+}
@@ -0,0 +1,68 @@
+package eu.pierix.crmv3.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO für die Auswertungen des Status-Protokolls: Verweildauer je Status, Übergänge zwischen Status
+ * und Durchsatz je Woche
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PipelineAnalyticsResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private List<StageDuration> timeInStage;
+    private List<StageConversion> conversions;
+    private List<WeeklyThroughput> weeklyThroughput;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StageDuration {
+        private String status;
+        private String displayName;
+        // Anzahl der Wechsel aus dem Status mit bekannter Verweildauer
+        private Long transitions;
+        private Double averageSeconds;
+        private Double medianSeconds;
+        private Double p90Seconds;
+        private Double p95Seconds;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StageConversion {
+        private String fromStatus;
+        private String toStatus;
+        private Long count;
+        // Anteil an allen Wechseln aus fromStatus in Prozent
+        private BigDecimal rate;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WeeklyThroughput {
+        // Bezeichnung der Woche, z.B. 2024-W20
+        private String week;
+        private LocalDate start;
+        // Eintritte je Status (Status-Name -> Anzahl)
+        private Map<String, Long> entered;
+        private Long total;
+    }
+}
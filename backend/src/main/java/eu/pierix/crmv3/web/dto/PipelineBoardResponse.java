@@ -0,0 +1,37 @@
+package eu.pierix.crmv3.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO für das Pipeline-Board: je Pipeline-Status die ersten Karten, die exakte Spaltengröße
+ * und ein Cursor zum Nachladen weiterer Karten
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PipelineBoardResponse {
+
+    private List<Column> columns;
+    private Long totalInPipeline;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Column {
+        private String status;
+        private String displayName;
+        // Anzahl aller Kunden im Status, nicht nur der geladenen Karten
+        private Long count;
+        private List<CustomerResponse> cards;
+        // Für GET /api/customers/pipeline/board/{status}?cursor=..., null wenn alle Karten geladen sind
+        private String nextCursor;
+        private Boolean hasNext;
+    }
+}
@@ -0,0 +1,42 @@
+package eu.pierix.crmv3.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO für Umsatzauswertungen nach Zeitraum
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private String period;
+
+    // Summen über den gesamten Zeitraum
+    private BigDecimal totalRevenue;
+    private Long paidOffers;
+
+    // Ein Eintrag je Zeitraum, auch ohne Umsatz
+    private List<PeriodRevenue> periods;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PeriodRevenue {
+        private String period;
+        private LocalDate start;
+        private BigDecimal revenue;
+        private Long paidOffers;
+    }
+}
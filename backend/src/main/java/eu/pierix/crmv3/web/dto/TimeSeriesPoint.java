@@ -0,0 +1,24 @@
+package eu.pierix.crmv3.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO für einen Punkt einer Zeitreihe (ein Zeitraum des Rasters)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSeriesPoint {
+
+    // Bezeichnung des Zeitraums, z.B. 2024-W20 oder 2024-Q2
+    private String period;
+    private LocalDate start;
+    private BigDecimal value;
+}
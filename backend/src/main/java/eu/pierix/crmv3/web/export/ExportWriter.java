@@ -0,0 +1,100 @@
+package eu.pierix.crmv3.web.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schreibt Datensätze zeilenweise als CSV oder NDJSON in einen Ausgabestrom.
+ *
+ * Jeder Datensatz wird sofort geschrieben; es werden keine Zeilen im Speicher gesammelt.
+ * Für CSV bestimmen die Spalten Reihenfolge und Kopfzeile, für NDJSON wird der Datensatz
+ * unverändert (inklusive verschachtelter Listen) als JSON-Objekt geschrieben.
+ */
+public class ExportWriter implements Flushable {
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+    private final List<String> csvColumns;
+
+    public ExportWriter(ExportFormat format, OutputStream outputStream, ObjectMapper objectMapper, List<String> csvColumns) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        this.objectMapper = objectMapper;
+        this.csvColumns = List.copyOf(csvColumns);
+        if (format == ExportFormat.CSV) {
+            writeLine(String.join(",", this.csvColumns.stream().map(ExportWriter::csvValue).toList()));
+        }
+    }
+
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Schreibt einen Datensatz; bei CSV werden nur die konfigurierten Spalten übernommen
+     */
+    public void write(Map<String, ?> record) {
+        try {
+            if (format == ExportFormat.CSV) {
+                writeLine(String.join(",", csvColumns.stream().map(column -> csvValue(record.get(column))).toList()));
+            } else {
+                writeLine(objectMapper.writeValueAsString(record));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fehler beim Schreiben des Exports", e);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeLine(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fehler beim Schreiben des Exports", e);
+        }
+    }
+
+    /**
+     * Formatiert einen Wert nach RFC 4180 (Anführungszeichen bei Trennzeichen, Zeilenumbrüchen oder Anführungszeichen).
+     * Texte, die Excel oder LibreOffice als Formel ausführen würden (Beginn mit =, +, -, @, Tab oder CR), erhalten ein
+     * vorangestelltes Hochkomma und werden immer in Anführungszeichen gesetzt; Zahlen bleiben unverändert.
+     */
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (!(value instanceof Number) && isFormula(text)) {
+            return "\"'" + text.replace("\"", "\"\"") + '"';
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static boolean isFormula(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char first = text.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+}
@@ -0,0 +1,148 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.TokenRepository;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import eu.pierix.crmv3.web.dto.AuthenticationRequest;
+import eu.pierix.crmv3.web.dto.AuthenticationResponse;
+import eu.pierix.crmv3.web.dto.RegisterRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-Tests für den Widerruf ausgegebener Tokens über die Token-Version.
+ *
+ * Läuft bewusst ohne Test-Transaktion: Anmeldung, Widerruf und Prüfung committen wie im Betrieb einzeln,
+ * und der Benutzer-Cache wird erst nach dem Commit endgültig invalidiert.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthenticationServiceIntegrationTest {
+
+    private static final String PASSWORD = "geheim123";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String username = "revoke" + System.nanoTime();
+        user = userService.registerUser(RegisterRequest.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password(PASSWORD)
+                .firstName("Revoke")
+                .lastName("User")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        transactionTemplate.executeWithoutResult(status -> tokenRepository.deleteAllUserTokens(user));
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void testLogoutRejectsEarlierToken() {
+        // Given
+        String accessToken = login().getAccessToken();
+        assertTrue(authenticationService.validateToken(accessToken));
+        assertTrue(authenticatesViaFilter(accessToken));
+
+        // When: Abmeldung auf allen Geräten
+        tokenService.revokeAllUserTokens(user);
+
+        // Then
+        assertFalse(authenticationService.validateToken(accessToken));
+        assertFalse(authenticatesViaFilter(accessToken));
+        assertTrue(authenticationService.validateToken(login().getAccessToken()));
+    }
+
+    @Test
+    void testPasswordChangeRejectsEarlierToken() {
+        // Given
+        String accessToken = login().getAccessToken();
+        assertTrue(authenticatesViaFilter(accessToken));
+
+        // When: Die Token-Einträge bleiben gültig, nur die Token-Version wird erhöht
+        userService.changePassword(user.getId(), "neuesGeheim123");
+
+        // Then
+        assertTrue(tokenService.isTokenValid(accessToken));
+        assertFalse(authenticationService.validateToken(accessToken));
+        assertFalse(authenticatesViaFilter(accessToken));
+    }
+
+    @Test
+    void testSavingStaleUserDoesNotUndoRevocation() {
+        // Given: Ein vor dem Widerruf geladener Stand des Benutzers
+        String accessToken = login().getAccessToken();
+        User stale = userRepository.findById(user.getId()).orElseThrow();
+        long versionBefore = stale.getTokenVersion();
+
+        // When: Widerruf, danach Anmeldung und Speichern des alten Stands
+        tokenService.revokeAllUserTokens(user);
+        login();
+        stale.setFirstName("Geändert");
+        userService.updateUser(stale);
+
+        // Then: Die erhöhte Token-Version bleibt erhalten
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(versionBefore + 1, reloaded.getTokenVersion());
+        assertNotNull(reloaded.getLastLogin());
+        assertFalse(authenticationService.validateToken(accessToken));
+    }
+
+    private AuthenticationResponse login() {
+        return authenticationService.authenticate(AuthenticationRequest.builder()
+                .usernameOrEmail(user.getUsername())
+                .password(PASSWORD)
+                .build());
+    }
+
+    private boolean authenticatesViaFilter(String token) {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        boolean authenticated = SecurityContextHolder.getContext().getAuthentication() != null;
+        SecurityContextHolder.clearContext();
+        return authenticated;
+    }
+}
@@ -0,0 +1,94 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für den Bloom-Filter der Kunden-Emails
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerEmailFilterTest {
+
+    private static final int EMAILS = 5_000;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @InjectMocks
+    private CustomerEmailFilter customerEmailFilter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(customerEmailFilter, "enabled", true);
+        ReflectionTestUtils.setField(customerEmailFilter, "expectedInsertions", 1_000L);
+        ReflectionTestUtils.setField(customerEmailFilter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(customerEmailFilter, "maxAge", Duration.ofHours(24));
+    }
+
+    @Test
+    void testAnswersMaybeUntilBuilt() {
+        assertFalse(customerEmailFilter.isReady());
+        assertTrue(customerEmailFilter.mightContain("irgendwer@example.com"));
+    }
+
+    @Test
+    void testNoFalseNegativesAndFewFalsePositives() {
+        List<String> emails = IntStream.range(0, EMAILS).mapToObj(i -> "kunde" + i + "@example.com").toList();
+        when(customerRepository.count()).thenReturn((long) EMAILS);
+        when(customerRepository.findMinId()).thenReturn(1L);
+        when(customerRepository.findMaxId()).thenReturn((long) EMAILS);
+        when(customerRepository.findNormalizedEmailsByIdBetween(1L, (long) EMAILS)).thenReturn(emails);
+
+        customerEmailFilter.rebuild();
+
+        assertTrue(customerEmailFilter.isReady());
+        emails.forEach(email -> assertTrue(customerEmailFilter.mightContain(email), email));
+
+        long falsePositives = IntStream.range(0, EMAILS)
+                .filter(i -> customerEmailFilter.mightContain("unbekannt" + i + "@example.org"))
+                .count();
+        // Erwartet ~1%, großzügige Schranke gegen Zufallsschwankungen
+        assertTrue(falsePositives < EMAILS * 0.03, "Fehlalarme: " + falsePositives);
+    }
+
+    @Test
+    void testSavedCustomersAreAddedImmediately() {
+        when(customerRepository.count()).thenReturn(0L);
+        customerEmailFilter.rebuild();
+        assertFalse(customerEmailFilter.mightContain("neu@example.com"));
+
+        customerEmailFilter.onCustomerSaved(Customer.builder().email("Neu@Example.com").build());
+
+        assertTrue(customerEmailFilter.mightContain("neu@example.com"));
+    }
+
+    @Test
+    void testRebuildsAfterManyRemovals() {
+        when(customerRepository.count()).thenReturn(0L);
+        customerEmailFilter.rebuild();
+
+        List<Customer> removed = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            removed.add(Customer.builder().email("weg" + i + "@example.com").build());
+        }
+        removed.forEach(customerEmailFilter::onCustomerRemoved);
+        customerEmailFilter.rebuildIfStale();
+
+        verify(customerRepository, times(2)).count();
+    }
+}
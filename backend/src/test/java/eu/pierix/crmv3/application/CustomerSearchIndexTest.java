@@ -0,0 +1,80 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für den In-Memory-Suchindex
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerSearchIndexTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @InjectMocks
+    private CustomerSearchIndex customerSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(customerSearchIndex, "enabled", true);
+        ReflectionTestUtils.setField(customerSearchIndex, "maxDocuments", 1000L);
+        ReflectionTestUtils.setField(customerSearchIndex, "buildThreads", 2);
+
+        when(customerRepository.count()).thenReturn(3L);
+        when(customerRepository.findMinId()).thenReturn(1L);
+        when(customerRepository.findMaxId()).thenReturn(3L);
+        when(customerRepository.findSearchFieldsByIdBetween(1L, 3L)).thenReturn(List.of(
+                new Object[]{1L, "Max", "Mustermann", "max@example.com", "Musterfirma GmbH", "Berlin"},
+                new Object[]{2L, "Anna", "Schmidt", "anna.schmidt@techcorp.com", "TechCorp Solutions", "Hamburg"},
+                new Object[]{3L, "Peter", "Maxwell", "peter@example.com", null, "München"}
+        ));
+
+        customerSearchIndex.rebuild();
+    }
+
+    @Test
+    void testSearchFindsSubstringsCaseInsensitive() {
+        assertTrue(customerSearchIndex.isReady());
+        assertEquals(List.of(1L, 3L), customerSearchIndex.search(CustomerSearchIndex.Field.NAME, "MAX"));
+        assertEquals(List.of(2L), customerSearchIndex.search(CustomerSearchIndex.Field.EMAIL, "schmidt@tech"));
+        assertEquals(List.of(1L), customerSearchIndex.search(CustomerSearchIndex.Field.COMPANY, "gmbh"));
+        assertEquals(List.of(3L), customerSearchIndex.search(CustomerSearchIndex.Field.CITY, "mü"));
+    }
+
+    @Test
+    void testSearchDoesNotMatchAcrossFirstAndLastName() {
+        // "xmu" würde nur über die Grenze von "Max" und "Mustermann" passen
+        assertTrue(customerSearchIndex.search(CustomerSearchIndex.Field.NAME, "xmu").isEmpty());
+    }
+
+    @Test
+    void testIndexFollowsUpdatesAndDeletes() {
+        Customer renamed = Customer.builder()
+                .id(2L)
+                .firstName("Anna")
+                .lastName("Schneider")
+                .email("anna@example.com")
+                .city("Hamburg")
+                .build();
+
+        customerSearchIndex.onCustomerSaved(renamed);
+        customerSearchIndex.onCustomerRemoved(1L);
+
+        assertTrue(customerSearchIndex.search(CustomerSearchIndex.Field.NAME, "schmidt").isEmpty());
+        assertEquals(List.of(2L), customerSearchIndex.search(CustomerSearchIndex.Field.NAME, "schneider"));
+        assertEquals(List.of(3L), customerSearchIndex.search(CustomerSearchIndex.Field.NAME, "max"));
+    }
+}
@@ -4,6 +4,9 @@ import eu.pierix.crmv3.domain.Customer;
 import eu.pierix.crmv3.domain.CustomerStatus;
 import eu.pierix.crmv3.domain.User;
 import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.KeysetCursor;
+import eu.pierix.crmv3.infrastructure.KeysetPage;
+import eu.pierix.crmv3.infrastructure.KeysetPageRequest;
 import eu.pierix.crmv3.infrastructure.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,11 +14,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -130,6 +139,169 @@ class CustomerServiceIntegrationTest {
         assertEquals("Max", searchResults.getContent().get(0).getFirstName());
     }
 
+    @Test
+    void testCustomerSearchHonorsSort() {
+        // Given: Kunden mit unterschiedlichen Firmen in derselben Stadt
+        for (String company : List.of("Beta AG", "Alpha GmbH", "Gamma KG")) {
+            customerService.createCustomer(Customer.builder()
+                    .firstName("Sort")
+                    .lastName("Kunde")
+                    .email(company.replace(" ", "").toLowerCase() + "@example.com")
+                    .companyName(company)
+                    .city("Sortierstadt")
+                    .status(CustomerStatus.ACTIVE)
+                    .createdBy(testUser)
+                    .build(), testUser.getId());
+        }
+
+        // When: Suche absteigend nach Firmenname sortiert
+        Page<Customer> result = customerService.searchCustomers(null, null, null, "Sortierstadt", null,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "companyName")));
+
+        // Then: Reihenfolge kommt aus der Datenbank
+        assertEquals(List.of("Gamma KG", "Beta AG", "Alpha GmbH"),
+                result.getContent().stream().map(Customer::getCompanyName).toList());
+    }
+
+    @Test
+    void testCustomerSearchRejectsUnknownSortField() {
+        assertThrows(IllegalArgumentException.class, () -> customerService.searchCustomers(null, null, null, null, null,
+                PageRequest.of(0, 10, Sort.by("internalNotes"))));
+    }
+
+    @Test
+    void testCustomerSearchWithCursorPagination() {
+        // Given: Fünf Kunden, zwei davon mit gleichem Nachnamen
+        for (String lastName : List.of("Becker", "Arnold", "Becker", "Dietrich", "Christ")) {
+            customerService.createCustomer(Customer.builder()
+                    .firstName("Test")
+                    .lastName(lastName)
+                    .email(lastName.toLowerCase() + System.nanoTime() + "@example.com")
+                    .city("Keysetstadt")
+                    .status(CustomerStatus.ACTIVE)
+                    .createdBy(testUser)
+                    .build(), testUser.getId());
+        }
+
+        // When: Alle Seiten werden mit Seitengröße 2 über den Cursor gelesen
+        List<String> lastNames = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        String cursor = null;
+        Long totalElements = null;
+        do {
+            KeysetPage<Customer> page = customerService.searchCustomers(null, null, null, "Keysetstadt", null,
+                    new KeysetPageRequest("lastName", Sort.Direction.ASC, cursor, 2, cursor == null));
+            if (cursor == null) {
+                totalElements = page.totalElements();
+            }
+            page.content().forEach(customer -> {
+                lastNames.add(customer.getLastName());
+                ids.add(customer.getId());
+            });
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // Then: Jeder Kunde genau einmal, in Sortierreihenfolge
+        assertEquals(5L, totalElements);
+        assertEquals(5, ids.size());
+        assertEquals(List.of("Arnold", "Becker", "Becker", "Christ", "Dietrich"), lastNames);
+    }
+
+    @Test
+    void testCustomerSearchWithCursorRejectsMismatchedSort() {
+        // Given: Cursor aus einer Sortierung nach Nachname
+        String cursor = new KeysetCursor("lastName", Sort.Direction.ASC, 1L, "Becker").encode();
+
+        // When / Then: Wiederverwendung mit anderer Sortierung wird abgelehnt
+        assertThrows(IllegalArgumentException.class, () -> customerService.searchCustomers(null, null, null, null, null,
+                new KeysetPageRequest("createdAt", Sort.Direction.DESC, cursor, 20, false)));
+    }
+
+    @Test
+    void testCustomerSearchWithCursorRejectsTamperedSortValue() {
+        // Given: Cursor mit passender Sortierung, aber unlesbarem Zeitstempel
+        String cursor = new KeysetCursor("createdAt", Sort.Direction.DESC, 1L, "kein-datum").encode();
+
+        // When / Then: Validierungsfehler statt Parse-Fehler
+        assertThrows(IllegalArgumentException.class, () -> customerService.searchCustomers(null, null, null, null, null,
+                new KeysetPageRequest("createdAt", Sort.Direction.DESC, cursor, 20, false)));
+    }
+
+    @Test
+    void testPipelineBoardWithColumnCursors() {
+        // Given: Drei neue verlorene Kunden zusätzlich zu den Beispieldaten
+        long lostBefore = customerService.findPipelineBoard(1).get(CustomerStatus.LOST).totalElements();
+        List<Long> createdIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            createdIds.add(customerService.createCustomer(Customer.builder()
+                    .firstName("Board")
+                    .lastName("Kunde " + i)
+                    .email("board" + i + System.nanoTime() + "@example.com")
+                    .status(CustomerStatus.LOST)
+                    .createdBy(testUser)
+                    .build(), testUser.getId()).getId());
+        }
+
+        // When: Board mit zwei Karten je Spalte laden
+        Map<CustomerStatus, KeysetPage<Customer>> board = customerService.findPipelineBoard(2);
+
+        // Then: Nur Pipeline-Spalten, exakte Anzahl und die neuesten Kunden zuerst
+        assertTrue(board.keySet().stream().allMatch(CustomerStatus::isPipelineStatus));
+        KeysetPage<Customer> lost = board.get(CustomerStatus.LOST);
+        assertEquals(lostBefore + 3, lost.totalElements());
+        assertEquals(List.of(createdIds.get(2), createdIds.get(1)), lost.content().stream().map(Customer::getId).toList());
+        assertTrue(lost.hasNext());
+
+        // When: Restliche Karten der Spalte über den Cursor nachladen
+        Set<Long> ids = lost.content().stream().map(Customer::getId).collect(Collectors.toCollection(HashSet::new));
+        String cursor = lost.nextCursor();
+        while (cursor != null) {
+            KeysetPage<Customer> page = customerService.findPipelineColumn(CustomerStatus.LOST, cursor, 2);
+            page.content().forEach(customer -> {
+                assertEquals(CustomerStatus.LOST, customer.getStatus());
+                assertTrue(ids.add(customer.getId()));
+            });
+            cursor = page.nextCursor();
+        }
+
+        // Then: Jede Karte genau einmal, insgesamt so viele wie gezählt
+        assertEquals(lost.totalElements(), ids.size());
+        assertThrows(IllegalArgumentException.class, () -> customerService.findPipelineColumn(CustomerStatus.ACTIVE, null, 2));
+    }
+
+    @Test
+    void testCustomerTagSearchAndCounts() {
+        // Given: Kunden mit komma-getrennten Tags in unterschiedlicher Schreibweise
+        customerService.createCustomer(taggedCustomer("zeta@example.com", "Zeta, Omikron"), testUser.getId());
+        customerService.createCustomer(taggedCustomer("hyperzeta@example.com", "Hyperzeta"), testUser.getId());
+        customerService.createCustomer(taggedCustomer("sigma@example.com", " omikron ,Sigma"), testUser.getId());
+
+        // When: Suche nach einem bzw. allen Tags
+        Page<Customer> anyTag = customerService.findCustomersByTags(List.of("zeta", "sigma"), false, PageRequest.of(0, 10));
+        Page<Customer> allTags = customerService.findCustomersByTags(List.of("Omikron", "ZETA"), true, PageRequest.of(0, 10));
+        List<Customer> singleTag = customerService.findCustomersByTag("Zeta");
+        Map<String, Long> counts = customerService.countCustomersByTagGrouped();
+
+        // Then: Exakte Treffer ohne Teilstring-Fehltreffer ("Hyperzeta")
+        assertEquals(Set.of("zeta@example.com", "sigma@example.com"),
+                anyTag.getContent().stream().map(Customer::getEmail).collect(Collectors.toSet()));
+        assertEquals(List.of("zeta@example.com"), allTags.getContent().stream().map(Customer::getEmail).toList());
+        assertEquals(List.of("zeta@example.com"), singleTag.stream().map(Customer::getEmail).toList());
+        assertEquals(2L, counts.get("Omikron"));
+        assertEquals(1L, counts.get("Hyperzeta"));
+    }
+
+    private Customer taggedCustomer(String email, String tags) {
+        return Customer.builder()
+                .firstName("Tag")
+                .lastName("Kunde")
+                .email(email)
+                .tags(tags)
+                .status(CustomerStatus.ACTIVE)
+                .createdBy(testUser)
+                .build();
+    }
+
     @Test
     void testCustomerStatistics() {
         // Given: Kunden mit verschiedenen Status und Städten
@@ -187,4 +359,16 @@ class CustomerServiceIntegrationTest {
         assertEquals(2, customersByCity.size()); // Berlin (2), Hamburg (1)
         assertEquals(2, customersBySource.size()); // Website (2), Empfehlung (1)
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testEmailExistsMatchesExactlyIgnoringCase() {
+        // Given: Gespeicherter Kunde (im Email-Filter schon vor dem Flush eingetragen)
+        testCustomer.setEmail("exakt.treffer@example.com");
+        customerService.createCustomer(testCustomer, testUser.getId());
+
+        // When/Then: Nur die vollständige Email zählt, Groß-/Kleinschreibung und Leerzeichen nicht
+        assertTrue(customerService.emailExists(" Exakt.Treffer@Example.com"));
+        assertFalse(customerService.emailExists("exakt.treffer@example"));
+        assertFalse(customerService.emailExists("treffer@example.com"));
+    }
+}
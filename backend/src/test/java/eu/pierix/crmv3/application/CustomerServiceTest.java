@@ -37,6 +37,18 @@ class CustomerServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Mock
+    private CustomerTagService customerTagService;
+
+    @Mock
+    private CustomerEmailFilter customerEmailFilter;
+
+    @Mock
+    private StatusCounters statusCounters;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -109,4 +121,36 @@ class CustomerServiceTest {
         verify(customerRepository).findById(1L);
         verify(customerRepository).save(any(Customer.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testEmailExistsSkipsDatabaseWhenFilterExcludesEmail() {
+        // Given: Email-Filter schließt die Email sicher aus
+        when(customerEmailFilter.mightContain("neu@example.com")).thenReturn(false);
+
+        // When/Then: Keine Datenbank-Abfrage
+        assertFalse(customerService.emailExists(" Neu@Example.com "));
+        verify(customerRepository, never()).existsByNormalizedEmail(any());
+    }
+
+    @Test
+    void testEmailExistsChecksExactMatchWhenFilterMightContainEmail() {
+        // Given: Email-Filter kann die Email nicht ausschließen
+        when(customerEmailFilter.mightContain("max@example.com")).thenReturn(true);
+        when(customerRepository.existsByNormalizedEmail("max@example.com")).thenReturn(true);
+
+        // When/Then: Exakte Prüfung mit normalisierter Email
+        assertTrue(customerService.emailExists("MAX@example.com"));
+        verify(customerRepository).existsByNormalizedEmail("max@example.com");
+        verify(customerRepository, never()).findByEmailContainingIgnoreCase(any());
+    }
+
+    @Test
+    void testEmailExistsAsksDatabaseForNonAsciiEmail() {
+        // Given: Email-Filter würde die Email ausschließen, Java und Datenbank normalisieren Umlaute aber evtl. anders
+        when(customerRepository.existsByNormalizedEmail("jürgen@example.com")).thenReturn(true);
+
+        // When/Then: Die Datenbank entscheidet
+        assertTrue(customerService.emailExists("Jürgen@example.com"));
+        verify(customerEmailFilter, never()).mightContain(any());
+    }
+}
@@ -0,0 +1,174 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.CustomerStatusTransition;
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.CustomerStatusTransitionRepository;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import eu.pierix.crmv3.web.dto.PipelineAnalyticsResponse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-Tests für das Protokoll der Kunden-Statuswechsel und dessen Auswertungen.
+ *
+ * Läuft bewusst ohne Test-Transaktion, da Statuswechsel erst mit dem Commit ihrer Transaktion protokolliert werden.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerStatusHistoryIntegrationTest {
+
+    // Zeitraum ohne Beispieldaten für die direkt angelegten Wechsel
+    private static final LocalDate WEEK_START = LocalDate.of(2001, 1, 1);
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerStatusHistory customerStatusHistory;
+
+    @Autowired
+    private PipelineAnalyticsService pipelineAnalyticsService;
+
+    @Autowired
+    private CustomerStatusTransitionRepository transitionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<CustomerStatusTransition> savedTransitions = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        transitionRepository.deleteAll(savedTransitions);
+    }
+
+    @Test
+    void testStatusChangesAreRecordedWithStageDuration() {
+        // Given: Ein neuer Kunde durchläuft die Pipeline
+        Customer customer = createCustomer();
+        customerService.changeCustomerStatus(customer.getId(), CustomerStatus.CONTACTED);
+        customerService.changeCustomerStatus(customer.getId(), CustomerStatus.OFFER_CREATED);
+        customerService.changeCustomerStatus(customer.getId(), CustomerStatus.LOST);
+
+        // Then: Anlage und jeder Wechsel sind mit dem Commit protokolliert, Verweildauern ab dem ersten Wechsel bekannt
+        List<CustomerStatusTransition> history = transitionRepository.findByCustomerIdOrderByChangedAtAscIdAsc(customer.getId());
+        savedTransitions.addAll(history);
+        assertEquals(List.of(CustomerStatus.NEW, CustomerStatus.CONTACTED, CustomerStatus.OFFER_CREATED, CustomerStatus.LOST),
+                history.stream().map(CustomerStatusTransition::getToStatus).toList());
+        assertNull(history.get(0).getFromStatus());
+        assertNull(history.get(0).getStageDurationSeconds());
+        assertEquals(CustomerStatus.OFFER_CREATED, history.get(3).getFromStatus());
+        history.subList(1, 4).forEach(transition -> assertNotNull(transition.getStageDurationSeconds()));
+        assertTrue(customerStatusHistory.getStats().written() >= 4);
+    }
+
+    @Test
+    void testRolledBackStatusChangeIsNotRecorded() {
+        // Given
+        Customer customer = createCustomer();
+
+        // When: Der Statuswechsel wird geflusht, die Transaktion aber zurückgerollt
+        transactionTemplate.executeWithoutResult(status -> {
+            customerService.changeCustomerStatus(customer.getId(), CustomerStatus.CONTACTED);
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+
+        // Then: Nur die Anlage ist protokolliert
+        List<CustomerStatusTransition> history = transitionRepository.findByCustomerIdOrderByChangedAtAscIdAsc(customer.getId());
+        savedTransitions.addAll(history);
+        assertEquals(List.of(CustomerStatus.NEW), history.stream().map(CustomerStatusTransition::getToStatus).toList());
+    }
+
+    @Test
+    void testAnalyticsAggregateTransitionsOfRange() {
+        // Given: Vier Kunden verlassen CONTACTED nach 10, 20, 30 und 40 Sekunden, drei davon in Richtung OFFER_CREATED
+        LocalDateTime monday = WEEK_START.atTime(12, 0);
+        saveTransition(1L, CustomerStatus.CONTACTED, CustomerStatus.OFFER_CREATED, monday, 10L);
+        saveTransition(2L, CustomerStatus.CONTACTED, CustomerStatus.OFFER_CREATED, monday.plusDays(1), 20L);
+        saveTransition(3L, CustomerStatus.CONTACTED, CustomerStatus.OFFER_CREATED, monday.plusDays(7), 30L);
+        saveTransition(4L, CustomerStatus.CONTACTED, CustomerStatus.LOST, monday.plusDays(8), 40L);
+        saveTransition(5L, null, CustomerStatus.NEW, monday.plusDays(8), null);
+
+        // When
+        PipelineAnalyticsResponse analytics = pipelineAnalyticsService.getPipelineAnalytics(WEEK_START, WEEK_START.plusDays(13));
+
+        // Then: Verweildauer nur für CONTACTED
+        assertEquals(1, analytics.getTimeInStage().size());
+        PipelineAnalyticsResponse.StageDuration contacted = analytics.getTimeInStage().get(0);
+        assertEquals("CONTACTED", contacted.getStatus());
+        assertEquals(4L, contacted.getTransitions());
+        assertEquals(25.0, contacted.getAverageSeconds(), 0.001);
+        assertEquals(25.0, contacted.getMedianSeconds(), 0.001);
+
+        // Then: Übergänge mit Anteil an allen Wechseln aus CONTACTED
+        assertEquals(2, analytics.getConversions().size());
+        PipelineAnalyticsResponse.StageConversion toOffer = analytics.getConversions().get(0);
+        assertEquals("OFFER_CREATED", toOffer.getToStatus());
+        assertEquals(3L, toOffer.getCount());
+        assertEquals(0, new BigDecimal("75.00").compareTo(toOffer.getRate()));
+
+        // Then: Zwei Wochen mit Eintritten je Status
+        assertEquals(2, analytics.getWeeklyThroughput().size());
+        assertEquals("2001-W01", analytics.getWeeklyThroughput().get(0).getWeek());
+        assertEquals(2L, analytics.getWeeklyThroughput().get(0).getTotal());
+        assertEquals(3L, analytics.getWeeklyThroughput().get(1).getTotal());
+        assertEquals(1L, analytics.getWeeklyThroughput().get(1).getEntered().get("NEW"));
+    }
+
+    @Test
+    void testAnalyticsRejectInvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> pipelineAnalyticsService.getPipelineAnalytics(WEEK_START, WEEK_START.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> pipelineAnalyticsService.getPipelineAnalytics(WEEK_START, WEEK_START.plusYears(6)));
+    }
+
+    private Customer createCustomer() {
+        User user = userRepository.save(User.builder()
+                .username("history" + System.nanoTime())
+                .email("history" + System.nanoTime() + "@example.com")
+                .password("password")
+                .firstName("History")
+                .lastName("User")
+                .build());
+        return customerService.createCustomer(Customer.builder()
+                .firstName("Protokoll")
+                .lastName("Kunde")
+                .email("protokoll" + System.nanoTime() + "@example.com")
+                .status(CustomerStatus.NEW)
+                .createdBy(user)
+                .build(), user.getId());
+    }
+
+    private void saveTransition(Long customerId, CustomerStatus from, CustomerStatus to, LocalDateTime changedAt, Long duration) {
+        savedTransitions.add(transitionRepository.save(CustomerStatusTransition.builder()
+                .customerId(customerId)
+                .fromStatus(from)
+                .toStatus(to)
+                .changedAt(changedAt)
+                .stageDurationSeconds(duration)
+                .build()));
+    }
+}
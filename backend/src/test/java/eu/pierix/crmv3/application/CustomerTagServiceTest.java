@@ -0,0 +1,80 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Tag;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für das Auflösen und Anlegen von Kunden-Tags
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerTagServiceTest {
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CustomerTagService customerTagService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.getTransactionManager()).thenReturn(transactionManager);
+    }
+
+    @Test
+    void testUsesTagCreatedConcurrentlyByAnotherRequest() {
+        // Given: Tag fehlt beim ersten Lesen, ein paralleler Request legt ihn vor uns an
+        Tag winner = Tag.builder().id(7L).name("Neu").normalizedName("neu").build();
+        when(tagRepository.findByNormalizedNameIn(any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(winner));
+        when(tagRepository.saveAndFlush(any(Tag.class)))
+                .thenThrow(new DataIntegrityViolationException("idx_tags_normalized_name"));
+
+        // When: Tags werden aufgelöst
+        Set<Tag> resolved = customerTagService.resolveTags("Neu");
+
+        // Then: Kein Fehler, der Tag des anderen Requests wird verwendet
+        assertEquals(Set.of(winner), resolved);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testSkipsTooLongTagInsteadOfFailing() {
+        // Given: Ein Alt-Eintrag mit überlangem Tag neben einem gültigen
+        Tag valid = Tag.builder().id(1L).name("Kurz").normalizedName("kurz").build();
+        when(tagRepository.findByNormalizedNameIn(Set.of("kurz"))).thenReturn(List.of(valid));
+
+        // When: Tags werden aufgelöst
+        Set<Tag> resolved = customerTagService.resolveTags("x".repeat(101) + ", Kurz");
+
+        // Then: Nur der gültige Tag bleibt übrig
+        assertEquals(Set.of(valid), resolved);
+        verify(tagRepository, never()).saveAndFlush(any(Tag.class));
+    }
+}
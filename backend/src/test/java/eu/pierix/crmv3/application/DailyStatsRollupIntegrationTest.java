@@ -0,0 +1,178 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.DailyStat;
+import eu.pierix.crmv3.domain.LeadSource;
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferStatus;
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.DailyStatRepository;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import eu.pierix.crmv3.web.dto.StatisticsResponse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-Tests für die tägliche Statistik-Verdichtung
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class DailyStatsRollupIntegrationTest {
+
+    // Ein Tag ohne Beispieldaten, damit die Verdichtung nur die Testdaten enthält
+    private static final LocalDate DAY = LocalDate.of(2020, 3, 15);
+
+    @Autowired
+    private DailyStatsRollup dailyStatsRollup;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private DailyStatRepository dailyStatRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .username("rollupuser")
+                .email("rollupuser@example.com")
+                .password("password")
+                .firstName("Rollup")
+                .lastName("User")
+                .build());
+
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Rolf")
+                .lastName("Rollup")
+                .email("rolf.rollup@example.com")
+                .status(CustomerStatus.CONTACTED)
+                .leadSource(LeadSource.TRADE_FAIR)
+                .createdBy(user)
+                .build());
+        customerRepository.save(Customer.builder()
+                .firstName("Rita")
+                .lastName("Rollup")
+                .email("rita.rollup@example.com")
+                .status(CustomerStatus.WON)
+                .leadSource(LeadSource.TRADE_FAIR)
+                .createdBy(user)
+                .build());
+        offerRepository.save(Offer.builder()
+                .offerNumber("ROLLUP-1")
+                .title("Rollup-Angebot")
+                .status(OfferStatus.PAID)
+                .finalAmount(new BigDecimal("250.00"))
+                .customer(customer)
+                .createdBy(user)
+                .build());
+        entityManager.flush();
+
+        // Erstellungsdatum in die Vergangenheit verlegen (created_at ist nicht über JPA änderbar)
+        entityManager.createNativeQuery("UPDATE customers SET created_at = :createdAt WHERE last_name = 'Rollup'")
+                .setParameter("createdAt", DAY.atTime(10, 0))
+                .executeUpdate();
+        entityManager.createNativeQuery("UPDATE offers SET created_at = :createdAt WHERE offer_number = 'ROLLUP-1'")
+                .setParameter("createdAt", DAY.atTime(11, 0))
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    @Test
+    void testRebuildAggregatesDayByStatusLeadSourceAndOfferStatus() {
+        DailyStatsRollup.RebuildResult result = dailyStatsRollup.rebuild(DAY, DAY);
+
+        assertEquals(DAY, result.from());
+        assertEquals(3, result.rows());
+        List<DailyStat> stats = dailyStatsOfDay();
+        assertEquals(1L, count(stats, CustomerStatus.CONTACTED));
+        assertEquals(1L, count(stats, CustomerStatus.WON));
+        DailyStat paid = stats.stream().filter(stat -> stat.getOfferStatus() == OfferStatus.PAID).findFirst().orElseThrow();
+        assertEquals(1L, paid.getOfferCount());
+        assertEquals(0, new BigDecimal("250.00").compareTo(paid.getRevenue()));
+        assertTrue(stats.stream().filter(stat -> stat.getOfferStatus() == null)
+                .allMatch(stat -> stat.getLeadSource() == LeadSource.TRADE_FAIR));
+    }
+
+    @Test
+    void testUpdateRecomputesDaysOfChangedRows() {
+        dailyStatsRollup.rebuild(DAY, DAY);
+
+        // Status eines Kunden vom 15.03.2020 heute ändern (updated_at liegt nach dem Watermark)
+        Customer changed = customerRepository.findById(customer.getId()).orElseThrow();
+        changed.setStatus(CustomerStatus.WON);
+        customerRepository.save(changed);
+        entityManager.flush();
+
+        dailyStatsRollup.update();
+
+        List<DailyStat> stats = dailyStatsOfDay();
+        assertEquals(0L, count(stats, CustomerStatus.CONTACTED));
+        assertEquals(2L, count(stats, CustomerStatus.WON));
+    }
+
+    @Test
+    void testStatisticsCountCurrentStatusLiveDespiteStaleRollup() {
+        assertTrue(dailyStatsRollup.isReady());
+        dailyStatsRollup.rebuild(DAY, DAY);
+        StatisticsResponse before = statisticsService.getStatistics();
+
+        // Status eines Kunden vom 15.03.2020 ändern, ohne dass die Verdichtung nachgezogen wird
+        Customer changed = customerRepository.findById(customer.getId()).orElseThrow();
+        changed.setStatus(CustomerStatus.WON);
+        customerRepository.save(changed);
+        entityManager.flush();
+        StatisticsResponse after = statisticsService.getStatistics();
+
+        // Die Verteilung nach Status ist sofort aktuell, die Verdichtung noch nicht
+        assertEquals(before.getOverview().getTotalCustomers(), after.getOverview().getTotalCustomers());
+        assertEquals(1, after.getRevenue().getWonLeads() - before.getRevenue().getWonLeads());
+        assertEquals(1L, count(dailyStatsOfDay(), CustomerStatus.CONTACTED));
+    }
+
+    @Test
+    void testRebuildRejectsInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> dailyStatsRollup.rebuild(DAY, DAY.minusDays(1)));
+    }
+
+    private List<DailyStat> dailyStatsOfDay() {
+        return dailyStatRepository.findAll().stream()
+                .filter(stat -> DAY.equals(stat.getStatDate()))
+                .toList();
+    }
+
+    private static long count(List<DailyStat> stats, CustomerStatus status) {
+        return stats.stream()
+                .filter(stat -> stat.getCustomerStatus() == status)
+                .mapToLong(DailyStat::getCustomerCount)
+                .sum();
+    }
+}
@@ -0,0 +1,114 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferItem;
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-Tests für den ExportService
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ExportServiceIntegrationTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    private User testUser;
+    private Customer testCustomer;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(User.builder()
+                .username("exportuser")
+                .email("export@example.com")
+                .password("password")
+                .firstName("Export")
+                .lastName("User")
+                .build());
+
+        testCustomer = customerRepository.save(Customer.builder()
+                .firstName("Erika")
+                .lastName("Export")
+                .email("erika.export@example.com")
+                .status(CustomerStatus.ACTIVE)
+                .createdBy(testUser)
+                .build());
+    }
+
+    @Test
+    void testExportCustomersStreamsAllCustomers() {
+        // When: Export wird durchgeführt
+        List<String> emails = new ArrayList<>();
+        long count = exportService.exportCustomers(customer -> emails.add(customer.getEmail()));
+
+        // Then: Alle Kunden werden genau einmal übergeben
+        assertEquals(customerRepository.count(), count);
+        assertEquals(count, emails.size());
+        assertTrue(emails.contains("erika.export@example.com"));
+    }
+
+    @Test
+    void testExportOffersAssignsItemsToTheirOffer() {
+        // Given: Zwei Angebote mit zwei bzw. keiner Position
+        Offer withItems = offerWithItems("EXP-1", "Beratung", "Umsetzung");
+        Offer withoutItems = offerWithItems("EXP-2");
+
+        // When: Export wird durchgeführt
+        Map<String, List<String>> itemsByOffer = new LinkedHashMap<>();
+        exportService.exportOffers((offer, items) -> itemsByOffer.put(offer.getOfferNumber(),
+                items.stream().map(OfferItem::getDescription).toList()));
+
+        // Then: Positionen sind dem richtigen Angebot zugeordnet
+        assertEquals(List.of("Beratung", "Umsetzung"), itemsByOffer.get(withItems.getOfferNumber()));
+        assertEquals(List.of(), itemsByOffer.get(withoutItems.getOfferNumber()));
+    }
+
+    private Offer offerWithItems(String offerNumber, String... descriptions) {
+        Offer offer = Offer.builder()
+                .offerNumber(offerNumber)
+                .title("Angebot " + offerNumber)
+                .customer(testCustomer)
+                .createdBy(testUser)
+                .build();
+        for (String description : descriptions) {
+            OfferItem item = OfferItem.builder()
+                    .description(description)
+                    .quantity(1)
+                    .unitPrice(new BigDecimal("100.00"))
+                    .build();
+            item.calculateAmounts();
+            offer.addItem(item);
+        }
+        return offerRepository.save(offer);
+    }
+}
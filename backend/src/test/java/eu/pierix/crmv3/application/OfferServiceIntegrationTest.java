@@ -0,0 +1,166 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferStatus;
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.JdbcRoundTripCounter;
+import eu.pierix.crmv3.infrastructure.KeysetCursor;
+import eu.pierix.crmv3.infrastructure.KeysetPageRequest;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import eu.pierix.crmv3.web.dto.OfferStatisticsResponse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-Tests für die gruppierten Angebots-Kennzahlen des OfferService
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(JdbcRoundTripCounter.class)
+@Transactional
+class OfferServiceIntegrationTest {
+
+    @Autowired
+    private OfferService offerService;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+
+    private User user;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("angebotuser")
+                .email("angebotuser@example.com")
+                .password("password")
+                .firstName("Angebot")
+                .lastName("User")
+                .build());
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Angebot")
+                .lastName("Kunde")
+                .email("angebot.kunde@example.com")
+                .status(CustomerStatus.WON)
+                .createdBy(user)
+                .build());
+    }
+
+    @Test
+    void testOfferStatisticsAggregatePerStatus() {
+        // Given: Ausgangswerte (Beispieldaten) und zwei bezahlte Angebote mit 10 % bzw. 20 % Rabatt
+        OfferStatisticsResponse before = offerService.getOfferStatistics();
+        offer(OfferStatus.PAID, "90.00", "10.00", "10.00", 0);
+        offer(OfferStatus.PAID, "160.00", "20.00", "40.00", 1);
+        entityManager.flush();
+
+        // When
+        OfferStatisticsResponse after = offerService.getOfferStatistics();
+
+        // Then: Alle Status enthalten, Differenzen entsprechen den angelegten Angeboten
+        assertEquals(OfferStatus.values().length, after.getByStatus().size());
+        assertEquals(2, after.getTotalOffers() - before.getTotalOffers());
+        assertEquals(0, new BigDecimal("250.00").compareTo(after.getTotalFinalAmount().subtract(before.getTotalFinalAmount())));
+
+        OfferStatisticsResponse.StatusStatistics paidBefore = paid(before);
+        OfferStatisticsResponse.StatusStatistics paidAfter = paid(after);
+        assertEquals(2, paidAfter.getCount() - paidBefore.getCount());
+        assertEquals(0, new BigDecimal("50.00").compareTo(
+                paidAfter.getTotalDiscountAmount().subtract(paidBefore.getTotalDiscountAmount())));
+        if (paidBefore.getCount() == 0) {
+            assertEquals(0, new BigDecimal("15.00").compareTo(paidAfter.getAverageDiscountPercentage()));
+        }
+    }
+
+    @Test
+    void testOfferStatisticsUseSingleQuery() {
+        entityManager.flush();
+        entityManager.clear();
+        roundTripCounter.reset();
+
+        offerService.getOfferStatistics();
+
+        assertEquals(1, roundTripCounter.getRoundTrips());
+    }
+
+    @Test
+    void testGroupedCountsContainAllStatuses() {
+        // Given: Ein zusätzliches Entwurfs-Angebot (ausstehende Änderung, daher Zählung aus der Datenbank)
+        Map<OfferStatus, Long> before = offerService.countOffersByStatusGrouped();
+        offer(OfferStatus.DRAFT, "10.00", "0.00", "0.00", 2);
+        entityManager.flush();
+
+        // When
+        Map<OfferStatus, Long> after = offerService.countOffersByStatusGrouped();
+
+        // Then
+        assertEquals(OfferStatus.values().length, after.size());
+        assertEquals(1, after.get(OfferStatus.DRAFT) - before.get(OfferStatus.DRAFT));
+        assertEquals(offerService.getOfferStatistics().getTotalOffers(),
+                after.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private OfferStatisticsResponse.StatusStatistics paid(OfferStatisticsResponse statistics) {
+        return statistics.getByStatus().stream()
+                .filter(status -> OfferStatus.PAID.name().equals(status.getStatus()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void offer(OfferStatus status, String finalAmount, String discountPercentage, String discountAmount, int index) {
+        offerRepository.save(Offer.builder()
+                .offerNumber("OFFER-STAT-TEST-" + index)
+                .title("Kennzahlen-Angebot " + index)
+                .status(status)
+                .finalAmount(new BigDecimal(finalAmount))
+                .discountPercentage(new BigDecimal(discountPercentage))
+                .discountAmount(new BigDecimal(discountAmount))
+                .customer(customer)
+                .createdBy(user)
+                .build());
+    }
+
+    @Test
+    void testSearchOffersRejectsTamperedCursor() {
+        // Given: Cursor mit passender Sortierung, aber unlesbarem Zeitstempel
+        String cursor = new KeysetCursor("createdAt", Sort.Direction.DESC, 1L, "2024-13-45T99:00").encode();
+
+        // When / Then: Validierungsfehler (400) statt Parse-Fehler (500)
+        assertThrows(IllegalArgumentException.class, () -> offerService.searchOffers(null, null, null,
+                new KeysetPageRequest("createdAt", Sort.Direction.DESC, cursor, 20, false)));
+    }
+
+    @Test
+    void testCountOffersByStatusRejectsNullStatus() {
+        assertThrows(IllegalArgumentException.class, () -> offerService.countOffersByStatus(null));
+    }
+}
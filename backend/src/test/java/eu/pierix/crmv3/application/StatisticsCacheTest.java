@@ -0,0 +1,169 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.web.dto.StatisticsResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für den Stale-while-revalidate-Cache der Dashboard-Statistiken
+ */
+@ExtendWith(MockitoExtension.class)
+class StatisticsCacheTest {
+
+    private static final int THREADS = 8;
+
+    @Mock
+    private StatisticsService statisticsService;
+
+    @InjectMocks
+    private StatisticsCache statisticsCache;
+
+    private final StatisticsResponse first = StatisticsResponse.builder().build();
+    private final StatisticsResponse second = StatisticsResponse.builder().build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(statisticsCache, "enabled", true);
+        ReflectionTestUtils.setField(statisticsCache, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(statisticsCache, "maxStale", Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        statisticsCache.shutdown();
+    }
+
+    @Test
+    void testServesCachedValueWithinTtl() {
+        when(statisticsService.getStatistics()).thenReturn(first);
+
+        assertSame(first, statisticsCache.getStatistics());
+        assertSame(first, statisticsCache.getStatistics());
+        assertSame(first, statisticsCache.getStatistics());
+
+        verify(statisticsService, times(1)).getStatistics();
+        StatisticsCache.CacheStats stats = statisticsCache.getStats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.refreshes());
+    }
+
+    @Test
+    void testConcurrentMissesShareOneComputation() throws Exception {
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(statisticsService.getStatistics()).thenAnswer(invocation -> {
+            computing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return first;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<StatisticsResponse>> results = new ArrayList<>();
+            results.add(executor.submit(statisticsCache::getStatistics));
+            assertTrue(computing.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < THREADS; i++) {
+                results.add(executor.submit(statisticsCache::getStatistics));
+            }
+            release.countDown();
+
+            for (Future<StatisticsResponse> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(statisticsService, times(1)).getStatistics();
+    }
+
+    @Test
+    void testServesStaleValueWhileRefreshingAfterInvalidation() throws Exception {
+        CountDownLatch refreshed = new CountDownLatch(1);
+        when(statisticsService.getStatistics()).thenReturn(first).thenAnswer(invocation -> {
+            refreshed.countDown();
+            return second;
+        });
+        statisticsCache.getStatistics();
+
+        // Ohne Transaktion wirkt die Invalidierung sofort
+        statisticsCache.invalidate();
+
+        assertSame(first, statisticsCache.getStatistics());
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        awaitRefreshes(2);
+        assertSame(second, statisticsCache.getStatistics());
+        assertEquals(1, statisticsCache.getStats().staleHits());
+    }
+
+    @Test
+    void testRollupUpdateInvalidatesCachedValue() {
+        when(statisticsService.getStatistics()).thenReturn(first, second);
+        statisticsCache.getStatistics();
+
+        // Die Verdichtung hat vergangene Tage neu berechnet
+        statisticsCache.onRollupUpdated(new DailyStatsRollup.RollupUpdated(LocalDate.now().minusDays(3), LocalDate.now()));
+
+        statisticsCache.getStatistics();
+        awaitRefreshes(2);
+        assertSame(second, statisticsCache.getStatistics());
+    }
+
+    @Test
+    void testBlocksWhenValueIsTooOld() {
+        ReflectionTestUtils.setField(statisticsCache, "ttl", Duration.ZERO);
+        ReflectionTestUtils.setField(statisticsCache, "maxStale", Duration.ZERO);
+        when(statisticsService.getStatistics()).thenReturn(first, second);
+
+        assertSame(first, statisticsCache.getStatistics());
+        assertSame(second, statisticsCache.getStatistics());
+        assertEquals(2, statisticsCache.getStats().misses());
+    }
+
+    @Test
+    void testFailedRefreshIsReportedToWaitingCaller() {
+        when(statisticsService.getStatistics()).thenThrow(new RuntimeException("Datenbank nicht erreichbar"));
+
+        assertThrows(RuntimeException.class, () -> statisticsCache.getStatistics());
+        assertEquals(1, statisticsCache.getStats().failedRefreshes());
+        assertNull(statisticsCache.getStats().ageMs());
+    }
+
+    @Test
+    void testBypassesCacheWhenDisabled() {
+        ReflectionTestUtils.setField(statisticsCache, "enabled", false);
+        when(statisticsService.getStatistics()).thenReturn(first);
+
+        statisticsCache.getStatistics();
+        statisticsCache.getStatistics();
+
+        verify(statisticsService, times(2)).getStatistics();
+    }
+
+    private void awaitRefreshes(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (statisticsCache.getStats().refreshes() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, statisticsCache.getStats().refreshes());
+    }
+}
@@ -0,0 +1,255 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.LeadSource;
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferStatus;
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.JdbcRoundTripCounter;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import eu.pierix.crmv3.web.dto.RevenueResponse;
+import eu.pierix.crmv3.web.dto.StatisticsResponse;
+import eu.pierix.crmv3.web.dto.TimeSeriesPoint;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-Tests für den StatisticsService: Kennzahlen und Umsätze aus wenigen gruppierten Queries
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(JdbcRoundTripCounter.class)
+@Transactional
+class StatisticsServiceIntegrationTest {
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private DailyStatsRollup dailyStatsRollup;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("statistikuser")
+                .email("statistikuser@example.com")
+                .password("password")
+                .firstName("Statistik")
+                .lastName("User")
+                .build());
+    }
+
+    @Test
+    void testStatisticsReflectSeededData() {
+        // Given: Ausgangswerte (Beispieldaten) und zusätzliche Kunden/Angebote
+        StatisticsResponse before = statisticsService.getStatistics();
+
+        Customer won = customer(CustomerStatus.WON, LeadSource.REFERRAL, 0);
+        customer(CustomerStatus.WON, LeadSource.REFERRAL, 1);
+        customer(CustomerStatus.WON, LeadSource.REFERRAL, 2);
+        customer(CustomerStatus.LOST, LeadSource.REFERRAL, 3);
+        customer(CustomerStatus.NEW, LeadSource.WEBSITE, 4);
+        customer(CustomerStatus.NEW, LeadSource.WEBSITE, 5);
+        offer(won, OfferStatus.PAID, "100.00", 0);
+        offer(won, OfferStatus.PAID, "50.50", 1);
+        offer(won, OfferStatus.DRAFT, "999.00", 2);
+        entityManager.flush();
+
+        // When
+        StatisticsResponse after = statisticsService.getStatistics();
+
+        // Then: Differenzen entsprechen den angelegten Daten
+        assertEquals(6, after.getOverview().getTotalCustomers() - before.getOverview().getTotalCustomers());
+        assertEquals(2, after.getOverview().getOpenLeads() - before.getOverview().getOpenLeads());
+        assertEquals(3, after.getRevenue().getWonLeads() - before.getRevenue().getWonLeads());
+        assertEquals(1, after.getRevenue().getLostLeads() - before.getRevenue().getLostLeads());
+        assertEquals(0, new BigDecimal("150.50").compareTo(
+                after.getRevenue().getTotalRevenue().subtract(before.getRevenue().getTotalRevenue())));
+        assertEquals(0, new BigDecimal("150.50").compareTo(
+                after.getRevenue().getMonthlyRevenue().subtract(before.getRevenue().getMonthlyRevenue())));
+
+        List<StatisticsResponse.MonthlyRevenue> months = after.getRevenue().getMonthlyRevenueData();
+        List<StatisticsResponse.MonthlyRevenue> monthsBefore = before.getRevenue().getMonthlyRevenueData();
+        assertEquals(6, months.size());
+        assertEquals(3, months.get(5).getWonLeads() - monthsBefore.get(5).getWonLeads());
+        assertEquals(0, new BigDecimal("150.50").compareTo(
+                months.get(5).getRevenue().subtract(monthsBefore.get(5).getRevenue())));
+        assertEquals(10, after.getConversion().getConversionBySource().size());
+    }
+
+    @Test
+    void testStatisticsUseConstantNumberOfQueries() {
+        entityManager.flush();
+        entityManager.clear();
+        roundTripCounter.reset();
+
+        statisticsService.getStatistics();
+
+        // Kunden nach Status/Quelle und Angebote nach Status live, Abschlüsse und Umsatz nach Monat
+        // jeweils aus der Verdichtung (vergangene Tage) und live (heute)
+        assertTrue(dailyStatsRollup.isReady());
+        assertEquals(6, roundTripCounter.getRoundTrips());
+    }
+
+    @Test
+    void testRevenuePerPeriodIsAggregatedInDatabase() {
+        // Given: Zwei bezahlte und ein offenes Angebot von heute
+        LocalDate today = LocalDate.now();
+        RevenueResponse before = statisticsService.getRevenue(today.minusDays(2), today, RevenuePeriod.DAY);
+        Customer won = customer(CustomerStatus.WON, LeadSource.REFERRAL, 0);
+        offer(won, OfferStatus.PAID, "100.00", 0);
+        offer(won, OfferStatus.PAID, "50.50", 1);
+        offer(won, OfferStatus.SENT, "999.00", 2);
+        entityManager.flush();
+        entityManager.clear();
+        roundTripCounter.reset();
+
+        // When
+        RevenueResponse after = statisticsService.getRevenue(today.minusDays(2), today, RevenuePeriod.DAY);
+
+        // Then: Verdichtung für die Vortage und eine Live-Query für heute, ein Eintrag je Tag (auch ohne Umsatz)
+        assertEquals(2, roundTripCounter.getRoundTrips());
+        assertEquals(3, after.getPeriods().size());
+        assertEquals(today, after.getPeriods().get(2).getStart());
+        assertEquals(2, after.getPeriods().get(2).getPaidOffers() - before.getPeriods().get(2).getPaidOffers());
+        assertEquals(0, new BigDecimal("150.50").compareTo(
+                after.getTotalRevenue().subtract(before.getTotalRevenue())));
+
+        RevenueResponse yearly = statisticsService.getRevenue(today, today, RevenuePeriod.YEAR);
+        assertEquals(1, yearly.getPeriods().size());
+        assertEquals(String.valueOf(today.getYear()), yearly.getPeriods().get(0).getPeriod());
+    }
+
+    @Test
+    void testRevenueRejectsInvalidRange() {
+        LocalDate today = LocalDate.now();
+        assertThrows(IllegalArgumentException.class,
+                () -> statisticsService.getRevenue(today, today.minusDays(1), RevenuePeriod.MONTH));
+        assertThrows(IllegalArgumentException.class,
+                () -> statisticsService.getRevenue(today.minusYears(10), today, RevenuePeriod.DAY));
+    }
+
+    @Test
+    void testTimeSeriesAggregatesIntoBuckets() {
+        // Given: Ausgangswerte der laufenden Woche und zusätzliche Kunden/Angebote von heute
+        LocalDate today = LocalDate.now();
+        List<TimeSeriesPoint> revenueBefore = timeSeries(today.minusWeeks(2), today, TimeSeriesGranularity.WEEK, TimeSeriesMetric.REVENUE);
+        List<TimeSeriesPoint> wonBefore = timeSeries(today, today, TimeSeriesGranularity.QUARTER, TimeSeriesMetric.WON_LEADS);
+        List<TimeSeriesPoint> newBefore = timeSeries(today, today, TimeSeriesGranularity.DAY, TimeSeriesMetric.NEW_CUSTOMERS);
+        Customer won = customer(CustomerStatus.WON, LeadSource.REFERRAL, 0);
+        customer(CustomerStatus.LOST, LeadSource.REFERRAL, 1);
+        offer(won, OfferStatus.PAID, "100.00", 0);
+        offer(won, OfferStatus.PAID, "50.50", 1);
+        offer(won, OfferStatus.SENT, "999.00", 2);
+        entityManager.flush();
+
+        // When
+        List<TimeSeriesPoint> revenue = timeSeries(today.minusWeeks(2), today, TimeSeriesGranularity.WEEK, TimeSeriesMetric.REVENUE);
+        List<TimeSeriesPoint> wonLeads = timeSeries(today, today, TimeSeriesGranularity.QUARTER, TimeSeriesMetric.WON_LEADS);
+        List<TimeSeriesPoint> newCustomers = timeSeries(today, today, TimeSeriesGranularity.DAY, TimeSeriesMetric.NEW_CUSTOMERS);
+
+        // Then: ein Punkt je Woche, die Differenz liegt in der laufenden Woche
+        assertEquals(3, revenue.size());
+        assertEquals(TimeSeriesGranularity.WEEK.start(today), revenue.get(2).getStart());
+        assertEquals(0, new BigDecimal("150.50").compareTo(revenue.get(2).getValue().subtract(revenueBefore.get(2).getValue())));
+        assertEquals(0, revenue.get(1).getValue().compareTo(revenueBefore.get(1).getValue()));
+        assertEquals(1, wonLeads.size());
+        assertEquals(today.getYear() + "-Q" + ((today.getMonthValue() - 1) / 3 + 1), wonLeads.get(0).getPeriod());
+        assertEquals(1, wonLeads.get(0).getValue().subtract(wonBefore.get(0).getValue()).intValueExact());
+        assertEquals(2, newCustomers.get(0).getValue().subtract(newBefore.get(0).getValue()).intValueExact());
+    }
+
+    @Test
+    void testTimeSeriesZeroFillsLongRangesWithOneQuery() {
+        // Given: fünf Jahre ohne Daten, tageweise
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(2004, 12, 31);
+        entityManager.flush();
+        roundTripCounter.reset();
+
+        // When
+        List<TimeSeriesPoint> points = new ArrayList<>();
+        BigDecimal total = statisticsService.streamTimeSeries(from, to, TimeSeriesGranularity.DAY, TimeSeriesMetric.CONVERSION_RATE, points::add);
+
+        // Then: jeder Tag ist enthalten, eine einzige Query
+        assertEquals(1, roundTripCounter.getRoundTrips());
+        assertEquals(1827, points.size());
+        assertEquals(from, points.get(0).getStart());
+        assertEquals(to, points.get(points.size() - 1).getStart());
+        assertTrue(points.stream().allMatch(point -> point.getValue().signum() == 0));
+        assertEquals(0, total.signum());
+        assertEquals(20, timeSeries(from, to, TimeSeriesGranularity.QUARTER, TimeSeriesMetric.PAID_OFFERS).size());
+    }
+
+    @Test
+    void testTimeSeriesRejectsInvalidRange() {
+        LocalDate today = LocalDate.now();
+        assertThrows(IllegalArgumentException.class, () -> statisticsService.validateTimeSeries(
+                today, today.minusDays(1), TimeSeriesGranularity.DAY, TimeSeriesMetric.REVENUE));
+        assertThrows(IllegalArgumentException.class, () -> statisticsService.validateTimeSeries(
+                today.minusYears(30), today, TimeSeriesGranularity.DAY, TimeSeriesMetric.REVENUE));
+        assertThrows(IllegalArgumentException.class, () -> TimeSeriesGranularity.fromString("hour"));
+        assertEquals(TimeSeriesMetric.CONVERSION_RATE, TimeSeriesMetric.fromString("conversion-rate"));
+    }
+
+    private List<TimeSeriesPoint> timeSeries(LocalDate from, LocalDate to, TimeSeriesGranularity granularity, TimeSeriesMetric metric) {
+        List<TimeSeriesPoint> points = new ArrayList<>();
+        statisticsService.streamTimeSeries(from, to, granularity, metric, points::add);
+        return points;
+    }
+
+    private Customer customer(CustomerStatus status, LeadSource source, int index) {
+        return customerRepository.save(Customer.builder()
+                .firstName("Kunde" + index)
+                .lastName("Statistik")
+                .email("statistik" + index + "@example.com")
+                .status(status)
+                .leadSource(source)
+                .createdBy(user)
+                .build());
+    }
+
+    private void offer(Customer customer, OfferStatus status, String finalAmount, int index) {
+        offerRepository.save(Offer.builder()
+                .offerNumber("STAT-TEST-" + index)
+                .title("Statistik-Angebot " + index)
+                .status(status)
+                .finalAmount(new BigDecimal(finalAmount))
+                .customer(customer)
+                .createdBy(user)
+                .build());
+    }
+}
@@ -0,0 +1,158 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.LeadSource;
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferStatus;
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.JdbcRoundTripCounter;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import eu.pierix.crmv3.web.dto.StatisticsResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-Tests für die parallele Berechnung der Statistik-Abschnitte.
+ *
+ * Läuft bewusst ohne Test-Transaktion, da die Abschnitte nur außerhalb einer Transaktion parallel laufen;
+ * die angelegten Kunden und Angebote werden nach jedem Test wieder gelöscht.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(JdbcRoundTripCounter.class)
+class StatisticsServiceParallelIntegrationTest {
+
+    private static final List<String> SECTIONS = List.of("customers", "offers", "monthlyRevenue", "monthlyClosings");
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Offer> offers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Jeder Abschnitt bekommt Zeilen: Kunden je Status/LeadSource, Abschlüsse und bezahlte Angebote im laufenden Monat
+        user = userRepository.save(User.builder()
+                .username("parallelstats")
+                .email("parallelstats@example.com")
+                .password("password")
+                .firstName("Parallel")
+                .lastName("Statistik")
+                .build());
+        customers.add(customer(CustomerStatus.WON, LeadSource.WEBSITE, 0));
+        customers.add(customer(CustomerStatus.WON, LeadSource.REFERRAL, 1));
+        customers.add(customer(CustomerStatus.LOST, LeadSource.WEBSITE, 2));
+        customers.add(customer(CustomerStatus.NEW, LeadSource.REFERRAL, 3));
+        offers.add(offer(OfferStatus.PAID, "1200.00", 0));
+        offers.add(offer(OfferStatus.PAID, "800.00", 1));
+        offers.add(offer(OfferStatus.SENT, "500.00", 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        roundTripCounter.requireConcurrentCheckouts(0);
+        offerRepository.deleteAll(offers);
+        customerRepository.deleteAll(customers);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void testParallelSectionsMatchSequentialResult() {
+        // Innerhalb einer Transaktion werden die Abschnitte nacheinander berechnet
+        StatisticsResponse sequential = transactionTemplate.execute(status -> statisticsService.getStatistics());
+
+        StatisticsResponse parallel = statisticsService.getStatistics();
+
+        // Alle Abschnitte liefern Werte, nicht nur leere Ergebnisse
+        assertTrue(parallel.getOverview().getTotalCustomers() >= customers.size());
+        assertTrue(parallel.getRevenue().getTotalRevenue().compareTo(new BigDecimal("2000.00")) >= 0);
+        assertTrue(parallel.getRevenue().getMonthlyRevenue().compareTo(new BigDecimal("2000.00")) >= 0);
+        assertTrue(parallel.getRevenue().getWonLeads() >= 2);
+        assertTrue(parallel.getRevenue().getLostLeads() >= 1);
+        assertTrue(parallel.getRevenue().getMonthlyRevenueData().stream()
+                .mapToLong(StatisticsResponse.MonthlyRevenue::getWonLeads).sum() >= 2);
+        assertFalse(parallel.getConversion().getConversionBySource().isEmpty());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void testSectionsRunConcurrently() {
+        // Jede Verbindungsanforderung eines Abschnitts wartet, bis alle vier Abschnitte eine Verbindung halten;
+        // würden sie nacheinander laufen, schlüge die erste Anforderung nach dem Timeout fehl
+        roundTripCounter.requireConcurrentCheckouts(SECTIONS.size());
+
+        StatisticsResponse parallel = assertDoesNotThrow(() -> statisticsService.getStatistics());
+
+        roundTripCounter.requireConcurrentCheckouts(0);
+        assertEquals(transactionTemplate.execute(status -> statisticsService.getStatistics()), parallel);
+    }
+
+    @Test
+    void testSectionTimingsAreRecorded() {
+        statisticsService.getStatistics();
+
+        Map<String, StatisticsService.SectionTiming> timings = statisticsService.getSectionTimings();
+        SECTIONS.forEach(section -> {
+            assertTrue(timings.containsKey(section), section);
+            assertTrue(timings.get(section).calls() > 0, section);
+        });
+        assertTrue(timings.get("total").calls() > 0);
+    }
+
+    private Customer customer(CustomerStatus status, LeadSource leadSource, int index) {
+        return customerRepository.save(Customer.builder()
+                .firstName("Parallel")
+                .lastName("Kunde " + index)
+                .email("parallelstats" + index + "@example.com")
+                .status(status)
+                .leadSource(leadSource)
+                .createdBy(user)
+                .build());
+    }
+
+    private Offer offer(OfferStatus status, String finalAmount, int index) {
+        return offerRepository.save(Offer.builder()
+                .offerNumber("OFFER-PARALLEL-" + index)
+                .title("Parallel-Angebot " + index)
+                .status(status)
+                .finalAmount(new BigDecimal(finalAmount))
+                .paidAt(status == OfferStatus.PAID ? LocalDateTime.now() : null)
+                .customer(customers.get(0))
+                .createdBy(user)
+                .build());
+    }
+}
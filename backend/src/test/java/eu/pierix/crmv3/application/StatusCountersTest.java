@@ -0,0 +1,133 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.LeadSource;
+import eu.pierix.crmv3.domain.OfferStatus;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für die In-Memory-Status-Zähler
+ */
+@ExtendWith(MockitoExtension.class)
+class StatusCountersTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private OfferRepository offerRepository;
+
+    @InjectMocks
+    private StatusCounters statusCounters;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(statusCounters, "enabled", true);
+    }
+
+    @Test
+    void testNotReadyUntilSeeded() {
+        assertFalse(statusCounters.isReady());
+    }
+
+    @Test
+    void testSeedsFromDatabase() {
+        seed();
+
+        assertTrue(statusCounters.isReady());
+        assertEquals(6, statusCounters.totalCustomers());
+        assertEquals(5, statusCounters.customerCount(CustomerStatus.NEW));
+        assertEquals(1, statusCounters.customerCount(CustomerStatus.WON));
+        assertEquals(0, statusCounters.customerCount(CustomerStatus.LOST));
+        assertEquals(3, statusCounters.totalOffers());
+        assertEquals(3, statusCounters.offerCountsByStatus().get(OfferStatus.SENT));
+        assertEquals(0, statusCounters.offerCountsByStatus().get(OfferStatus.PAID));
+    }
+
+    @Test
+    void testAppliesChanges() {
+        seed();
+
+        // Ohne Transaktion wirken Änderungen sofort
+        statusCounters.customerAdded(CustomerStatus.NEW, null);
+        statusCounters.customerChanged(CustomerStatus.NEW, LeadSource.WEBSITE, CustomerStatus.CONTACTED, LeadSource.WEBSITE);
+        statusCounters.customerRemoved(CustomerStatus.WON, LeadSource.REFERRAL);
+        statusCounters.offerChanged(OfferStatus.SENT, OfferStatus.PAID);
+        statusCounters.offerChanged(null, OfferStatus.DRAFT);
+
+        assertEquals(6, statusCounters.totalCustomers());
+        assertEquals(5, statusCounters.customerCount(CustomerStatus.NEW));
+        assertEquals(1, statusCounters.customerCount(CustomerStatus.CONTACTED));
+        assertEquals(0, statusCounters.customerCount(CustomerStatus.WON));
+        assertEquals(4, statusCounters.totalOffers());
+        assertEquals(2, statusCounters.offerCountsByStatus().get(OfferStatus.SENT));
+        assertEquals(1, statusCounters.offerCountsByStatus().get(OfferStatus.PAID));
+        assertEquals(1, statusCounters.offerCountsByStatus().get(OfferStatus.DRAFT));
+    }
+
+    @Test
+    void testReconcileCorrectsDrift() {
+        seed();
+        // Änderung an den Zählern vorbei, z.B. per Bulk-Update
+        when(customerRepository.countByStatusAndLeadSourceGrouped()).thenReturn(rows(
+                new Object[]{CustomerStatus.NEW, LeadSource.WEBSITE, 3L},
+                new Object[]{CustomerStatus.LOST, LeadSource.REFERRAL, 2L},
+                new Object[]{CustomerStatus.WON, LeadSource.REFERRAL, 1L}));
+        when(offerRepository.countAndSumFinalAmountByStatusGrouped()).thenReturn(rows(
+                new Object[]{OfferStatus.OVERDUE, 3L, BigDecimal.TEN}));
+
+        statusCounters.reconcile();
+
+        assertEquals(3, statusCounters.customerCount(CustomerStatus.NEW));
+        assertEquals(2, statusCounters.customerCount(CustomerStatus.LOST));
+        assertEquals(0, statusCounters.offerCountsByStatus().get(OfferStatus.SENT));
+        assertEquals(3, statusCounters.offerCountsByStatus().get(OfferStatus.OVERDUE));
+    }
+
+    @Test
+    void testReconcileSkipsCellsChangedDuringQuery() {
+        seed();
+        when(customerRepository.countByStatusAndLeadSourceGrouped()).thenAnswer(invocation -> {
+            // Commit während der Abfrage: die Datenbank-Antwort enthält den Kunden evtl. noch nicht
+            statusCounters.customerAdded(CustomerStatus.NEW, LeadSource.WEBSITE);
+            return rows(
+                    new Object[]{CustomerStatus.NEW, LeadSource.WEBSITE, 3L},
+                    new Object[]{CustomerStatus.NEW, LeadSource.REFERRAL, 2L},
+                    new Object[]{CustomerStatus.WON, null, 1L});
+        });
+
+        statusCounters.reconcile();
+
+        // Die geänderte Zelle bleibt bis zum nächsten Abgleich unverändert
+        assertEquals(6, statusCounters.customerCount(CustomerStatus.NEW));
+    }
+
+    private void seed() {
+        when(customerRepository.countByStatusAndLeadSourceGrouped()).thenReturn(rows(
+                new Object[]{CustomerStatus.NEW, LeadSource.WEBSITE, 3L},
+                new Object[]{CustomerStatus.NEW, LeadSource.REFERRAL, 2L},
+                new Object[]{CustomerStatus.WON, null, 1L}));
+        when(offerRepository.countAndSumFinalAmountByStatusGrouped()).thenReturn(rows(
+                new Object[]{OfferStatus.SENT, 3L, BigDecimal.TEN}));
+        statusCounters.initialize();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
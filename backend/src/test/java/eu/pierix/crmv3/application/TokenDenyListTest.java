@@ -0,0 +1,99 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.infrastructure.JwtService;
+import eu.pierix.crmv3.infrastructure.TokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für die In-Memory-Sperrliste widerrufener Tokens
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenDenyListTest {
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @InjectMocks
+    private TokenDenyList tokenDenyList;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenDenyList, "enabled", true);
+        ReflectionTestUtils.setField(tokenDenyList, "maxEntries", 3);
+    }
+
+    @Test
+    void testInactiveUntilLoaded() {
+        assertFalse(tokenDenyList.isActive());
+
+        when(tokenRepository.findRevokedTokensExpiringAfter(any())).thenReturn(List.of());
+        tokenDenyList.initialize();
+
+        assertTrue(tokenDenyList.isActive());
+    }
+
+    @Test
+    void testLoadsRevokedTokensFromDatabase() {
+        List<Object[]> revoked = new ArrayList<>();
+        revoked.add(new Object[]{JwtService.tokenHash("revoked-token"), LocalDateTime.now().plusHours(1)});
+        when(tokenRepository.findRevokedTokensExpiringAfter(any())).thenReturn(revoked);
+
+        tokenDenyList.reload();
+
+        assertTrue(tokenDenyList.isDenied("revoked-token"));
+        assertFalse(tokenDenyList.isDenied("valid-token"));
+    }
+
+    @Test
+    void testDeniesRevokedTokenUntilExpiry() {
+        tokenDenyList.deny("revoked-token", LocalDateTime.now().plusHours(1));
+        tokenDenyList.deny("expired-token", LocalDateTime.now().minusSeconds(1));
+
+        assertTrue(tokenDenyList.isDenied("revoked-token"));
+        assertFalse(tokenDenyList.isDenied("expired-token"));
+        assertEquals(1, tokenDenyList.size());
+    }
+
+    @Test
+    void testFallsBackToDatabaseWhenFullUntilNextLoadFits() {
+        when(tokenRepository.findRevokedTokensExpiringAfter(any())).thenReturn(List.of());
+        tokenDenyList.reload();
+        for (int i = 0; i < 4; i++) {
+            tokenDenyList.deny("token-" + i, LocalDateTime.now().plusHours(1));
+        }
+
+        // Der vierte Widerruf passt nicht mehr: der Filter muss wieder die Datenbank fragen
+        assertFalse(tokenDenyList.isActive());
+        assertEquals(3, tokenDenyList.size());
+
+        ReflectionTestUtils.setField(tokenDenyList, "maxEntries", 10);
+        tokenDenyList.reload();
+        assertTrue(tokenDenyList.isActive());
+    }
+
+    @Test
+    void testDisabledListIsNeverActive() {
+        ReflectionTestUtils.setField(tokenDenyList, "enabled", false);
+
+        tokenDenyList.initialize();
+        tokenDenyList.deny("revoked-token", LocalDateTime.now().plusHours(1));
+
+        assertFalse(tokenDenyList.isActive());
+        assertEquals(0, tokenDenyList.size());
+        verifyNoInteractions(tokenRepository);
+    }
+}
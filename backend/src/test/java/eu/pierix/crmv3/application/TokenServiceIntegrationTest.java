@@ -0,0 +1,90 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.Token;
+import eu.pierix.crmv3.domain.TokenType;
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.JwtService;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-Tests für die Speicherung der Tokens über ihren Hash
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TokenServiceIntegrationTest {
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private TokenDenyList tokenDenyList;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("hashtokenuser")
+                .email("hashtokenuser@example.com")
+                .password("password")
+                .firstName("Token")
+                .lastName("User")
+                .build());
+    }
+
+    @Test
+    void testTokenIsStoredAsHashWithTokenId() {
+        JwtService.IssuedToken issued = jwtService.issueToken(user);
+        String jwt = issued.token();
+
+        Token saved = tokenService.saveToken(issued, user, TokenType.BEARER, LocalDateTime.now().plusHours(1));
+
+        assertEquals(43, saved.getTokenHash().length());
+        assertEquals(JwtService.tokenHash(jwt), saved.getTokenHash());
+        assertEquals(issued.tokenId(), saved.getJti());
+        assertEquals(jwtService.extractTokenId(jwt), saved.getJti());
+        assertEquals(saved.getId(), tokenService.findByToken(jwt).orElseThrow().getId());
+        assertTrue(tokenService.isTokenValid(jwt));
+    }
+
+    @Test
+    void testEachTokenGetsOwnId() {
+        assertNotEquals(jwtService.extractTokenId(jwtService.generateToken(user)),
+                jwtService.extractTokenId(jwtService.generateToken(user)));
+    }
+
+    @Test
+    void testRevokedTokenIsInvalidAndDenied() {
+        JwtService.IssuedToken issued = jwtService.issueToken(user);
+        String jwt = issued.token();
+        tokenService.saveToken(issued, user, TokenType.BEARER, LocalDateTime.now().plusHours(1));
+
+        tokenService.revokeToken(jwt);
+        entityManager.clear();
+
+        assertFalse(tokenService.isTokenValid(jwt));
+        assertTrue(tokenDenyList.isDenied(jwt));
+        assertFalse(tokenService.isTokenValid(jwtService.generateToken(user)));
+    }
+}
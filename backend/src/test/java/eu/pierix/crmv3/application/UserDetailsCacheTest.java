@@ -0,0 +1,141 @@
+package eu.pierix.crmv3.application;
+
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.domain.UserPrincipal;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für den Benutzer-Cache der Authentifizierung
+ */
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserDetailsCache userDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userDetailsCache, "enabled", true);
+        ReflectionTestUtils.setField(userDetailsCache, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(userDetailsCache, "maxEntries", 2);
+    }
+
+    @Test
+    void testRepeatedLookupsHitCache() {
+        User user = user(1L, "cacheuser");
+        when(userRepository.findByUsername("cacheuser")).thenReturn(Optional.of(user));
+
+        UserPrincipal first = userDetailsCache.loadUserByUsername("cacheuser");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(first, userDetailsCache.loadUserByUsername("cacheuser"));
+        }
+
+        verify(userRepository, times(1)).findByUsername("cacheuser");
+        UserDetailsCache.UserCacheStats stats = userDetailsCache.getStats();
+        assertEquals(3, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.75, stats.hitRatio(), 0.001);
+    }
+
+    @Test
+    void testCachedPrincipalIsDetachedFromEntity() {
+        User user = user(1L, "cacheuser");
+        when(userRepository.findByUsername("cacheuser")).thenReturn(Optional.of(user));
+        userDetailsCache.loadUserByUsername("cacheuser");
+
+        // Änderungen an der geladenen Entity erreichen den gecachten Stand nicht
+        user.setTokenVersion(5);
+        user.setEnabled(false);
+
+        UserPrincipal principal = userDetailsCache.loadUserByUsername("cacheuser");
+        assertEquals(1L, principal.id());
+        assertEquals(0, principal.tokenVersion());
+        assertTrue(principal.isEnabled());
+        assertEquals("ROLE_USER", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void testInvalidationReloadsDisabledUser() {
+        User user = user(1L, "cacheuser");
+        User disabled = user(1L, "cacheuser");
+        disabled.setEnabled(false);
+        when(userRepository.findByUsername("cacheuser")).thenReturn(Optional.of(user), Optional.of(disabled));
+        userDetailsCache.loadUserByUsername("cacheuser");
+
+        // Ohne Transaktion wirkt die Invalidierung sofort
+        userDetailsCache.invalidate(disabled);
+
+        assertFalse(userDetailsCache.loadUserByUsername("cacheuser").isEnabled());
+        assertEquals(1, userDetailsCache.getStats().invalidations());
+    }
+
+    @Test
+    void testInvalidationByIdCoversRenamedUser() {
+        when(userRepository.findByUsername("altername")).thenReturn(Optional.of(user(1L, "altername")));
+        userDetailsCache.loadUserByUsername("altername");
+
+        userDetailsCache.invalidate(user(1L, "neuername"));
+
+        assertEquals(0, userDetailsCache.getStats().size());
+    }
+
+    @Test
+    void testExpiredEntriesAreReloaded() {
+        ReflectionTestUtils.setField(userDetailsCache, "ttl", Duration.ZERO);
+        when(userRepository.findByUsername("cacheuser")).thenReturn(Optional.of(user(1L, "cacheuser")));
+
+        userDetailsCache.loadUserByUsername("cacheuser");
+        userDetailsCache.loadUserByUsername("cacheuser");
+
+        verify(userRepository, times(2)).findByUsername("cacheuser");
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        for (long id = 1; id <= 3; id++) {
+            String username = "cacheuser" + id;
+            when(userRepository.findByUsername(username)).thenReturn(Optional.of(user(id, username)));
+            userDetailsCache.loadUserByUsername(username);
+        }
+
+        assertEquals(2, userDetailsCache.getStats().size());
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        when(userRepository.findByUsername("unbekannt")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.loadUserByUsername("unbekannt"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.loadUserByUsername("unbekannt"));
+
+        verify(userRepository, times(2)).findByUsername("unbekannt");
+    }
+
+    private User user(Long id, String username) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .firstName("Cache")
+                .lastName("User")
+                .build();
+    }
+}
@@ -168,4 +168,50 @@ class CustomerIntegrationTest {
         assertEquals(2, maxResults.size()); // Max Mustermann und Peter Maxwell
         assertEquals(1, mariaResults.size()); // Maria Musterfrau
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testCustomerSearchByFieldsIsCaseInsensitive() {
+        // Given: Kunde mit allen Suchfeldern
+        customerRepository.save(Customer.builder()
+                .firstName("Suchfeld")
+                .lastName("Kundin")
+                .email("suchfeld.kundin@feldtest.de")
+                .companyName("Feldtest Handels GmbH")
+                .city("Feldstadt")
+                .status(CustomerStatus.ACTIVE)
+                .createdBy(testUser)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then: Teilstrings finden den Kunden unabhängig von der Schreibweise
+        assertEquals(1, customerRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase("SUCHFELD").size());
+        assertEquals(1, customerRepository.findByEmailContainingIgnoreCase("kundin@FELDTEST").size());
+        assertEquals(1, customerRepository.findByCompanyNameContainingIgnoreCase("handels").size());
+        assertEquals(1, customerRepository.findByCityContainingIgnoreCase("FELDSTADT").size());
+        assertTrue(customerRepository.findByCityContainingIgnoreCase("Nirgendwo").isEmpty());
+    }
+
+    @Test
+    void testCustomerSearchTreatsLikeWildcardsLiterally() {
+        // Given: Kunden, deren Namen nur über LIKE-Platzhalter zusammenpassen würden
+        customerRepository.saveAll(List.of(
+                Customer.builder().firstName("a_b").lastName("Wildcard").email("underscore@example.com")
+                        .companyName("100% Service").city("Platz\\halter")
+                        .status(CustomerStatus.ACTIVE).createdBy(testUser).build(),
+                Customer.builder().firstName("axb").lastName("Wildcard").email("plain@example.com")
+                        .companyName("100 Prozent Service").city("Platzhalter")
+                        .status(CustomerStatus.ACTIVE).createdBy(testUser).build()));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then: '_', '%' und Backslash werden wörtlich gesucht
+        List<Customer> underscore = customerRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase("a_b");
+        assertEquals(List.of("a_b"), underscore.stream().map(Customer::getFirstName).toList());
+        assertEquals(List.of("100% Service"),
+                customerRepository.findByCompanyNameContainingIgnoreCase("100%").stream().map(Customer::getCompanyName).toList());
+        assertEquals(List.of("Platz\\halter"),
+                customerRepository.findByCityContainingIgnoreCase("z\\h").stream().map(Customer::getCity).toList());
+        assertTrue(customerRepository.findByEmailContainingIgnoreCase("%@example.com").isEmpty());
+    }
+}
@@ -0,0 +1,146 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewFilter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.DefaultMockMvcBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Benchmark für die Haltezeit von Pool-Verbindungen je Request mit und ohne Open-in-View.
+ *
+ * Mit Open-in-View bleibt die Verbindung nach dem ersten Zugriff bis zum Ende des Requests
+ * (inkl. JSON-Serialisierung) belegt; ohne wird sie am Ende der Service-Transaktion zurückgegeben.
+ * Open-in-View wird hier über den OpenEntityManagerInViewFilter nachgestellt, damit beide Varianten
+ * im selben Kontext laufen. Läuft nur über "./gradlew benchmark"; gegen PostgreSQL analog zu
+ * {@link CustomerSearchBenchmark}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(JdbcRoundTripCounter.class)
+@Tag("benchmark")
+class ConnectionHoldTimeBenchmark {
+
+    private static final int CUSTOMERS = 200;
+    private static final int WARMUP_REQUESTS = 50;
+    private static final int MEASURED_REQUESTS = 500;
+    private static final List<String> ENDPOINTS = List.of(
+            "/api/customers?size=100",
+            "/api/customers/pipeline",
+            "/api/offers?size=100"
+    );
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "benchmark", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        user = userRepository.save(User.builder()
+                .username("holdtimebenchmark")
+                .email("holdtime@example.com")
+                .password("password")
+                .firstName("Hold")
+                .lastName("Time")
+                .build());
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerRepository.save(Customer.builder()
+                    .firstName("Kunde" + i)
+                    .lastName("Haltezeit")
+                    .email("haltezeit" + i + "@example.com")
+                    .status(i % 2 == 0 ? CustomerStatus.NEW : CustomerStatus.CONTACTED)
+                    .createdBy(user)
+                    .assignedTo(user)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll(customerRepository.findByEmailContainingIgnoreCase("haltezeit"));
+        userRepository.delete(user);
+    }
+
+    @Test
+    void connectionHoldTimePerRequest() throws Exception {
+        MockMvc withOpenInView = mockMvc(true);
+        MockMvc withoutOpenInView = mockMvc(false);
+
+        for (String endpoint : ENDPOINTS) {
+            double before = measure(withOpenInView, endpoint);
+            double after = measure(withoutOpenInView, endpoint);
+            System.out.printf("%s: Open-in-View %.3f ms, explizites Laden %.3f ms Verbindungs-Haltezeit je Request (%.0f%% weniger)%n",
+                    endpoint, before, after, before > 0 ? (1 - after / before) * 100 : 0);
+            assertTrue(after > 0);
+        }
+    }
+
+    /**
+     * Liefert die mittlere Verbindungs-Haltezeit je Request in Millisekunden
+     */
+    private double measure(MockMvc mockMvc, String endpoint) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            mockMvc.perform(get(endpoint)).andExpect(status().isOk());
+        }
+
+        roundTripCounter.reset();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            mockMvc.perform(get(endpoint)).andExpect(status().isOk());
+        }
+        System.out.printf("  %s: %.1f Verbindungen, %.1f Statements je Request%n", endpoint,
+                (double) roundTripCounter.getConnectionCheckouts() / MEASURED_REQUESTS,
+                (double) roundTripCounter.getRoundTrips() / MEASURED_REQUESTS);
+        return roundTripCounter.getConnectionHoldNanos() / 1_000_000.0 / MEASURED_REQUESTS;
+    }
+
+    private MockMvc mockMvc(boolean openInView) {
+        DefaultMockMvcBuilder builder = MockMvcBuilders.webAppContextSetup(webApplicationContext);
+        if (openInView) {
+            builder.addFilters(new OpenEntityManagerInViewFilter() {
+                @Override
+                protected EntityManagerFactory lookupEntityManagerFactory() {
+                    return entityManagerFactory;
+                }
+            });
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,125 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.CustomerStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark für die Kundensuche (p50/p99-Latenz bei 100k und 1M Kunden).
+ *
+ * Läuft nicht im normalen Test-Task, sondern nur über "./gradlew benchmark".
+ * Aussagekräftige Werte liefert nur PostgreSQL mit Trigram-Indizes, z.B.:
+ * ./gradlew benchmark -Dspring.datasource.url=jdbc:postgresql://localhost:5433/crm_bench
+ *   -Dspring.datasource.username=crm_user -Dspring.datasource.password=secret
+ *   -Dspring.datasource.driver-class-name=org.postgresql.Driver
+ *   -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class CustomerSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Max", "Anna", "Thomas", "Lisa", "David", "Maria", "Michael", "Sarah", "Julia", "Frank", "Peter", "Laura"};
+    private static final String[] LAST_NAMES = {"Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker", "Schulz", "Hoffmann", "Klein", "Wolf"};
+    private static final String[] CITIES = {"Berlin", "Hamburg", "München", "Köln", "Frankfurt", "Stuttgart", "Düsseldorf", "Leipzig", "Dresden", "Hannover"};
+    private static final String[] COMPANY_SUFFIXES = {"GmbH", "AG", "KG", "Solutions", "Consulting", "Systems"};
+    private static final String[] SEARCH_TERMS = {"schmi", "müll", "weber", "ann", "hoffm", "gmbh", "consult", "berl", "münch", "kunde12"};
+
+    private static final int WARMUP_QUERIES = 50;
+    private static final int MEASURED_QUERIES = 500;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000, 1_000_000})
+    void searchLatency(int rows) {
+        long firstId = seedCustomers(rows);
+        try {
+            Random random = new Random(42);
+            for (int i = 0; i < WARMUP_QUERIES; i++) {
+                runRandomSearch(random);
+            }
+
+            long[] latencies = new long[MEASURED_QUERIES];
+            for (int i = 0; i < MEASURED_QUERIES; i++) {
+                long start = System.nanoTime();
+                runRandomSearch(random);
+                latencies[i] = System.nanoTime() - start;
+            }
+
+            Arrays.sort(latencies);
+            System.out.printf("Kundensuche mit %,d Kunden: p50=%.2f ms, p99=%.2f ms, max=%.2f ms%n",
+                    rows, percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1_000_000.0);
+            assertTrue(latencies.length > 0);
+        } finally {
+            jdbcTemplate.update("DELETE FROM customers WHERE id >= ?", firstId);
+        }
+    }
+
+    private void runRandomSearch(Random random) {
+        String term = SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+        switch (random.nextInt(3)) {
+            case 0 -> customerRepository.searchByCriteria(term, null, null, null, null, PageRequest.of(0, 20));
+            case 1 -> customerRepository.searchByCriteria(null, null, term, null, null, PageRequest.of(0, 20));
+            default -> customerRepository.searchByCriteria(null, null, null, term, CustomerStatus.NEW, PageRequest.of(0, 20));
+        }
+    }
+
+    private long seedCustomers(int rows) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM customers", Long.class);
+        long firstId = maxId + 1;
+        Random random = new Random(rows);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        CustomerStatus[] statuses = CustomerStatus.values();
+
+        String sql = "INSERT INTO customers (id, first_name, last_name, email, company_name, city, status, priority, lead_source, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, 'MEDIUM', 'WEBSITE', ?, ?)";
+        List<Object[]> batch = new ArrayList<>(5_000);
+        for (int i = 0; i < rows; i++) {
+            long id = firstId + i;
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String city = CITIES[random.nextInt(CITIES.length)];
+            batch.add(new Object[]{
+                    id, firstName, lastName,
+                    "kunde" + id + "@example.com",
+                    lastName + " " + COMPANY_SUFFIXES[random.nextInt(COMPANY_SUFFIXES.length)],
+                    city,
+                    statuses[random.nextInt(statuses.length)].name(),
+                    now, now
+            });
+            if (batch.size() == 5_000) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        return firstId;
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,138 @@
+package eu.pierix.crmv3.infrastructure;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test-Hilfsklasse, die JDBC-Roundtrips zählt (jede execute*-Ausführung, ein Batch zählt einmal)
+ * und misst, wie lange Verbindungen aus dem Pool gehalten werden (getConnection bis close).
+ *
+ * Einbinden per @Import(JdbcRoundTripCounter.class); die DataSource wird dann transparent umhüllt.
+ * Über {@link #requireConcurrentCheckouts} lässt sich zusätzlich nachweisen, dass Abfragen auf virtuellen
+ * Threads gleichzeitig laufen.
+ */
+@TestConfiguration
+public class JdbcRoundTripCounter implements BeanPostProcessor {
+
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong connectionCheckouts = new AtomicLong();
+    private final AtomicLong connectionHoldNanos = new AtomicLong();
+    private volatile CyclicBarrier checkoutBarrier;
+
+    public void reset() {
+        roundTrips.set(0);
+        connectionCheckouts.set(0);
+        connectionHoldNanos.set(0);
+    }
+
+    public long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    public long getConnectionCheckouts() {
+        return connectionCheckouts.get();
+    }
+
+    public long getConnectionHoldNanos() {
+        return connectionHoldNanos.get();
+    }
+
+    /**
+     * Lässt jede Verbindungsanforderung eines virtuellen Threads warten, bis parties solcher Threads gleichzeitig
+     * eine Verbindung halten; laufen sie stattdessen nacheinander, schlägt die Anforderung nach dem Timeout fehl.
+     * 0 schaltet die Prüfung ab.
+     */
+    public void requireConcurrentCheckouts(int parties) {
+        checkoutBarrier = parties > 0 ? new CyclicBarrier(parties) : null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countingConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countingConnection(super.getConnection(username, password));
+        }
+    }
+
+    private Connection countingConnection(Connection connection) throws SQLException {
+        awaitConcurrentCheckouts(connection);
+        connectionCheckouts.incrementAndGet();
+        long checkedOutAt = System.nanoTime();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        connectionHoldNanos.addAndGet(System.nanoTime() - checkedOutAt);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        return countingStatement(statement, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private void awaitConcurrentCheckouts(Connection connection) throws SQLException {
+        CyclicBarrier barrier = checkoutBarrier;
+        if (barrier == null || !Thread.currentThread().isVirtual()) {
+            return;
+        }
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            connection.close();
+            throw new SQLException("Keine " + barrier.getParties() + " gleichzeitigen Verbindungsanforderungen", e);
+        }
+    }
+
+    private Object countingStatement(Statement statement, Class<?> statementType) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{statementType},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        roundTrips.incrementAndGet();
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.application.JwtAuthenticationFilter;
+import eu.pierix.crmv3.application.TokenDenyList;
+import eu.pierix.crmv3.application.TokenService;
+import eu.pierix.crmv3.domain.TokenType;
+import eu.pierix.crmv3.domain.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark für die Token-Prüfung im JwtAuthenticationFilter mit und ohne Token-Sperrliste.
+ *
+ * Ohne Sperrliste fragt der Filter je Request die Token-Tabelle ab, mit Sperrliste wird der Widerruf
+ * im Speicher geprüft. Gemessen werden Laufzeit und Statements je Request; der Benutzer kommt in beiden
+ * Varianten aus dem {@link eu.pierix.crmv3.application.UserDetailsCache}. Läuft nur über "./gradlew benchmark".
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(JdbcRoundTripCounter.class)
+@Tag("benchmark")
+class JwtFilterBenchmark {
+
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int MEASURED_REQUESTS = 5_000;
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private TokenDenyList tokenDenyList;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+
+    private User user;
+    private String jwt;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("jwtbenchmark")
+                .email("jwtbenchmark@example.com")
+                .password("password")
+                .firstName("Jwt")
+                .lastName("Benchmark")
+                .build());
+        JwtService.IssuedToken issued = jwtService.issueToken(user);
+        jwt = issued.token();
+        tokenService.saveToken(issued, user, TokenType.BEARER, LocalDateTime.now().plusHours(1));
+        tokenDenyList.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(tokenDenyList, "enabled", true);
+        SecurityContextHolder.clearContext();
+        tokenService.deleteAllUserTokens(user);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void tokenCheckPerRequest() throws Exception {
+        ReflectionTestUtils.setField(tokenDenyList, "enabled", false);
+        double before = measure("Datenbank");
+
+        ReflectionTestUtils.setField(tokenDenyList, "enabled", true);
+        assertTrue(tokenDenyList.isActive());
+        double after = measure("Sperrliste");
+
+        System.out.printf("JwtAuthenticationFilter: Datenbank %.1f µs, Sperrliste %.1f µs je Request (%.0f%% weniger)%n",
+                before, after, before > 0 ? (1 - after / before) * 100 : 0);
+
+        // Ein widerrufener Token wird auch über die Sperrliste sofort abgewiesen
+        tokenService.revokeToken(jwt);
+        assertFalse(authenticate());
+    }
+
+    /**
+     * Liefert die mittlere Laufzeit des Filters je Request in Mikrosekunden
+     */
+    private double measure(String variant) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            assertTrue(authenticate());
+        }
+
+        roundTripCounter.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            authenticate();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  %s: %.2f Verbindungen, %.2f Statements je Request%n", variant,
+                (double) roundTripCounter.getConnectionCheckouts() / MEASURED_REQUESTS,
+                (double) roundTripCounter.getRoundTrips() / MEASURED_REQUESTS);
+        return elapsed / 1_000.0 / MEASURED_REQUESTS;
+    }
+
+    /**
+     * Schickt einen Request mit dem Token durch den Filter und gibt an, ob er authentifiziert wurde
+     */
+    private boolean authenticate() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers");
+        request.addHeader("Authorization", "Bearer " + jwt);
+        jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication() != null;
+    }
+}
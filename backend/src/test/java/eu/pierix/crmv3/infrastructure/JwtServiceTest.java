@@ -0,0 +1,93 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.domain.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-Tests für die Token-Version im JwtService
+ */
+class JwtServiceTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        jwtService.init();
+
+        user = User.builder()
+                .id(1L)
+                .username("versionuser")
+                .email("versionuser@example.com")
+                .password("password")
+                .firstName("Version")
+                .lastName("User")
+                .tokenVersion(3L)
+                .build();
+    }
+
+    @Test
+    void testTokenCarriesCurrentVersion() {
+        String token = jwtService.generateToken(user);
+
+        Claims claims = jwtService.parseClaims(token);
+
+        assertEquals(3L, claims.get(JwtService.TOKEN_VERSION_CLAIM, Number.class).longValue());
+        assertTrue(jwtService.isTokenValid(claims, user));
+    }
+
+    @Test
+    void testIncrementedVersionInvalidatesAllTokens() {
+        String accessToken = jwtService.generateToken(user);
+        String refreshToken = jwtService.generateRefreshToken(user);
+
+        user.setTokenVersion(4L);
+
+        assertFalse(jwtService.isTokenValid(accessToken, user));
+        assertFalse(jwtService.isTokenValid(refreshToken, user));
+        assertTrue(jwtService.isTokenValid(jwtService.generateToken(user), user));
+    }
+
+    @Test
+    void testCachedPrincipalIsCheckedAgainstItsVersion() {
+        String token = jwtService.generateToken(user);
+
+        assertTrue(jwtService.isTokenValid(token, UserPrincipal.from(user)));
+
+        user.setTokenVersion(4L);
+        assertFalse(jwtService.isTokenValid(token, UserPrincipal.from(user)));
+    }
+
+    @Test
+    void testTokenWithoutVersionClaimCountsAsVersionZero() {
+        String legacyToken = Jwts.builder()
+                .subject(user.getUsername())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        user.setTokenVersion(0L);
+        assertTrue(jwtService.isTokenValid(legacyToken, user));
+
+        user.setTokenVersion(1L);
+        assertFalse(jwtService.isTokenValid(legacyToken, user));
+    }
+}
@@ -0,0 +1,118 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark für die Token-Prüfung des JwtAuthenticationFilter (ohne Datenbank und Spring-Kontext).
+ *
+ * Vergleicht den bisherigen Weg (extractUsername im Filter, dann extractUsername und isTokenExpired in
+ * isTokenValid: drei Parser-Aufbauten, drei Key-Ableitungen und drei HMAC-Prüfungen je Request) mit
+ * einmaligem Prüfen über {@link JwtService#parseClaims(String)} und vorab gebautem Parser und Key.
+ * Statt JMH (nicht im Build) mit Aufwärmphase und mehreren Messrunden; maßgeblich ist die beste Runde.
+ * Läuft nur über "./gradlew benchmark".
+ */
+@Tag("benchmark")
+class JwtTokenPathBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+    private static final int ROUNDS = 5;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        jwtService.init();
+
+        user = User.builder()
+                .username("tokenbenchmark")
+                .email("tokenbenchmark@example.com")
+                .password("password")
+                .firstName("Token")
+                .lastName("Benchmark")
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Test
+    void tokenPathPerRequest() {
+        assertTrue(perRequestBefore());
+        assertTrue(perRequestAfter());
+
+        double before = measure(this::perRequestBefore);
+        double after = measure(this::perRequestAfter);
+
+        System.out.printf("Token-Prüfung je Request: bisher %.2f µs, einmal geprüft %.2f µs (%.0f%% weniger)%n",
+                before, after, before > 0 ? (1 - after / before) * 100 : 0);
+        assertTrue(after > 0);
+    }
+
+    /**
+     * Bisheriger Weg: jede Angabe baut Key und Parser neu und prüft die Signatur erneut
+     */
+    private boolean perRequestBefore() {
+        String username = parseUncached(token).getSubject();
+        return username.equals(user.getUsername())
+                && parseUncached(token).getSubject().equals(user.getUsername())
+                && !parseUncached(token).getExpiration().before(new Date());
+    }
+
+    /**
+     * Aktueller Weg des Filters: einmal prüfen, dann mit den Claims weiterarbeiten
+     */
+    private boolean perRequestAfter() {
+        Claims claims = jwtService.parseClaims(token);
+        return claims.getSubject() != null && jwtService.isTokenValid(claims, user);
+    }
+
+    private static Claims parseUncached(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    /**
+     * Liefert die beste mittlere Laufzeit je Aufruf über alle Runden in Mikrosekunden
+     */
+    private static double measure(BooleanSupplier path) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += path.getAsBoolean() ? 1 : 0;
+        }
+
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                sink += path.getAsBoolean() ? 1 : 0;
+            }
+            best = Math.min(best, (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS);
+        }
+        // Ergebnis verwenden, damit der JIT die Aufrufe nicht wegoptimiert
+        assertEquals(WARMUP_ITERATIONS + ROUNDS * MEASURED_ITERATIONS, sink);
+        return best;
+    }
+}
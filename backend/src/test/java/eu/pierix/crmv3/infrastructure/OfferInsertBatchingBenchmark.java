@@ -0,0 +1,157 @@
+package eu.pierix.crmv3.infrastructure;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.Offer;
+import eu.pierix.crmv3.domain.OfferItem;
+import eu.pierix.crmv3.domain.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark für JDBC-Roundtrips beim Anlegen eines Angebots mit N Positionen.
+ *
+ * Vergleicht das Anlegen über Sequenzen mit JDBC-Batching (aktuelles Mapping) mit dem zeilenweisen
+ * Einfügen, wie es IDENTITY erzwingt (ein INSERT-Roundtrip je Zeile, hier per flush() nach jedem persist nachgestellt).
+ * Läuft nur über "./gradlew benchmark"; gegen PostgreSQL analog zu {@link CustomerSearchBenchmark}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=20",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@ActiveProfiles("test")
+@Import(JdbcRoundTripCounter.class)
+@Tag("benchmark")
+class OfferInsertBatchingBenchmark {
+
+    private static final int OFFERS_PER_RUN = 100;
+
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private User user;
+    private Customer customer;
+    private final List<Long> createdOfferIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("batchbench" + System.nanoTime())
+                .email("batchbench" + System.nanoTime() + "@example.com")
+                .password("password")
+                .firstName("Batch")
+                .lastName("Benchmark")
+                .build());
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Batch")
+                .lastName("Kunde")
+                .email("batchkunde" + System.nanoTime() + "@example.com")
+                .status(CustomerStatus.ACTIVE)
+                .createdBy(user)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long offerId : createdOfferIds) {
+            jdbcTemplate.update("DELETE FROM offer_items WHERE offer_id = ?", offerId);
+            jdbcTemplate.update("DELETE FROM offers WHERE id = ?", offerId);
+        }
+        createdOfferIds.clear();
+        customerRepository.deleteById(customer.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20})
+    void roundTripsPerOfferCreation(int itemsPerOffer) {
+        double rowByRow = measure(itemsPerOffer, true);
+        double batched = measure(itemsPerOffer, false);
+
+        System.out.printf("Angebot mit %d Positionen: zeilenweise (IDENTITY) %.2f Roundtrips, Sequenz + Batching %.2f Roundtrips%n",
+                itemsPerOffer, rowByRow, batched);
+        assertTrue(batched <= rowByRow);
+    }
+
+    /**
+     * Durchschnittliche Anzahl JDBC-Roundtrips je angelegtem Angebot
+     */
+    private double measure(int itemsPerOffer, boolean flushEachRow) {
+        roundTripCounter.reset();
+        for (int i = 0; i < OFFERS_PER_RUN; i++) {
+            Long offerId = transactionTemplate.execute(status -> {
+                Offer offer = newOffer(itemsPerOffer);
+                if (flushEachRow) {
+                    List<OfferItem> items = new ArrayList<>(offer.getItems());
+                    offer.getItems().clear();
+                    entityManager.persist(offer);
+                    entityManager.flush();
+                    for (OfferItem item : items) {
+                        offer.getItems().add(item);
+                        entityManager.persist(item);
+                        entityManager.flush();
+                    }
+                } else {
+                    offerRepository.save(offer);
+                }
+                return offer.getId();
+            });
+            createdOfferIds.add(offerId);
+        }
+        return (double) roundTripCounter.getRoundTrips() / OFFERS_PER_RUN;
+    }
+
+    private Offer newOffer(int itemsPerOffer) {
+        Offer offer = Offer.builder()
+                .offerNumber("BENCH-" + System.nanoTime())
+                .title("Benchmark-Angebot")
+                .customer(entityManager.getReference(Customer.class, customer.getId()))
+                .createdBy(entityManager.getReference(User.class, user.getId()))
+                .build();
+        for (int i = 0; i < itemsPerOffer; i++) {
+            OfferItem item = OfferItem.builder()
+                    .description("Position " + (i + 1))
+                    .quantity(1)
+                    .unitPrice(new BigDecimal("10.00"))
+                    .build();
+            item.calculateAmounts();
+            offer.addItem(item);
+        }
+        return offer;
+    }
+}
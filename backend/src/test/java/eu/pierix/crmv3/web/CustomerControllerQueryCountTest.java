@@ -0,0 +1,167 @@
+package eu.pierix.crmv3.web;
+
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.JdbcRoundTripCounter;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import eu.pierix.crmv3.web.dto.CustomerResponse;
+import eu.pierix.crmv3.web.dto.CustomerSearchRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prüft, dass die Listen-Endpunkte Kunden samt Benutzernamen ohne N+1-Queries laden.
+ *
+ * Der Test läuft bewusst ohne Test-Transaktion: die Controller lesen die Benutzer nach Ende der
+ * Service-Transaktion, ein nicht mitgeladener Benutzer führt dann zu einer LazyInitializationException
+ * (siehe spring.jpa.open-in-view=false) statt zu einer unbemerkten Nachlade-Query.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(JdbcRoundTripCounter.class)
+class CustomerControllerQueryCountTest {
+
+    private static final int CUSTOMER_COUNT = 8;
+
+    @Autowired
+    private CustomerController customerController;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+
+    private List<User> creators;
+    private User assignee;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "testuser", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        // Jeder Kunde hat einen anderen Ersteller, damit pro Zeile ein eigener Proxy entsteht
+        creators = new ArrayList<>();
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            creators.add(userRepository.save(user("nplusone" + i)));
+        }
+        assignee = userRepository.save(user("nplusoneassignee"));
+
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            customerRepository.save(Customer.builder()
+                    .firstName("Kunde" + i)
+                    .lastName("Nplusone")
+                    .email("nplusone" + i + "@example.com")
+                    .status(CustomerStatus.CONTACTED)
+                    .createdBy(creators.get(i))
+                    .assignedTo(assignee)
+                    .build());
+        }
+
+        roundTripCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll(customerRepository.findByEmailContainingIgnoreCase("nplusone"));
+        userRepository.deleteAll(creators);
+        userRepository.delete(assignee);
+    }
+
+    @Test
+    void testListLoadsUsersWithPage() {
+        Page<CustomerResponse> page = customerController.getAllCustomers(0, 100, "createdAt", "desc").getBody();
+
+        assertNotNull(page);
+        assertUserNamesLoaded(page.getContent());
+        // Seite inkl. Benutzer + ggf. COUNT
+        assertTrue(roundTripCounter.getRoundTrips() <= 2, "Queries: " + roundTripCounter.getRoundTrips());
+    }
+
+    @Test
+    void testSearchLoadsUsersWithPage() {
+        CustomerSearchRequest request = CustomerSearchRequest.builder()
+                .name("Nplusone")
+                .size(100)
+                .build();
+
+        Page<CustomerResponse> page = customerController.searchCustomers(request).getBody();
+
+        assertNotNull(page);
+        assertEquals(CUSTOMER_COUNT, page.getNumberOfElements());
+        assertUserNamesLoaded(page.getContent());
+        // Kunden-Seite + eine Query für alle Benutzer
+        assertEquals(2, roundTripCounter.getRoundTrips());
+    }
+
+    @Test
+    void testPipelineLoadsUsersInOneQuery() {
+        Map<String, List<CustomerResponse>> pipeline = customerController.getPipelineCustomers().getBody();
+
+        assertNotNull(pipeline);
+        assertUserNamesLoaded(pipeline.get(CustomerStatus.CONTACTED.name()));
+        assertEquals(1, roundTripCounter.getRoundTrips());
+    }
+
+    @Test
+    void testPipelineByStatusLoadsUsersInOneQuery() {
+        List<CustomerResponse> customers = customerController.getPipelineCustomersByStatus(CustomerStatus.CONTACTED).getBody();
+
+        assertNotNull(customers);
+        assertUserNamesLoaded(customers);
+        assertEquals(1, roundTripCounter.getRoundTrips());
+    }
+
+    @Test
+    void testAssignedLoadsUsersWithCustomers() {
+        List<CustomerResponse> customers = customerController.getCustomersByAssignedUser(assignee.getId()).getBody();
+
+        assertNotNull(customers);
+        assertEquals(CUSTOMER_COUNT, customers.size());
+        assertUserNamesLoaded(customers);
+        // Benutzer-Lookup + Kunden inkl. Benutzer
+        assertEquals(2, roundTripCounter.getRoundTrips());
+    }
+
+    private void assertUserNamesLoaded(List<CustomerResponse> customers) {
+        List<CustomerResponse> seeded = customers.stream()
+                .filter(customer -> "Nplusone".equals(customer.getLastName()))
+                .toList();
+        assertEquals(CUSTOMER_COUNT, seeded.size());
+        seeded.forEach(customer -> {
+            assertNotNull(customer.getCreatedByFullName());
+            assertEquals("Zugewiesen Nplusone", customer.getAssignedToFullName());
+        });
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .firstName(username.endsWith("assignee") ? "Zugewiesen" : "Erstellt")
+                .lastName("Nplusone")
+                .build();
+    }
+}
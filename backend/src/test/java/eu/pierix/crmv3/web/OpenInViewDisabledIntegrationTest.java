@@ -0,0 +1,243 @@
+package eu.pierix.crmv3.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.pierix.crmv3.application.CustomerService;
+import eu.pierix.crmv3.domain.Customer;
+import eu.pierix.crmv3.domain.CustomerStatus;
+import eu.pierix.crmv3.domain.User;
+import eu.pierix.crmv3.infrastructure.CustomerRepository;
+import eu.pierix.crmv3.infrastructure.OfferRepository;
+import eu.pierix.crmv3.infrastructure.UserRepository;
+import eu.pierix.crmv3.web.dto.CustomerRequest;
+import eu.pierix.crmv3.web.dto.CustomerSearchRequest;
+import eu.pierix.crmv3.web.dto.OfferItemRequest;
+import eu.pierix.crmv3.web.dto.OfferRequest;
+import eu.pierix.crmv3.web.dto.RegisterRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration-Tests der Controller mit spring.jpa.open-in-view=false und
+ * hibernate.enable_lazy_load_no_trans=false (siehe application-test.properties).
+ *
+ * Der Test läuft bewusst ohne Test-Transaktion: jede Zuordnung, die ein Controller nach Ende der
+ * Service-Transaktion liest, ohne sie explizit geladen zu haben, führt zu einer LazyInitializationException
+ * und damit zu einem 500er.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class OpenInViewDisabledIntegrationTest {
+
+    private static final String LAST_NAME = "Lazyload";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User creator;
+    private User assignee;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "testuser", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        creator = userRepository.save(user("lazycreator"));
+        assignee = userRepository.save(user("lazyassignee"));
+
+        customer = customerService.createCustomer(Customer.builder()
+                .firstName("Lena")
+                .lastName(LAST_NAME)
+                .email("lena.lazyload@example.com")
+                .companyName("Lazyload GmbH")
+                .city("Lazystadt")
+                .tags("Lazytag")
+                .status(CustomerStatus.CONTACTED)
+                .build(), creator.getId());
+        customer = customerService.assignCustomerToUser(customer.getId(), assignee.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Customer> customers = customerRepository.findByEmailContainingIgnoreCase("lazyload");
+        customers.forEach(c -> offerRepository.deleteAll(offerRepository.findByCustomerId(c.getId())));
+        customerRepository.deleteAll(customers);
+        userRepository.deleteAll(List.of(creator, assignee));
+    }
+
+    @Test
+    void testCustomerReadEndpoints() throws Exception {
+        String id = customer.getId().toString();
+
+        ok(get("/api/customers/" + id))
+                .andExpect(jsonPath("$.createdByFullName").value("Erstellt Lazyload"))
+                .andExpect(jsonPath("$.assignedToFullName").value("Zugewiesen Lazyload"));
+        ok(get("/api/customers").param("size", "100"));
+        ok(get("/api/customers/scroll").param("size", "100"));
+        ok(post("/api/customers/search").contentType(MediaType.APPLICATION_JSON)
+                .content(json(CustomerSearchRequest.builder().name(LAST_NAME).build())))
+                .andExpect(jsonPath("$.content[0].assignedToFullName").value("Zugewiesen Lazyload"));
+        ok(post("/api/customers/search/scroll").contentType(MediaType.APPLICATION_JSON)
+                .content(json(CustomerSearchRequest.builder().name(LAST_NAME).build())))
+                .andExpect(jsonPath("$.content[0].assignedToFullName").value("Zugewiesen Lazyload"));
+        ok(get("/api/customers/search/name").param("name", LAST_NAME));
+        ok(get("/api/customers/search/email").param("email", "lena.lazyload"));
+        ok(get("/api/customers/search/company").param("company", "Lazyload"));
+        ok(get("/api/customers/search/city").param("city", "Lazystadt"));
+        ok(get("/api/customers/search/tags").param("tags", "Lazytag"))
+                .andExpect(jsonPath("$.content[0].createdByFullName").value("Erstellt Lazyload"));
+        ok(get("/api/customers/status/CONTACTED"));
+        ok(get("/api/customers/active"));
+        ok(get("/api/customers/inactive"));
+        ok(get("/api/customers/potential"));
+        ok(get("/api/customers/pipeline"));
+        ok(get("/api/customers/pipeline/CONTACTED"));
+        ok(get("/api/customers/pipeline/statistics"));
+        ok(get("/api/customers/assigned/" + assignee.getId()));
+        ok(get("/api/customers/statistics"));
+        ok(get("/api/customers/tags/counts"));
+    }
+
+    @Test
+    void testCustomerWriteEndpoints() throws Exception {
+        String id = customer.getId().toString();
+
+        ok(patch("/api/customers/" + id + "/status").param("status", "NEW"))
+                .andExpect(jsonPath("$.createdByFullName").value("Erstellt Lazyload"));
+        ok(patch("/api/customers/" + id + "/next-pipeline-step"));
+        ok(patch("/api/customers/" + id + "/pipeline-status").param("newStatus", "OFFER_CREATED"));
+        ok(patch("/api/customers/" + id + "/contact"))
+                .andExpect(jsonPath("$.assignedToFullName").value("Zugewiesen Lazyload"));
+        ok(patch("/api/customers/" + id + "/assign").param("userId", creator.getId().toString()))
+                .andExpect(jsonPath("$.assignedToFullName").value("Erstellt Lazyload"));
+        ok(put("/api/customers/" + id).contentType(MediaType.APPLICATION_JSON)
+                .content(json(customerRequest("lena.lazyload@example.com"))));
+        ok(post("/api/customers").contentType(MediaType.APPLICATION_JSON)
+                .content(json(customerRequest("neu.lazyload@example.com"))));
+    }
+
+    @Test
+    void testOfferEndpoints() throws Exception {
+        OfferRequest request = OfferRequest.builder()
+                .title("Lazyload-Angebot")
+                .customerId(customer.getId())
+                .validUntil(LocalDate.now().minusDays(1))
+                .items(List.of(OfferItemRequest.builder()
+                        .description("Beratung")
+                        .quantity(2)
+                        .unitPrice(new BigDecimal("100.00"))
+                        .taxRate(new BigDecimal("19.00"))
+                        .build()))
+                .build();
+
+        JsonNode created = objectMapper.readTree(ok(post("/api/offers").contentType(MediaType.APPLICATION_JSON)
+                .content(json(request)))
+                .andExpect(jsonPath("$.customerName").value("Lena Lazyload"))
+                .andReturn().getResponse().getContentAsString());
+        String id = created.get("id").asText();
+
+        ok(get("/api/offers/" + id))
+                .andExpect(jsonPath("$.items[0].description").value("Beratung"));
+        ok(put("/api/offers/" + id).contentType(MediaType.APPLICATION_JSON).content(json(request)))
+                .andExpect(jsonPath("$.items.length()").value(1));
+        ok(get("/api/offers").param("customerId", customer.getId().toString()))
+                .andExpect(jsonPath("$.content[0].items[0].description").value("Beratung"));
+        ok(get("/api/offers/scroll").param("customerId", customer.getId().toString()))
+                .andExpect(jsonPath("$.content[0].customerName").value("Lena Lazyload"));
+        ok(post("/api/offers/" + id + "/send"));
+        ok(get("/api/offers/overdue"));
+        ok(post("/api/offers/" + id + "/paid"))
+                .andExpect(jsonPath("$.createdByName").exists());
+        ok(get("/api/offers/statistics"));
+    }
+
+    @Test
+    void testStatisticsEndpoint() throws Exception {
+        ok(get("/api/statistics"));
+    }
+
+    @Test
+    void testAuthenticationEndpoints() throws Exception {
+        String username = "lazy" + UUID.randomUUID().toString().substring(0, 8);
+        JsonNode registered = objectMapper.readTree(ok(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                .content(json(RegisterRequest.builder()
+                        .username(username)
+                        .email(username + "@example.com")
+                        .password("password123")
+                        .firstName("Lazy")
+                        .lastName("Auth")
+                        .build())))
+                .andExpect(jsonPath("$.success").value(true))
+                .andReturn().getResponse().getContentAsString());
+        String accessToken = registered.get("accessToken").asText();
+
+        ok(get("/api/auth/profile").header("Authorization", "Bearer " + accessToken))
+                .andExpect(jsonPath("$.username").value(username));
+        ok(post("/api/auth/validate").header("Authorization", "Bearer " + accessToken));
+    }
+
+    private ResultActions ok(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().isOk());
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static CustomerRequest customerRequest(String email) {
+        return CustomerRequest.builder()
+                .firstName("Lena")
+                .lastName(LAST_NAME)
+                .email(email)
+                .status(CustomerStatus.CONTACTED)
+                .build();
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .firstName(username.endsWith("assignee") ? "Zugewiesen" : "Erstellt")
+                .lastName(LAST_NAME)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package eu.pierix.crmv3.web.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-Tests für das CSV-Format des ExportWriter
+ */
+class ExportWriterTest {
+
+    private static final List<String> COLUMNS = List.of("companyName", "notes", "description", "tags", "amount");
+
+    @Test
+    void testCsvQuotesSeparatorsAndQuotes() {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("companyName", "Müller, Schmidt & Co");
+        record.put("notes", "Sagte \"vielleicht\"");
+        record.put("description", null);
+        record.put("tags", "vip");
+        record.put("amount", new BigDecimal("1200.50"));
+
+        assertEquals("\"Müller, Schmidt & Co\",\"Sagte \"\"vielleicht\"\"\",,vip,1200.50", csvLines(record).get(1));
+    }
+
+    @Test
+    void testCsvNeutralizesFormulas() {
+        // Given: Benutzereingaben, die eine Tabellenkalkulation als Formel ausführen würde
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("companyName", "=HYPERLINK(\"http://evil.example\",\"Klick\")");
+        record.put("notes", "+49 30 123456");
+        record.put("description", "@SUM(A1:A9)");
+        record.put("tags", "-2+3,\tcmd");
+        record.put("amount", new BigDecimal("-25.00"));
+
+        // Then: Texte mit Hochkomma und in Anführungszeichen, Zahlen unverändert
+        assertEquals("\"'=HYPERLINK(\"\"http://evil.example\"\",\"\"Klick\"\")\",\"'+49 30 123456\","
+                + "\"'@SUM(A1:A9)\",\"'-2+3,\tcmd\",-25.00", csvLines(record).get(1));
+    }
+
+    private static List<String> csvLines(Map<String, ?> record) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExportWriter writer = new ExportWriter(ExportFormat.CSV, output, new ObjectMapper(), COLUMNS);
+        writer.write(record);
+        try {
+            writer.flush();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(String.join(",", COLUMNS), lines.get(0));
+        return lines;
+    }
+}